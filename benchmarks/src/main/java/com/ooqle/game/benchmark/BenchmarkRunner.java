@@ -0,0 +1,36 @@
+package com.ooqle.game.benchmark;
+/*
+* @author Kenny Williams
+*/
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar. Takes the usual JMH command line, and always adds the GC profiler, so every result
+ * comes with the bytes allocated per operation and the collections it caused next to its time.
+ * <p>
+ * Run from the repository root, since the benchmarks read and write worlds the way the game does:
+ * <pre>
+ * mvn -B package
+ * java -jar benchmarks/target/benchmarks.jar                 # everything
+ * java -jar benchmarks/target/benchmarks.jar PathBenchmark   # one class
+ * java -jar benchmarks/target/benchmarks.jar -p map=maze     # one parameter value
+ * </pre>
+ */
+public class BenchmarkRunner
+{
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException
+    {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,81 @@
+package com.ooqle.game.benchmark;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.Point;
+import com.ooqle.game.World;
+import com.ooqle.game.entity.Obstacle;
+import com.ooqle.game.path.HierarchicalPathFinder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How long the hierarchical path finder's graph takes to build, and to catch up after an obstacle appears and then
+ * disappears again, on the maps of PathFinderBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HierarchicalRepairBenchmark
+{
+    private static final int CELLS = 256;
+
+    @Param({"newworld", "scattered256", "walls256", "scattered1024", "walls1024"})
+    public String map;
+
+    private World world;
+    private HierarchicalPathFinder finder;
+    private Point[] cells;
+    private int next;
+
+    @Setup
+    public void setUp()
+    {
+        world = PathFinderBenchmark.createMap(map);
+        finder = new HierarchicalPathFinder();
+        finder.getNodeCount(world);
+        cells = new Point[CELLS];
+        Random random = new Random(42);
+        for (int i = 0; i < CELLS; i++)
+        {
+            cells[i] = world.toPoint(Worlds.freeCell(world, random));
+        }
+    }
+
+    @Benchmark
+    public int build()
+    {
+        HierarchicalPathFinder built = new HierarchicalPathFinder();
+        int nodes = built.getNodeCount(world);
+        // Otherwise every graph built would go on listening to the world
+        world.removeGridListener(built);
+        return nodes;
+    }
+
+    @Benchmark
+    public int repair()
+    {
+        next = (next + 1) & (CELLS - 1);
+        Point pt = cells[next];
+        world.addWorldObject(new Obstacle("obstacle", pt, Worlds.IMAGES));
+        finder.getNodeCount(world);
+        world.removeEntityAt(pt);
+        return finder.getNodeCount(world);
+    }
+}
@@ -0,0 +1,82 @@
+package com.ooqle.game.benchmark;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.Point;
+import com.ooqle.game.World;
+import com.ooqle.game.entity.Background;
+import com.ooqle.game.entity.Obstacle;
+import com.ooqle.game.entity.Ore;
+import com.ooqle.game.entity.WorldObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import processing.core.PImage;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * World.findNearestOfType for ore, from random points of a map with one entity in every eight cells, a quarter of
+ * them ore and the rest obstacles
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NearestBenchmark
+{
+    private static final List<PImage> IMAGES = Collections.singletonList(null);
+    private static final int QUERIES = 1024;
+
+    @Param({"1000", "10000", "100000"})
+    public int entities;
+
+    private World world;
+    private Point[] queries;
+    private int next;
+
+    @Setup
+    public void setUp()
+    {
+        Random random = new Random(entities);
+        int size = (int) Math.ceil(Math.sqrt(entities * 8.0));
+        world = new World(size, size, new Background(null));
+        int placed = 0;
+        while (placed < entities)
+        {
+            Point pt = new Point(random.nextInt(size), random.nextInt(size));
+            if (world.isOccupied(pt))
+            {
+                continue;
+            }
+            world.addWorldObject(placed % 4 == 0 ? new Ore("ore", pt, IMAGES, 20000) : new Obstacle("obstacle", pt, IMAGES));
+            placed++;
+        }
+        queries = new Point[QUERIES];
+        for (int i = 0; i < QUERIES; i++)
+        {
+            queries[i] = new Point(random.nextInt(size), random.nextInt(size));
+        }
+    }
+
+    @Benchmark
+    public WorldObject findNearestOfType()
+    {
+        next = (next + 1) & (QUERIES - 1);
+        return world.findNearestOfType(queries[next], Ore.class);
+    }
+}
@@ -0,0 +1,202 @@
+package com.ooqle.game.benchmark;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.EntityTable;
+import com.ooqle.game.Grid;
+import com.ooqle.game.Point;
+import com.ooqle.game.World;
+import com.ooqle.game.entity.Background;
+import com.ooqle.game.entity.Obstacle;
+import com.ooqle.game.entity.Ore;
+import com.ooqle.game.entity.Vein;
+import com.ooqle.game.entity.WorldObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares ways of storing what stands in each cell on the two lookups the game makes most: the passability test A*
+ * runs on the four neighbours of every cell it expands, and the occupancy probes of Vein.findOpenAround. The layouts
+ * are a row-of-rows array of references, the way Grid used to store cells, a chunked Grid of references, and the
+ * World's IntGrid of slots. Setup fails if the layouts ever disagree.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OccupancyBenchmark
+{
+    private static final int[] DX = {1, -1, 0, 0};
+    private static final int[] DY = {0, 0, 1, -1};
+    private static final int ROWS = 0;
+    private static final int CHUNKED = 1;
+    private static final int SLOTS = 2;
+
+    @Param({"rows", "chunked", "slots"})
+    public String layout;
+
+    @Param({"256", "1024", "2048"})
+    public int size;
+
+    private int kind;
+    private World world;
+    private Grid<WorldObject> chunked;
+    private WorldObject[][] rows;
+    private List<Vein> veins;
+
+    @Setup
+    public void setUp()
+    {
+        kind = layout.equals("rows") ? ROWS : layout.equals("chunked") ? CHUNKED : SLOTS;
+        Random random = new Random(size);
+        double density = size >= 2048 ? 0.05 : 0.1;
+        world = new World(size, size, new Background(null));
+        chunked = new Grid<>(size, size, null);
+        rows = new WorldObject[size][size];
+        veins = new ArrayList<>();
+        for (int i = 0; i < size * size * density; i++)
+        {
+            Point pt = new Point(random.nextInt(size), random.nextInt(size));
+            if (world.isOccupied(pt))
+            {
+                continue;
+            }
+            WorldObject obj;
+            if (i % 10 == 0)
+            {
+                Vein vein = new Vein("vein", pt, Worlds.IMAGES, 10000, 1 + i % 3);
+                veins.add(vein);
+                obj = vein;
+            }
+            else
+            {
+                obj = i % 3 == 0 ? new Ore("ore", pt, Worlds.IMAGES, 20000) : new Obstacle("obstacle", pt, Worlds.IMAGES);
+            }
+            world.addWorldObject(obj);
+            chunked.setCell(pt, obj);
+            rows[pt.getY()][pt.getX()] = obj;
+        }
+
+        for (int other = ROWS; other <= SLOTS; other++)
+        {
+            if (expand(other) != expand(kind) || findOpen(other) != findOpen(kind))
+            {
+                throw new IllegalStateException("Layouts disagree");
+            }
+        }
+    }
+
+    @Benchmark
+    public long neighbours()
+    {
+        return expand(kind);
+    }
+
+    @Benchmark
+    public long findOpenAround()
+    {
+        return findOpen(kind);
+    }
+
+    /**
+     * Expands every cell the way A* does, counting the neighbours a miner heading for ore could step onto
+     */
+    private long expand(int layout)
+    {
+        int width = world.getWidth();
+        int height = world.getHeight();
+        long passable = 0;
+        for (int y = 0; y < height; y++)
+        {
+            for (int x = 0; x < width; x++)
+            {
+                for (int d = 0; d < 4; d++)
+                {
+                    int nx = x + DX[d];
+                    int ny = y + DY[d];
+                    boolean ok;
+                    if (layout == SLOTS)
+                    {
+                        ok = world.isPassable(nx, ny, Ore.class);
+                    }
+                    else if (!world.withinBounds(nx, ny))
+                    {
+                        ok = false;
+                    }
+                    else
+                    {
+                        WorldObject obj = layout == ROWS ? rows[ny][nx] : chunked.getCell(nx, ny);
+                        ok = obj == null || obj instanceof Ore;
+                    }
+                    if (ok)
+                    {
+                        passable++;
+                    }
+                }
+            }
+        }
+        return passable;
+    }
+
+    /**
+     * Probes the square around every vein the way Vein.findOpenAround does, counting the veins with room for ore
+     */
+    private long findOpen(int layout)
+    {
+        long open = 0;
+        for (Vein vein : veins)
+        {
+            int distance = vein.getResourceDistance();
+            Point pos = vein.getPosition();
+            search:
+            for (int dy = -distance; dy <= distance; dy++)
+            {
+                for (int dx = -distance; dx <= distance; dx++)
+                {
+                    int x = pos.getX() + dx;
+                    int y = pos.getY() + dy;
+                    if (!world.withinBounds(x, y))
+                    {
+                        continue;
+                    }
+                    boolean occupied;
+                    if (layout == ROWS)
+                    {
+                        occupied = rows[y][x] != null;
+                    }
+                    else if (layout == CHUNKED)
+                    {
+                        occupied = chunked.getCell(x, y) != null;
+                    }
+                    else
+                    {
+                        occupied = world.getOccupancy().get(x, y) != EntityTable.EMPTY;
+                    }
+                    if (!occupied)
+                    {
+                        open++;
+                        break search;
+                    }
+                }
+            }
+        }
+        return open;
+    }
+}
@@ -0,0 +1,107 @@
+package com.ooqle.game.benchmark;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.Point;
+import com.ooqle.game.World;
+import com.ooqle.game.entity.Background;
+import com.ooqle.game.entity.MinerNotFull;
+import com.ooqle.game.entity.Obstacle;
+import com.ooqle.game.util.Tuple;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import processing.core.PImage;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * World.createPath for a miner from one corner of the map to the other. The maze is a row of walls with a gap at alternate ends,
+ * so the only path winds across the whole map, and the unreachable goal is walled in, so the search gives up only
+ * after visiting every cell it can reach. Maps of 128 x 128 and up are searched with the hierarchical path finder.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathBenchmark
+{
+    private static final List<PImage> IMAGES = Collections.singletonList(null);
+
+    @Param({"open", "maze", "unreachable"})
+    public String map;
+
+    @Param({"64", "256"})
+    public int size;
+
+    private World world;
+    private Point start;
+    private Point goal;
+
+    @Setup
+    public void setUp()
+    {
+        world = new World(size, size, new Background(null));
+        start = new Point(0, 0);
+        goal = new Point(size - 1, size - 1);
+        switch (map)
+        {
+            case "open":
+                break;
+            case "maze":
+                for (int x = 2; x < size - 1; x += 4)
+                {
+                    int gap = (x / 4) % 2 == 0 ? size - 1 : 0;
+                    for (int y = 0; y < size; y++)
+                    {
+                        if (y != gap)
+                        {
+                            wall(x, y);
+                        }
+                    }
+                }
+                break;
+            case "unreachable":
+                goal = new Point(size / 2, size / 2);
+                for (int dy = -1; dy <= 1; dy++)
+                {
+                    for (int dx = -1; dx <= 1; dx++)
+                    {
+                        if (dx != 0 || dy != 0)
+                        {
+                            wall(goal.getX() + dx, goal.getY() + dy);
+                        }
+                    }
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown map " + map);
+        }
+        // The search is made for the mover standing on the start cell
+        world.addWorldObject(new MinerNotFull("miner", start, IMAGES, 500, 100, 2));
+    }
+
+    private void wall(int x, int y)
+    {
+        world.addWorldObject(new Obstacle("wall", new Point(x, y), IMAGES));
+    }
+
+    @Benchmark
+    public Tuple<List<Point>, List<Point>> createPath()
+    {
+        return world.createPath(start, goal);
+    }
+}
@@ -0,0 +1,208 @@
+package com.ooqle.game.benchmark;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.Point;
+import com.ooqle.game.World;
+import com.ooqle.game.entity.MinerNotFull;
+import com.ooqle.game.entity.Ore;
+import com.ooqle.game.entity.WorldObject;
+import com.ooqle.game.path.AStarPathFinder;
+import com.ooqle.game.path.HierarchicalPathFinder;
+import com.ooqle.game.path.JumpPointPathFinder;
+import com.ooqle.game.path.PathFinder;
+import com.ooqle.game.util.SaveLoad;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The path finders on their own, A* against Jump Point Search and hierarchical A*, on res/newworld and on generated
+ * maps of scattered obstacles and of long walls. Every finder searches the same seeded start and goal pairs, one
+ * pair per operation. Setup fails if Jump Point Search ever disagrees with A* on a path length, or hierarchical A*
+ * on whether a path exists.
+ * <p>
+ * With movers, that many miners step back and forth between two cells before every search, the way actors keep
+ * changing the grid of a live world, so each search also pays for whatever the finder has to redo after a change.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathFinderBenchmark
+{
+    private static final int PAIRS = 256;
+
+    @Param({"astar", "jps", "hierarchical"})
+    public String finder;
+
+    @Param({"newworld", "open256", "scattered256", "walls256", "open1024", "scattered1024", "walls1024"})
+    public String map;
+
+    @Param({"0", "32"})
+    public int movers;
+
+    private World world;
+    private PathFinder pathFinder;
+    private int[] starts;
+    private int[] goals;
+    private int next;
+    private WorldObject[] moving;
+    private Point[][] steps;
+    private int side;
+
+    @Setup
+    public void setUp()
+    {
+        world = createMap(map);
+        starts = new int[PAIRS];
+        goals = new int[PAIRS];
+        Random random = new Random(42);
+        for (int i = 0; i < PAIRS; i++)
+        {
+            starts[i] = Worlds.freeCell(world, random);
+            goals[i] = Worlds.freeCell(world, random);
+        }
+
+        pathFinder = createFinder(finder);
+        check();
+
+        boolean[] taken = new boolean[world.getWidth() * world.getHeight()];
+        for (int i = 0; i < PAIRS; i++)
+        {
+            taken[starts[i]] = true;
+            taken[goals[i]] = true;
+        }
+        moving = new WorldObject[movers];
+        steps = new Point[movers][];
+        for (int i = 0; i < movers; i++)
+        {
+            Point[] pair;
+            do
+            {
+                pair = stepPair(taken, random);
+            } while (pair == null);
+            steps[i] = pair;
+            moving[i] = new MinerNotFull("miner", pair[0], Worlds.IMAGES, 500, 100, 2);
+            world.addWorldObject(moving[i]);
+        }
+        if (movers > 0)
+        {
+            move();
+            check();
+        }
+    }
+
+    /**
+     * @return A free cell and a free cell beside it, both marked as taken, or null if the cell picked has none
+     */
+    private Point[] stepPair(boolean[] taken, Random random)
+    {
+        int cell = Worlds.freeCell(world, random);
+        if (taken[cell])
+        {
+            return null;
+        }
+        Point from = world.toPoint(cell);
+        Point[] sides = {new Point(from.getX() + 1, from.getY()), new Point(from.getX() - 1, from.getY()),
+                new Point(from.getX(), from.getY() + 1), new Point(from.getX(), from.getY() - 1)};
+        for (Point to : sides)
+        {
+            if (world.withinBounds(to) && !world.isOccupied(to) && !taken[world.toCell(to)])
+            {
+                taken[cell] = true;
+                taken[world.toCell(to)] = true;
+                return new Point[]{from, to};
+            }
+        }
+        return null;
+    }
+
+    private void move()
+    {
+        side ^= 1;
+        for (int i = 0; i < movers; i++)
+        {
+            world.moveWorldObject(moving[i], steps[i][side]);
+        }
+    }
+
+    private void check()
+    {
+        PathFinder astar = new AStarPathFinder();
+        for (int i = 0; i < PAIRS; i++)
+        {
+            int expected = astar.findPath(world, starts[i], goals[i], Ore.class) ? astar.getPathLength() : -1;
+            int length = pathFinder.findPath(world, starts[i], goals[i], Ore.class) ? pathFinder.getPathLength() : -1;
+            boolean agrees = pathFinder instanceof HierarchicalPathFinder ? (length == -1) == (expected == -1) : length == expected;
+            if (!agrees)
+            {
+                throw new IllegalStateException(finder + " on " + map + ": path from " + world.toPoint(starts[i]) + " to "
+                        + world.toPoint(goals[i]) + " is " + length + " long, A* found " + expected);
+            }
+        }
+    }
+
+    static World createMap(String map)
+    {
+        switch (map)
+        {
+            case "newworld":
+                return SaveLoad.load();
+            case "open256":
+                return Worlds.obstacles(256, 256, 0.005, 0, 1);
+            case "scattered256":
+                return Worlds.obstacles(256, 256, 0.05, 0, 2);
+            case "walls256":
+                return Worlds.obstacles(256, 256, 0.005, 12, 3);
+            case "open1024":
+                return Worlds.obstacles(1024, 1024, 0.005, 0, 4);
+            case "scattered1024":
+                return Worlds.obstacles(1024, 1024, 0.05, 0, 5);
+            case "walls1024":
+                return Worlds.obstacles(1024, 1024, 0.005, 48, 6);
+            default:
+                throw new IllegalArgumentException("Unknown map " + map);
+        }
+    }
+
+    static PathFinder createFinder(String finder)
+    {
+        switch (finder)
+        {
+            case "astar":
+                return new AStarPathFinder();
+            case "jps":
+                return new JumpPointPathFinder();
+            case "hierarchical":
+                return new HierarchicalPathFinder();
+            default:
+                throw new IllegalArgumentException("Unknown finder " + finder);
+        }
+    }
+
+    @Benchmark
+    public int findPath()
+    {
+        if (movers > 0)
+        {
+            move();
+        }
+        next = (next + 1) & (PAIRS - 1);
+        return pathFinder.findPath(world, starts[next], goals[next], Ore.class) ? pathFinder.getPathLength() : -1;
+    }
+}
@@ -0,0 +1,110 @@
+package com.ooqle.game.benchmark;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.World;
+import com.ooqle.game.util.EntityRecord;
+import com.ooqle.game.util.SaveLoad;
+import com.ooqle.game.util.WorldFile;
+import com.ooqle.game.util.WorldSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading a generated world shaped like res/newworld, saved as JSON and converted to the binary WorldFile format.
+ * parse reads the file into a sink that keeps nothing, which times the format alone, and load builds the whole
+ * World with SaveLoad.load. Setup fails if the two formats load worlds of different sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SaveLoadBenchmark
+{
+    @Param({"json", "binary"})
+    public String format;
+
+    @Param({"20000", "200000"})
+    public int entities;
+
+    private File file;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        int size = (int) Math.ceil(Math.sqrt(entities * 4.0));
+        File json = File.createTempFile("world", ".json");
+        Worlds.writeJson(json, size, size, entities, 1);
+        if (format.equals("json"))
+        {
+            file = json;
+            return;
+        }
+
+        file = File.createTempFile("world", ".bin");
+        WorldFile.convert(json, file);
+        int fromJson = SaveLoad.load(json).getWorldObjects().size();
+        int fromBinary = SaveLoad.load(file).getWorldObjects().size();
+        json.delete();
+        if (fromJson != fromBinary)
+        {
+            throw new IllegalStateException("JSON loaded " + fromJson + " objects, binary " + fromBinary);
+        }
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        file.delete();
+    }
+
+    @Benchmark
+    public long parse() throws IOException
+    {
+        CountingSink sink = new CountingSink();
+        SaveLoad.read(file, sink);
+        return sink.count;
+    }
+
+    @Benchmark
+    public World load()
+    {
+        return SaveLoad.load(file);
+    }
+
+    private static class CountingSink implements WorldSink
+    {
+        private long count;
+
+        public void begin(int width, int height)
+        {
+        }
+
+        public void background(int x, int y, String type)
+        {
+            count++;
+        }
+
+        public void entity(EntityRecord record)
+        {
+            count += record.getX();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.ooqle.game.benchmark;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.World;
+import com.ooqle.game.entity.Background;
+import com.ooqle.game.util.Action;
+import com.ooqle.game.util.ScheduledAction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The world's action queue at different depths. The queue holds that many actions repeating every PERIOD ticks,
+ * spread evenly over the period, so each tick of updateOnTime runs depth / PERIOD of them.
+ * scheduleAndUnschedule queues a batch of far-off actions on top and takes them off again with unscheduleActions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchedulerBenchmark
+{
+    private static final int PERIOD = 1000;
+    private static final int BATCH = 1000;
+    private static final Action NOTHING = (long currentTicks) -> null;
+
+    @Param({"1000", "100000", "1000000"})
+    public int depth;
+
+    private World world;
+    private long ticks;
+    private List<ScheduledAction> batch;
+
+    @Setup
+    public void setUp()
+    {
+        world = new World(16, 16, new Background(null));
+        for (int i = 0; i < depth; i++)
+        {
+            world.scheduleRepeating(NOTHING, 1 + i % PERIOD, PERIOD);
+        }
+        batch = new ArrayList<>(BATCH);
+    }
+
+    @Benchmark
+    public long updateOnTime()
+    {
+        world.updateOnTime(++ticks);
+        return world.getCurrentGameTime();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int scheduleAndUnschedule()
+    {
+        long later = world.getCurrentGameTime() + 100 * PERIOD;
+        for (int i = 0; i < BATCH; i++)
+        {
+            batch.add(world.scheduleAction(NOTHING, later + i));
+        }
+        world.unscheduleActions(batch);
+        int size = batch.size();
+        batch.clear();
+        return size;
+    }
+}
@@ -0,0 +1,65 @@
+package com.ooqle.game.benchmark;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.util.GameUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import processing.core.PImage;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cutting a sprite sheet into frames with GameUtils.getSpriteImages, both every time and through the sprite cache.
+ * The sheets are the size of the character sheets in /res: one row of 64 x 64 frames.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpriteBenchmark
+{
+    private static final int FRAME_SIZE = 64;
+
+    @Param({"6", "9"})
+    public int frames;
+
+    private PImage sheet;
+    private String path;
+
+    @Setup
+    public void setUp()
+    {
+        sheet = new PImage(frames * FRAME_SIZE, FRAME_SIZE);
+        for (int i = 0; i < sheet.pixels.length; i++)
+        {
+            sheet.pixels[i] = 0xFF000000 | i;
+        }
+        path = "benchmark/sheet" + frames + ".png";
+    }
+
+    @Benchmark
+    public List<PImage> getSpriteImages()
+    {
+        return GameUtils.getSpriteImages(sheet, frames);
+    }
+
+    @Benchmark
+    public List<PImage> getSpriteImagesCached()
+    {
+        return GameUtils.getSpriteImages(path, sheet, frames);
+    }
+}
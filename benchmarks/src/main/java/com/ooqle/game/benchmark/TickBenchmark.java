@@ -0,0 +1,110 @@
+package com.ooqle.game.benchmark;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.World;
+import com.ooqle.game.entity.Actor;
+import com.ooqle.game.entity.WorldObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ticks of worlds full of miners, with path planning on one thread and on a pool of threads. Every iteration starts
+ * again from the same seeded world, so each one times the same stretch of the game. Setup fails if the two ways of
+ * planning ever end a tick in different states.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TickBenchmark
+{
+    private static final long TICK = 100;
+    private static final int CHECKED_TICKS = 50;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    @Param({"256x256/2000", "1024x1024/20000"})
+    public String world;
+
+    private World tickWorld;
+    private long ticks;
+
+    @Setup(Level.Trial)
+    public void checkPlanning()
+    {
+        World serial = generate();
+        World parallel = generate();
+        parallel.setTickThreads(Math.max(2, threads));
+        for (int i = 1; i <= CHECKED_TICKS; i++)
+        {
+            serial.updateOnTime(i * TICK);
+            parallel.updateOnTime(i * TICK);
+            if (!state(serial).equals(state(parallel)))
+            {
+                throw new IllegalStateException(world + ": worlds differ after tick " + i);
+            }
+        }
+        parallel.setTickThreads(1);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp()
+    {
+        tickWorld = generate();
+        tickWorld.setTickThreads(threads);
+        ticks = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown()
+    {
+        tickWorld.setTickThreads(1);
+    }
+
+    private World generate()
+    {
+        String[] size = world.split("[x/]");
+        return Worlds.miners(Integer.parseInt(size[0]), Integer.parseInt(size[1]), Integer.parseInt(size[2]), 1);
+    }
+
+    private static String state(World world)
+    {
+        StringBuilder out = new StringBuilder();
+        for (WorldObject obj : world.getWorldObjects())
+        {
+            out.append(obj.getClass().getSimpleName()).append(obj.getPosition());
+            if (obj instanceof Actor)
+            {
+                out.append(((Actor) obj).getResourceCount());
+            }
+            out.append(';');
+        }
+        return out.toString();
+    }
+
+    @Benchmark
+    public long updateOnTime()
+    {
+        ticks += TICK;
+        tickWorld.updateOnTime(ticks);
+        return tickWorld.getCurrentGameTime();
+    }
+}
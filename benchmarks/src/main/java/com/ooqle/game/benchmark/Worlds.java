@@ -0,0 +1,187 @@
+package com.ooqle.game.benchmark;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.Point;
+import com.ooqle.game.World;
+import com.ooqle.game.entity.Background;
+import com.ooqle.game.entity.Blacksmith;
+import com.ooqle.game.entity.Miner;
+import com.ooqle.game.entity.MinerNotFull;
+import com.ooqle.game.entity.Obstacle;
+import com.ooqle.game.entity.Ore;
+import com.ooqle.game.entity.WorldObject;
+import processing.core.PImage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeded worlds shared by the benchmarks
+ */
+final class Worlds
+{
+    static final List<PImage> IMAGES = Collections.singletonList(null);
+
+    private Worlds()
+    {
+    }
+
+    /**
+     * Fills a map with randomly placed single obstacles plus a number of long horizontal and vertical walls, each
+     * with a gap so the map stays mostly connected
+     */
+    static World obstacles(int width, int height, double density, int walls, long seed)
+    {
+        Random random = new Random(seed);
+        World world = new World(width, height, new Background(null));
+
+        for (int i = 0; i < walls; i++)
+        {
+            boolean horizontal = random.nextBoolean();
+            int length = horizontal ? width : height;
+            int at = random.nextInt(horizontal ? height : width);
+            int gap = random.nextInt(length);
+            for (int j = 0; j < length; j++)
+            {
+                if (Math.abs(j - gap) > 1)
+                {
+                    addObstacle(world, horizontal ? new Point(j, at) : new Point(at, j));
+                }
+            }
+        }
+
+        int obstacles = (int) (width * height * density);
+        for (int i = 0; i < obstacles; i++)
+        {
+            addObstacle(world, new Point(random.nextInt(width), random.nextInt(height)));
+        }
+        return world;
+    }
+
+    private static void addObstacle(World world, Point pt)
+    {
+        if (!world.isOccupied(pt))
+        {
+            world.addWorldObject(new Obstacle("obstacle", pt, IMAGES));
+        }
+    }
+
+    /**
+     * A map with obstacles on one cell in twenty, the given number of miners already scheduled, as much ore and a
+     * blacksmith per hundred miners
+     */
+    static World miners(int width, int height, int miners, long seed)
+    {
+        Random random = new Random(seed);
+        World world = new World(width, height, new Background(null));
+        for (int i = 0; i < width * height / 20; i++)
+        {
+            place(world, random, new Obstacle("obstacle", null, IMAGES));
+        }
+        for (int i = 0; i < miners; i++)
+        {
+            place(world, random, new Ore("ore", null, IMAGES, 0));
+        }
+        for (int i = 0; i < miners / 100 + 1; i++)
+        {
+            place(world, random, new Blacksmith("blacksmith", null, 0, IMAGES));
+        }
+        for (int i = 0; i < miners; i++)
+        {
+            Miner miner = new MinerNotFull("miner", null, IMAGES, 500 + 100 * random.nextInt(6), 100, 2);
+            place(world, random, miner);
+            miner.schedule(world, 0);
+        }
+        return world;
+    }
+
+    /**
+     * Puts the object on a random free cell
+     */
+    static void place(World world, Random random, WorldObject obj)
+    {
+        while (true)
+        {
+            Point pt = new Point(random.nextInt(world.getWidth()), random.nextInt(world.getHeight()));
+            if (!world.isOccupied(pt))
+            {
+                obj.setPosition(pt);
+                world.addWorldObject(obj);
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return The index of a random free cell
+     */
+    static int freeCell(World world, Random random)
+    {
+        while (true)
+        {
+            int x = random.nextInt(world.getWidth());
+            int y = random.nextInt(world.getHeight());
+            if (!world.isOccupied(x, y))
+            {
+                return y * world.getWidth() + x;
+            }
+        }
+    }
+
+    /**
+     * Writes a world in the same shape as res/newworld, with every number as a string
+     */
+    static void writeJson(File file, int width, int height, int entities, long seed) throws IOException
+    {
+        Random random = new Random(seed);
+        boolean[] used = new boolean[width * height];
+        try (PrintWriter out = new PrintWriter(file, "UTF-8"))
+        {
+            out.print("{\"width\": \"" + width + "\", \"height\": \"" + height + "\", \"worldObjects\": [");
+            for (int i = 0; i < entities; i++)
+            {
+                int cell;
+                do
+                {
+                    cell = random.nextInt(width * height);
+                } while (used[cell]);
+                used[cell] = true;
+
+                String location = "\"location\": {\"y\": \"" + cell / width + "\", \"x\": \"" + cell % width + "\"}";
+                out.print(i == 0 ? "" : ", ");
+                switch (random.nextInt(10))
+                {
+                    case 0:
+                        out.print("{\"resourceLimit\": \"" + (2000 + random.nextInt(2000)) + "\", \"animationRate\": \"1\", \"rate\": \""
+                                + (10 + random.nextInt(6)) + "\", \"type\": \"blacksmith\", " + location + "}");
+                        break;
+                    case 1:
+                    case 2:
+                        out.print("{\"resourceDistance\": \"1\", \"rate\": \"" + (10000 + random.nextInt(10000))
+                                + "\", \"type\": \"vein\", " + location + "}");
+                        break;
+                    case 3:
+                    case 4:
+                        out.print("{\"resourceLimit\": \"" + (2 + random.nextInt(3)) + "\", \"animationRate\": \"" + (100 + random.nextInt(50))
+                                + "\", \"rate\": \"" + (500 + random.nextInt(500)) + "\", \"type\": \"miner\", " + location + "}");
+                        break;
+                    default:
+                        out.print("{\"type\": \"obstacle\", " + location + "}");
+                }
+            }
+            out.print("], \"background\": [");
+            for (int i = 0; i < width * height / 10; i++)
+            {
+                out.print((i == 0 ? "" : ", ") + "{\"type\": \"rocks\", \"location\": {\"y\": \"" + random.nextInt(height)
+                        + "\", \"x\": \"" + random.nextInt(width) + "\"}}");
+            }
+            out.println("]}");
+        }
+    }
+}
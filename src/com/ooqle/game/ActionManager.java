@@ -1,7 +1,7 @@
 package com.ooqle.game;
 
 import com.ooqle.game.entity.*;
-import com.ooqle.game.util.GameUtils;
+import com.ooqle.game.util.Sprites;
 import com.ooqle.game.util.WorldObjectSettings;
 import processing.core.PImage;
 
@@ -20,7 +20,7 @@ public class ActionManager
 
     public static OreBlob createBlob(World world, String name, Point pt, int rate, long ticks)
     {
-        List<PImage> blobImgs = Game.getImages("images/blob*.png", 12);
+        List<PImage> blobImgs = Sprites.getImages("images/blob*.png", 12);
 
         OreBlob blob = new OreBlob(name, pt, blobImgs, rate, randomWithRange(WorldObjectSettings.BLOB_ANIMATION_MIN,
                 WorldObjectSettings.BLOB_ANIMATION_MAX) * WorldObjectSettings.BLOB_ANIMATION_RATE_SCALE);
@@ -31,7 +31,7 @@ public class ActionManager
 
     public static Ore createOre(World world, String name, Point pt, long ticks)
     {
-        PImage oreImgs = Game.getImage("images/ore.png");
+        PImage oreImgs = Sprites.getImage("images/ore.png");
         int newRate = randomWithRange(WorldObjectSettings.ORE_CORRUPT_MIN, WorldObjectSettings.ORE_CORRUPT_MAX);
         Ore ore = new Ore(name, pt, Collections.singletonList(oreImgs), newRate);
         ore.schedule(world, ticks);
@@ -41,7 +41,7 @@ public class ActionManager
 
     public static Quake createQuake(World world, Point pt, long ticks)
     {
-        List<PImage> quakeImgs = Game.getImages("images/quake*.png", 6);
+        List<PImage> quakeImgs = Sprites.getImages("images/quake*.png", 6);
         Quake quake = new Quake("quake", pt, quakeImgs, WorldObjectSettings.QUAKE_ANIMATION_RATE, 2);
         quake.schedule(world, ticks);
 
@@ -50,12 +50,12 @@ public class ActionManager
 
     public static Vein createVein(String name, Point pt, int rate)
     {
-        return new Vein("vein" + name, pt, Collections.singletonList(Game.getImage("images/vein.bmp")), rate);
+        return new Vein("vein" + name, pt, Collections.singletonList(Sprites.getImage("images/vein.bmp")), rate);
     }
 
     public static Goblin createGoblin(World world, Point pt, long ticks)
     {
-        List<PImage> imgs = GameUtils.getSpriteImages(Game.getImage("images/characters/goblin/goblin_move_left.png"), 6);
+        List<PImage> imgs = Sprites.getFrames("images/characters/goblin/goblin_move_left.png", 6);
         Goblin goblin = new Goblin("goblin" + ticks, "goblin", pt, imgs , 1000, 100, 2);
         goblin.schedule(world, ticks);
         return goblin;
@@ -0,0 +1,344 @@
+package com.ooqle.game;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.entity.Actor;
+import com.ooqle.game.entity.AnimatedActor;
+import com.ooqle.game.entity.MovableActor;
+import com.ooqle.game.entity.WorldObject;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the per-object state a tick touches as columns of primitives, indexed by the object's EntityTable slot:
+ * position, rate, animation frame and frame count, health, animation rate and resource count. It is optional; see
+ * World.setActorStoreEnabled.
+ * <p>
+ * While an object has a slot its getters and setters read and write its columns, so the class hierarchy is a view
+ * over the store, and its fields are written back when it leaves the world. Systems run over the columns instead of
+ * the objects: animate() steps every looping animation that is due in one pass, in place of an action per actor per
+ * frame.
+ */
+public class ActorStore
+{
+    public static final int PRESENT = 1;
+    public static final int ACTOR = 1 << 1;
+    public static final int ANIMATED = 1 << 2;
+    public static final int MOVABLE = 1 << 3;
+    public static final int LOOPING = 1 << 4;
+
+    private byte[] flags;
+    private int[] xs;
+    private int[] ys;
+    private int[] rates;
+    private int[] frames;
+    private int[] frameCounts;
+    private int[] healths;
+    private int[] animationRates;
+    private int[] resourceCounts;
+    private long[] nextFrames;
+    private WorldObject[] objects;
+    private int limit;
+    private int size;
+
+    public ActorStore()
+    {
+        this(64);
+    }
+
+    public ActorStore(int capacity)
+    {
+        capacity = Math.max(capacity, 1);
+        flags = new byte[capacity];
+        xs = new int[capacity];
+        ys = new int[capacity];
+        rates = new int[capacity];
+        frames = new int[capacity];
+        frameCounts = new int[capacity];
+        healths = new int[capacity];
+        animationRates = new int[capacity];
+        resourceCounts = new int[capacity];
+        nextFrames = new long[capacity];
+        objects = new WorldObject[capacity];
+        limit = 1;
+    }
+
+    /**
+     * Copies the object's state into the slot's columns and makes the object read and write them from now on. Does
+     * nothing if the object already holds the slot.
+     */
+    public void attach(int slot, WorldObject obj)
+    {
+        if (slot < limit && objects[slot] == obj)
+        {
+            return;
+        }
+        if (objects.length <= slot)
+        {
+            grow(slot + 1);
+        }
+        if (objects[slot] != null)
+        {
+            detach(slot);
+        }
+
+        int kind = PRESENT;
+        xs[slot] = obj.getPosition().getX();
+        ys[slot] = obj.getPosition().getY();
+        rates[slot] = obj.getRate();
+        frames[slot] = obj.getImageIndex();
+        frameCounts[slot] = obj.getImages() == null ? 0 : obj.getImages().size();
+        healths[slot] = 0;
+        animationRates[slot] = 0;
+        resourceCounts[slot] = 0;
+        nextFrames[slot] = 0;
+        if (obj instanceof Actor)
+        {
+            kind |= ACTOR;
+            resourceCounts[slot] = ((Actor) obj).getResourceCount();
+        }
+        if (obj instanceof AnimatedActor)
+        {
+            kind |= ANIMATED;
+            animationRates[slot] = ((AnimatedActor) obj).getAnimationRate();
+        }
+        if (obj instanceof MovableActor)
+        {
+            kind |= MOVABLE;
+            healths[slot] = ((MovableActor) obj).getHealth();
+        }
+        flags[slot] = (byte) kind;
+        objects[slot] = obj;
+        limit = Math.max(limit, slot + 1);
+        size++;
+        obj.setStore(this, slot);
+    }
+
+    /**
+     * Writes the slot's columns back into its object and clears them. Does nothing for an empty slot.
+     */
+    public void detach(int slot)
+    {
+        if (slot >= limit || objects[slot] == null)
+        {
+            return;
+        }
+        WorldObject obj = objects[slot];
+        obj.setStore(null, EntityTable.EMPTY);
+        objects[slot] = null;
+        flags[slot] = 0;
+        size--;
+    }
+
+    /**
+     * Detaches every object, keeping its animation running: objects that were looping in the store are returned so
+     * the caller can restart their animations some other way.
+     */
+    public Map<WorldObject, Long> detachAll()
+    {
+        Map<WorldObject, Long> looping = new IdentityHashMap<>();
+        for (int slot = 1; slot < limit; slot++)
+        {
+            if (objects[slot] != null)
+            {
+                if (isLooping(slot))
+                {
+                    looping.put(objects[slot], nextFrames[slot]);
+                }
+                detach(slot);
+            }
+        }
+        return looping;
+    }
+
+    /**
+     * Reattaches every object to the slots of a new table, as after World.setWorldObjectGrid. Looping animations
+     * carry over to the object's new slot.
+     */
+    public void rebuild(EntityTable entities)
+    {
+        Map<WorldObject, Long> looping = detachAll();
+        limit = 1;
+        for (int slot = 1; slot < entities.getSlotLimit(); slot++)
+        {
+            WorldObject obj = entities.get(slot);
+            if (obj != null)
+            {
+                attach(slot, obj);
+                Long next = looping.get(obj);
+                if (next != null)
+                {
+                    startAnimation(slot, next);
+                }
+            }
+        }
+    }
+
+    private void grow(int needed)
+    {
+        int capacity = Math.max(needed, objects.length * 2);
+        flags = Arrays.copyOf(flags, capacity);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        rates = Arrays.copyOf(rates, capacity);
+        frames = Arrays.copyOf(frames, capacity);
+        frameCounts = Arrays.copyOf(frameCounts, capacity);
+        healths = Arrays.copyOf(healths, capacity);
+        animationRates = Arrays.copyOf(animationRates, capacity);
+        resourceCounts = Arrays.copyOf(resourceCounts, capacity);
+        nextFrames = Arrays.copyOf(nextFrames, capacity);
+        objects = Arrays.copyOf(objects, capacity);
+    }
+
+    /**
+     * Has animate() step the slot's frame from the given time on, every animation rate ticks, until it is stopped
+     * or the object leaves the world
+     */
+    public void startAnimation(int slot, long firstFrame)
+    {
+        flags[slot] |= LOOPING;
+        nextFrames[slot] = firstFrame;
+    }
+
+    public void stopAnimation(int slot)
+    {
+        flags[slot] &= ~LOOPING;
+    }
+
+    /**
+     * The animation system. Steps the frame of every looping slot whose next frame is due, and marks its cell dirty,
+     * the same as each AnimatedActor's own animation action would have. A slot with an animation rate of 0 or less
+     * is held on its current frame.
+     *
+     * @return The number of frames stepped
+     */
+    public int animate(World world, long ticks)
+    {
+        int stepped = 0;
+        for (int slot = 1; slot < limit; slot++)
+        {
+            if ((flags[slot] & LOOPING) == 0 || nextFrames[slot] > ticks || animationRates[slot] <= 0)
+            {
+                continue;
+            }
+            if (frameCounts[slot] > 0)
+            {
+                frames[slot] = (frames[slot] + 1) % frameCounts[slot];
+            }
+            nextFrames[slot] = ticks + animationRates[slot];
+            world.markDirty(xs[slot], ys[slot]);
+            stepped++;
+        }
+        return stepped;
+    }
+
+    /**
+     * @return One past the highest slot that may hold an object
+     */
+    public int getSlotLimit()
+    {
+        return limit;
+    }
+
+    /**
+     * @return The number of attached objects
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    public WorldObject getObject(int slot)
+    {
+        return objects[slot];
+    }
+
+    public int getFlags(int slot)
+    {
+        return flags[slot];
+    }
+
+    public boolean isLooping(int slot)
+    {
+        return (flags[slot] & LOOPING) != 0;
+    }
+
+    public long getNextFrame(int slot)
+    {
+        return nextFrames[slot];
+    }
+
+    public int getX(int slot)
+    {
+        return xs[slot];
+    }
+
+    public int getY(int slot)
+    {
+        return ys[slot];
+    }
+
+    public void setPosition(int slot, int x, int y)
+    {
+        xs[slot] = x;
+        ys[slot] = y;
+    }
+
+    public int getRate(int slot)
+    {
+        return rates[slot];
+    }
+
+    public int getFrame(int slot)
+    {
+        return frames[slot];
+    }
+
+    public void setFrame(int slot, int frame)
+    {
+        frames[slot] = frame;
+    }
+
+    public int getFrameCount(int slot)
+    {
+        return frameCounts[slot];
+    }
+
+    public void setFrameCount(int slot, int frameCount)
+    {
+        frameCounts[slot] = frameCount;
+    }
+
+    public int getHealth(int slot)
+    {
+        return healths[slot];
+    }
+
+    public void setHealth(int slot, int health)
+    {
+        healths[slot] = health;
+    }
+
+    public int getAnimationRate(int slot)
+    {
+        return animationRates[slot];
+    }
+
+    public void setAnimationRate(int slot, int animationRate)
+    {
+        animationRates[slot] = animationRate;
+    }
+
+    public int getResourceCount(int slot)
+    {
+        return resourceCounts[slot];
+    }
+
+    public void setResourceCount(int slot, int resourceCount)
+    {
+        resourceCounts[slot] = resourceCount;
+    }
+}
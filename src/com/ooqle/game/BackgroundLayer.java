@@ -0,0 +1,161 @@
+package com.ooqle.game;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.util.WorldObjectSettings;
+import processing.core.PApplet;
+import processing.core.PGraphics;
+import processing.core.PImage;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The world's background pre-rendered into offscreen layers of CHUNK_TILES by CHUNK_TILES cells, so a whole view of
+ * background costs one blit per layer in view instead of one image call per cell. Layers are rendered the first time
+ * they come into view, and only the most recently drawn MAX_CHUNKS are kept.
+ * <p>
+ * Snapshots share their background array until World.setBackground replaces a cell, so a new array is the only sign
+ * that anything changed. The cells that differ from the array the layers were painted from are repainted in place.
+ */
+public class BackgroundLayer
+{
+    public static final int CHUNK_TILES = 32;
+    public static final int MAX_CHUNKS = 9;
+
+    private final PApplet game;
+    private final Map<Integer, PGraphics> chunks;
+    private PImage[] painted;
+    private int width, height, chunksX;
+    private long chunksRendered, cellsRepainted;
+
+    public BackgroundLayer(PApplet game)
+    {
+        this.game = game;
+        this.chunks = new LinkedHashMap<Integer, PGraphics>(MAX_CHUNKS, 0.75f, true)
+        {
+            protected boolean removeEldestEntry(Map.Entry<Integer, PGraphics> eldest)
+            {
+                return size() > MAX_CHUNKS;
+            }
+        };
+    }
+
+    /**
+     * @return The number of layers rendered from scratch so far
+     */
+    public long getChunksRendered()
+    {
+        return chunksRendered;
+    }
+
+    /**
+     * @return The number of cells repainted into existing layers after the background changed
+     */
+    public long getCellsRepainted()
+    {
+        return cellsRepainted;
+    }
+
+    /**
+     * Repaints the cells whose background differs from the snapshot's
+     */
+    public void update(RenderSnapshot snapshot)
+    {
+        PImage[] background = snapshot.getBackgroundImages();
+        if (background == painted)
+        {
+            return;
+        }
+        if (snapshot.getWidth() != width || snapshot.getHeight() != height)
+        {
+            width = snapshot.getWidth();
+            height = snapshot.getHeight();
+            chunksX = (width + CHUNK_TILES - 1) / CHUNK_TILES;
+            chunks.clear();
+        } else
+        {
+            Set<PGraphics> open = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (int cell = 0; cell < background.length; cell++)
+            {
+                if (background[cell] != painted[cell])
+                {
+                    repaint(cell % width, cell / width, background[cell], open);
+                }
+            }
+            for (PGraphics chunk : open)
+            {
+                chunk.endDraw();
+            }
+        }
+        painted = background;
+    }
+
+    /**
+     * Blits the layers in view onto the target
+     *
+     * @param xShift  The leftmost column in view
+     * @param yShift  The topmost row in view
+     * @param columns The number of columns in view
+     * @param rows    The number of rows in view
+     */
+    public void draw(PGraphics target, int xShift, int yShift, int columns, int rows)
+    {
+        int tile = WorldObjectSettings.TILESIZE;
+        int maxX = Math.min(width, xShift + columns) - 1;
+        int maxY = Math.min(height, yShift + rows) - 1;
+        for (int cy = Math.max(0, yShift) / CHUNK_TILES; cy <= maxY / CHUNK_TILES && maxY >= 0; cy++)
+        {
+            for (int cx = Math.max(0, xShift) / CHUNK_TILES; cx <= maxX / CHUNK_TILES && maxX >= 0; cx++)
+            {
+                target.image(chunk(cx, cy), (cx * CHUNK_TILES - xShift) * tile, (cy * CHUNK_TILES - yShift) * tile);
+            }
+        }
+    }
+
+    private PGraphics chunk(int cx, int cy)
+    {
+        int key = cy * chunksX + cx;
+        PGraphics chunk = chunks.get(key);
+        if (chunk == null)
+        {
+            int tile = WorldObjectSettings.TILESIZE;
+            int columns = Math.min(CHUNK_TILES, width - cx * CHUNK_TILES);
+            int rows = Math.min(CHUNK_TILES, height - cy * CHUNK_TILES);
+            chunk = game.createGraphics(columns * tile, rows * tile);
+            chunk.beginDraw();
+            for (int y = 0; y < rows; y++)
+            {
+                for (int x = 0; x < columns; x++)
+                {
+                    int cell = (cy * CHUNK_TILES + y) * width + cx * CHUNK_TILES + x;
+                    chunk.image(painted[cell], x * tile, y * tile);
+                }
+            }
+            chunk.endDraw();
+            chunks.put(key, chunk);
+            chunksRendered++;
+        }
+        return chunk;
+    }
+
+    private void repaint(int x, int y, PImage img, Set<PGraphics> open)
+    {
+        // Layers that are not kept are rendered from the new array when they next come into view
+        PGraphics chunk = chunks.get((y / CHUNK_TILES) * chunksX + x / CHUNK_TILES);
+        if (chunk != null)
+        {
+            if (open.add(chunk))
+            {
+                chunk.beginDraw();
+            }
+            int tile = WorldObjectSettings.TILESIZE;
+            chunk.image(img, (x % CHUNK_TILES) * tile, (y % CHUNK_TILES) * tile);
+            cellsRepainted++;
+        }
+    }
+}
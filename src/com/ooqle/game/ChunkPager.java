@@ -0,0 +1,22 @@
+package com.ooqle.game;
+/*
+* @author Kenny Williams
+*/
+
+import java.io.IOException;
+
+/**
+ * Keeps the chunks a Grid pages out. A chunk is always read back before it is written again.
+ */
+public interface ChunkPager<T>
+{
+    /**
+     * Stores a chunk's cells, Grid.CHUNK_CELLS of them by row
+     */
+    void write(int chunk, Object[] cells) throws IOException;
+
+    /**
+     * Fills in the cells last written for the chunk
+     */
+    void read(int chunk, Object[] cells) throws IOException;
+}
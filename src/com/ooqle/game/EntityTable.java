@@ -0,0 +1,117 @@
+package com.ooqle.game;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.entity.WorldObject;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Numbers the objects standing in a World's cells, so the cells themselves can be an IntGrid of slots. Slot 0, EMPTY,
+ * is never handed out and always maps to null. A slot is counted once for every cell holding it and goes back on
+ * the free list when the last of them lets go, so an object written into two cells keeps the same slot.
+ */
+public class EntityTable
+{
+    public static final int EMPTY = 0;
+
+    private WorldObject[] objects;
+    private int[] refs;
+    private int[] free;
+    private int freeCount;
+    private int next;
+    private final Map<WorldObject, Integer> slots;
+
+    public EntityTable()
+    {
+        objects = new WorldObject[64];
+        refs = new int[64];
+        free = new int[16];
+        next = 1;
+        slots = new IdentityHashMap<>();
+    }
+
+    /**
+     * @return The object in the slot, or null for EMPTY
+     */
+    public WorldObject get(int slot)
+    {
+        return objects[slot];
+    }
+
+    /**
+     * @return The slot of an object held by at least one cell, or EMPTY
+     */
+    public int slotOf(WorldObject obj)
+    {
+        Integer slot = slots.get(obj);
+        return slot == null ? EMPTY : slot;
+    }
+
+    /**
+     * Counts one more cell holding the object, giving it a slot if it has none
+     *
+     * @return The object's slot
+     */
+    public int acquire(WorldObject obj)
+    {
+        Integer slot = slots.get(obj);
+        if (slot == null)
+        {
+            if (freeCount > 0)
+            {
+                slot = free[--freeCount];
+            }
+            else
+            {
+                if (next == objects.length)
+                {
+                    objects = Arrays.copyOf(objects, next * 2);
+                    refs = Arrays.copyOf(refs, next * 2);
+                }
+                slot = next++;
+            }
+            objects[slot] = obj;
+            slots.put(obj, slot);
+        }
+        refs[slot]++;
+        return slot;
+    }
+
+    /**
+     * Counts one less cell holding the slot, freeing it once none do
+     */
+    public void release(int slot)
+    {
+        if (slot == EMPTY || --refs[slot] > 0)
+        {
+            return;
+        }
+        slots.remove(objects[slot]);
+        objects[slot] = null;
+        if (freeCount == free.length)
+        {
+            free = Arrays.copyOf(free, freeCount * 2);
+        }
+        free[freeCount++] = slot;
+    }
+
+    /**
+     * @return One past the highest slot ever handed out
+     */
+    public int getSlotLimit()
+    {
+        return next;
+    }
+
+    /**
+     * @return The number of objects with a slot
+     */
+    public int size()
+    {
+        return slots.size();
+    }
+}
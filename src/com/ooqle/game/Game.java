@@ -7,8 +7,12 @@ import com.ooqle.game.entity.*;
 import com.ooqle.game.ui.Button;
 import com.ooqle.game.ui.ToggleButton;
 import com.ooqle.game.ui.UIManager;
+import com.ooqle.game.util.AssetManager;
+import com.ooqle.game.util.PhaseTimer;
 import com.ooqle.game.util.SaveLoad;
+import com.ooqle.game.util.Sprites;
 import com.ooqle.game.util.WorldObjectSettings;
+import com.ooqle.game.util.WorldSaver;
 import ddf.minim.AudioPlayer;
 import ddf.minim.Minim;
 import processing.core.PApplet;
@@ -16,52 +20,28 @@ import processing.core.PImage;
 
 import java.io.File;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 
 public class Game extends PApplet
 {
     private boolean worldLive, showMenu, battleMode;
     private int xShift, yShift, xSize, ySize;
-    private long startTime, worldStartTime;
+    private long worldStartTime;
+    private AssetManager assets;
+    private PhaseTimer startup;
 
     private World world;
+    private SimulationThread simulation;
+    private WorldSaver saver;
+    private RenderSnapshot snapshot;
+    private WorldRenderer renderer;
+    private boolean menuDrawn;
     private MovableActor hightlightedActor;
     private PImage redSquare, blackSquare, greenSquare, yellowSquare, splashImage;
     private PImage heart;
     private AudioPlayer happyMusicPlayer, battleMusicPlayer;
     private Minim minim;
 
-    private static HashMap<String, PImage> imgs;
-
-    public HashMap<String, PImage> loadImages(File dir)
-    {
-        HashMap<String, PImage> out = new HashMap<>();
-        final String[] okFileExtensions = new String[]{"jpg", "png", "gif", "bmp"};
-        for (File f : dir.listFiles((File file) -> {
-            for (String extension : okFileExtensions)
-            {
-                if (file.getName().toLowerCase().endsWith(extension) || file.isDirectory())
-                {
-                    return true;
-                }
-            }
-            return false;
-        }))
-        {
-            if (f.isDirectory())
-            {
-                out.putAll(loadImages(f));
-            } else
-            {
-                String unixPath = f.getPath().replace("\\", "/");
-                String name = unixPath.substring(4, unixPath.length());
-                out.put(name, loadImage(f.getPath()));
-            }
-        }
-        return out;
-    }
-
     public void drawImage(PImage img, float a, float b)
     {
         super.image(img, a * 32, b * 32);
@@ -84,27 +64,49 @@ public class Game extends PApplet
 
         size(xSize, ySize);
         frame.setTitle("Metro Monsters");
-        imgs = loadImages(new File("res"));
 
-        world = SaveLoad.load();
+        // Only list the images here. The splash screen is shown while the pool decodes the rest, and battle images
+        // are decoded the first time they are asked for
+        startup = new PhaseTimer();
+        assets = new AssetManager(new File("res"), f -> loadImage(f.getPath()));
+        assets.index();
+        Sprites.setSource(assets);
+        splashImage = getImage("images/splashscreen2.png");
+        assets.loadRequired(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        startup.mark("index");
+
+        minim = new Minim(this);
+        happyMusicPlayer = minim.loadFile("res/audio/happy_music.mp3");
+        battleMusicPlayer = minim.loadFile("res/audio/battle_music.mp3");
+        happyMusicPlayer.loop();
+        startup.mark("audio");
+    }
+
+    /**
+     * Builds the world and the menu once the images they need are decoded
+     */
+    private void finishLoading()
+    {
+        startup.mark("images");
 
-        startTime = System.currentTimeMillis();
+        world = SaveLoad.load();
+        saver = new WorldSaver(new File(SaveLoad.SAVE_FILE));
+        // manually adding the 12 seconds to reduce debugging time
+        simulation = new SimulationThread(new HeadlessRuntime(world, 100, 12000));
+        renderer = new WorldRenderer(this);
+        startup.mark("world");
 
         redSquare = getImage("images/redSquare.png");
         blackSquare = getImage("images/blackSquare.png");
         greenSquare = getImage("images/greenSquare.png");
         yellowSquare = getImage("images/yellowSquare.png");
-        splashImage = getImage("images/splashscreen2.png");
         heart = getImage("images/heart.png");
 
         //cursor(getImage("images/cursor/cursor_default.png"));
 
         setupMenu();
-
-        minim = new Minim(this);
-        happyMusicPlayer = minim.loadFile("res/audio/happy_music.mp3");
-        battleMusicPlayer = minim.loadFile("res/audio/battle_music.mp3");
-        happyMusicPlayer.loop();
+        startup.mark("menu");
+        println("Startup: " + startup + " (" + assets + ")");
     }
 
     public void keyPressed()
@@ -150,20 +152,32 @@ public class Game extends PApplet
                     break;
 
                 case 'q':
-                    WorldObject ob = world.getWorldObjectAt(new Point(mouseX / 32 + xShift, mouseY / 32 + yShift));
-                    if (ob != null)
+                    Point target = new Point(mouseX / 32 + xShift, mouseY / 32 + yShift);
+                    simulation.submit(w ->
                     {
-                        if (ob.getClass().equals(Soldier.class))
+                        WorldObject ob = w.getWorldObjectAt(target);
+                        if (ob != null)
                         {
-                            Soldier soldier = (Soldier) ob;
-                            soldier.die(world);
+                            if (ob.getClass().equals(Soldier.class))
+                            {
+                                Soldier soldier = (Soldier) ob;
+                                soldier.die(w);
+                            }
                         }
-                    }
+                    });
+                    break;
+
+                case 'k':
+                    saver.save(simulation, true).whenComplete((written, error) ->
+                            println(error != null ? "Save failed: " + error : "Saved " + written + " objects"));
                     break;
 
                 case 'z':
-                    Barracks barracks = new Barracks("barracks", new Point(10, 2), 1000);
-                    world.addWorldObject(barracks);
+                    simulation.submit(w ->
+                    {
+                        Barracks barracks = new Barracks("barracks", new Point(10, 2), 1000);
+                        w.addWorldObject(barracks);
+                    });
                     break;
 
                 case 0:
@@ -177,34 +191,34 @@ public class Game extends PApplet
     {
         if (!(battleMode))
         {
-            Lair lair = new Lair("lair", cavepoint, WorldObjectSettings.GOBLINSPAWNRATE);
-            world.addWorldObject(lair);
-            lair.schedule(world, 0);
+            simulation.submit(w ->
+            {
+                Lair lair = new Lair("lair", cavepoint, WorldObjectSettings.GOBLINSPAWNRATE);
+                w.addWorldObject(lair);
+                lair.schedule(w, 0);
 
-            List<WorldObject> allWorldObjects = world.getWorldObjects();
-            ArrayList<MinerNotFull> minerlist = new ArrayList<MinerNotFull>();
-            ArrayList<Blacksmith> smithlist = new ArrayList<Blacksmith>();
+                ArrayList<MinerNotFull> minerlist = new ArrayList<MinerNotFull>();
+                ArrayList<Blacksmith> smithlist = new ArrayList<Blacksmith>();
 
-            for (WorldObject entity : allWorldObjects)
-            {
-                if (entity.getClass().equals(MinerNotFull.class))
+                for (MinerNotFull miner : w.getObjectsOfType(MinerNotFull.class))
                 {
-                    minerlist.add(0, (MinerNotFull) entity);
-                } else if (entity.getClass().equals(Blacksmith.class))
+                    minerlist.add(0, miner);
+                }
+                for (Blacksmith smith : w.getObjectsOfType(Blacksmith.class))
                 {
-                    smithlist.add(0, (Blacksmith) entity);
+                    smithlist.add(0, smith);
                 }
-            }
 
-            callMinersToBase(minerlist);
-            prepForBattle(smithlist);
+                callMinersToBase(w, minerlist);
+                prepForBattle(w, smithlist);
+            });
             battleMode = true;
             happyMusicPlayer.pause();
             battleMusicPlayer.loop();
         }
     }
 
-    private void prepForBattle(ArrayList<Blacksmith> smithlist)
+    private void prepForBattle(World world, ArrayList<Blacksmith> smithlist)
     {
         for (Blacksmith smith : smithlist)
         {
@@ -212,7 +226,7 @@ public class Game extends PApplet
         }
     }
 
-    private void callMinersToBase(ArrayList<MinerNotFull> minerlist)
+    private void callMinersToBase(World world, ArrayList<MinerNotFull> minerlist)
     {
         for (MinerNotFull oldminer : minerlist)
         {
@@ -231,36 +245,16 @@ public class Game extends PApplet
 
     private void drawHearts()
     {
-        for (WorldObject entity : world.getWorldObjects())
+        for (int i = 0; i < snapshot.getCount(); i++)
         {
-            if (entity instanceof MovableActor)
-            {
-                int health = ((MovableActor) entity).getHealth();
-
-                if (health > 0)
-                {
-                    image(heart, (entity.getPosition().getX() - xShift) * 32, (entity.getPosition().getY() - yShift) * 32 - 2);
-                }
-
-                if (health > 1)
-                {
-                    image(heart, (entity.getPosition().getX() - xShift) * 32 + 6, (entity.getPosition().getY() - yShift) * 32 - 2);
-                }
-
-                if (health > 2)
-                {
-                    image(heart, (entity.getPosition().getX() - xShift) * 32 + 12, (entity.getPosition().getY() - yShift) * 32 - 2);
-                }
+            int health = snapshot.getHealth(i);
+            int x = (snapshot.getX(i) - xShift) * 32;
+            int y = (snapshot.getY(i) - yShift) * 32 - 2;
 
-                if (health > 3)
-                {
-                    image(heart, (entity.getPosition().getX() - xShift) * 32 + 18, (entity.getPosition().getY() - yShift) * 32 - 2);
-                }
-
-                if (health > 4)
-                {
-                    image(heart, (entity.getPosition().getX() - xShift) * 32 + 24, (entity.getPosition().getY() - yShift) * 32 - 2);
-                }
+            // Up to five hearts, 6 pixels apart
+            for (int heartNum = 0; heartNum < 5 && heartNum < health; heartNum++)
+            {
+                image(heart, x + heartNum * 6, y);
             }
         }
     }
@@ -299,30 +293,12 @@ public class Game extends PApplet
     Drawing stuff
      */
 
-    private void drawBG()
-    {
-        for (int y = 0; y < WorldObjectSettings.GAMEHEIGHT; y++)
-        {
-            for (int x = 0; x < WorldObjectSettings.GAMEWIDTH; x++)
-            {
-                drawImage(world.getBackgroundAt(new Point(x, y)).getImage(), x - xShift, y - yShift);
-            }
-        }
-    }
-
-    private void drawWorldObjects()
-    {
-        for (WorldObject wo : world.getWorldObjects())
-        {
-            drawImage(wo.getImage(), wo.getPosition().getX() - xShift, wo.getPosition().getY() - yShift);
-        }
-    }
-
     private void setupMenu()
     {
         Button closeGameBtn = UIManager.createButton(100, 100, getImage("images/button/new_button_hover.png"), getImage("images/button/new_button.png"));
         closeGameBtn.addClickHandler(() ->
         {
+            simulation.stop();
             happyMusicPlayer.pause();
             happyMusicPlayer.close();
             exit();
@@ -347,38 +323,39 @@ public class Game extends PApplet
         UIManager.drawUI(this);
     }
 
-    private long nextTime = 0;
-    private boolean paused = false;
-
     public void draw()
     {
-        if (System.currentTimeMillis() - startTime < 3000)
+        if (simulation == null)
         {
             drawImage(splashImage, 0, 0);
-            worldStartTime = System.currentTimeMillis();
+            if (assets.isReady())
+            {
+                finishLoading();
+            }
         } else
         {
-            worldLive = true;
-            long currTime = System.currentTimeMillis();
-
-            if (!paused)
+            if (!worldLive)
             {
-                if (currTime >= nextTime)
-                {
-                    nextTime = currTime + 100;
-                    // manually adding the 8 seconds to reduce debugging time
-                    world.updateOnTime(currTime - worldStartTime + 12000);
-                }
+                worldLive = true;
+                worldStartTime = System.currentTimeMillis();
+                simulation.start();
             }
+            // The world is stepped on the simulation thread; only ever draw from its latest snapshot
+            snapshot = simulation.getSnapshot();
 
-            drawBG();
-            drawWorldObjects();
+            // The menu blurs the screen, so repaint everything whenever it opens or closes
+            if (showMenu != menuDrawn)
+            {
+                menuDrawn = showMenu;
+                renderer.invalidate();
+            }
+            renderer.draw(snapshot, xShift, yShift);
             drawHearts();
 
             UIManager.updateMousePosition(mouseX, mouseY);
             if (this.showMenu)
             {
-                paused = true;
+                simulation.setPaused(true);
                 tint(200);
                 filter(BLUR, 2);
                 drawMenu();
@@ -386,7 +363,7 @@ public class Game extends PApplet
             {
                 mouse();
                 tint(255);
-                paused = false;
+                simulation.setPaused(false);
             }
         }
     }
@@ -400,30 +377,20 @@ public class Game extends PApplet
      * call example.png call getImage("images/example.png")
      *
      * @param path The path to the image from the /res directory
-     * @return Returns a path to the image
+     * @return Returns the image, or a SpriteHandle standing in for it if the game window has not loaded the images
+     * @see Sprites#getImage(String)
      */
     public static PImage getImage(String path)
     {
-        return imgs.get(path);
+        return Sprites.getImage(path);
     }
 
     /**
-     * Returns a list of PImages following the below format:
-     * getImages("images/blob*.bmp", 12) will load all images in the images blob1.bmp to blob12.bmp
-     *
-     * @param path Path to images. Use one * for the variable.
-     * @param end  The final image in the list
-     * @return List of PImages 1 through end
+     * @see Sprites#getImages(String, int)
      */
     public static List<PImage> getImages(String path, int end)
     {
-        List<PImage> out = new ArrayList<>();
-        for (int i = 1; i < end + 1; i++)
-        {
-            String newPath = path.replace("*", Integer.toString(i));
-            out.add(getImage(newPath));
-        }
-        return out;
+        return Sprites.getImages(path, end);
     }
 
     public static void main(String[] args)
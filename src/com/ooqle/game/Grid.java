@@ -1,45 +1,226 @@
 package com.ooqle.game;
 
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.BitSet;
+
 /**
  * Created by augiedoebling on 5/2/15.
+ * <p>
+ * Cells are stored in square chunks of CHUNK_SIZE x CHUNK_SIZE. A chunk is only allocated the first time one of its
+ * cells is set to something other than the value the grid started with, so a big, mostly empty grid costs next to
+ * nothing. With a ChunkPager, chunks can also be paged out and are read back the next time one of their cells is
+ * touched.
  */
 public class Grid<T>
 {
+    public static final int CHUNK_SHIFT = 5;
+    public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    public static final int CHUNK_CELLS = CHUNK_SIZE * CHUNK_SIZE;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
 
     private int width;
     private int height;
-    private T[][] cells;
+    private int chunksX, chunksY;
+    private T initValue;
+    private Object[][] chunks;
+    private BitSet pagedOut;
+    private ChunkPager<T> pager;
+    private int resident;
 
-    @SuppressWarnings("unchecked")
     public Grid(int width, int height, T initValue)
     {
         this.width = width;
         this.height = height;
+        this.initValue = initValue;
+        this.chunksX = (width + CHUNK_MASK) >> CHUNK_SHIFT;
+        this.chunksY = (height + CHUNK_MASK) >> CHUNK_SHIFT;
+        this.chunks = new Object[chunksX * chunksY][];
+        this.pagedOut = new BitSet();
+    }
 
-        this.cells = (T[][]) new Object[height][width];
+    public void setCell(Point pt, T value)
+    {
+        setCell(pt.getX(), pt.getY(), value);
+    }
 
-        for (int r = 0; r < cells.length; r++)
+    public void setCell(int x, int y, T value)
+    {
+        int index = chunkIndex(x, y);
+        Object[] chunk = chunks[index];
+        if (chunk == null)
         {
-            for (int c = 0; c < cells[r].length; c++)
+            if (value == initValue && !pagedOut.get(index))
             {
-                this.cells[r][c] = initValue;
+                return;
             }
+            chunk = load(index);
         }
+        chunk[((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK)] = value;
     }
 
-    public void setCell(Point pt, T value)
+    public T getCell(Point pt)
     {
-        this.cells[pt.getY()][pt.getX()] = value;
+        return getCell(pt.getX(), pt.getY());
     }
 
-    public T getCell(Point pt)
+    @SuppressWarnings("unchecked")
+    public T getCell(int x, int y)
+    {
+        int index = chunkIndex(x, y);
+        Object[] chunk = chunks[index];
+        if (chunk == null)
+        {
+            if (!pagedOut.get(index))
+            {
+                return initValue;
+            }
+            chunk = load(index);
+        }
+        return (T) chunk[((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK)];
+    }
+
+    private int chunkIndex(int x, int y)
+    {
+        if ((x | y) < 0 || x >= width || y >= height)
+        {
+            throw new ArrayIndexOutOfBoundsException("(" + x + ", " + y + ") is outside a " + width + "x" + height + " grid");
+        }
+        return (y >> CHUNK_SHIFT) * chunksX + (x >> CHUNK_SHIFT);
+    }
+
+    /**
+     * Makes a chunk resident, reading it back in if it was paged out
+     */
+    private Object[] load(int index)
+    {
+        Object[] chunk = new Object[CHUNK_CELLS];
+        if (pagedOut.get(index))
+        {
+            try
+            {
+                pager.read(index, chunk);
+            } catch (IOException e)
+            {
+                throw new UncheckedIOException("Could not page in chunk " + index, e);
+            }
+            pagedOut.clear(index);
+        }
+        else
+        {
+            Arrays.fill(chunk, initValue);
+        }
+        chunks[index] = chunk;
+        resident++;
+        return chunk;
+    }
+
+    /**
+     * Lets go of a resident chunk. A chunk that only holds the initial value is just dropped; any other is handed to
+     * the pager first.
+     *
+     * @return False if the chunk was not resident, or holds other values and there is no pager
+     */
+    public boolean pageOut(int index)
+    {
+        Object[] chunk = chunks[index];
+        if (chunk == null)
+        {
+            return false;
+        }
+        boolean blank = true;
+        for (Object cell : chunk)
+        {
+            if (cell != initValue)
+            {
+                blank = false;
+                break;
+            }
+        }
+        if (!blank)
+        {
+            if (pager == null)
+            {
+                return false;
+            }
+            try
+            {
+                pager.write(index, chunk);
+            } catch (IOException e)
+            {
+                throw new UncheckedIOException("Could not page out chunk " + index, e);
+            }
+            pagedOut.set(index);
+        }
+        chunks[index] = null;
+        resident--;
+        return true;
+    }
+
+    public void setPager(ChunkPager<T> pager)
     {
-        return this.cells[pt.getY()][pt.getX()];
+        this.pager = pager;
     }
 
+    public ChunkPager<T> getPager()
+    {
+        return pager;
+    }
+
+    public boolean isResident(int index)
+    {
+        return chunks[index] != null;
+    }
+
+    /**
+     * @return The number of chunks currently held in memory
+     */
+    public int getResidentChunks()
+    {
+        return resident;
+    }
+
+    public int getPagedOutChunks()
+    {
+        return pagedOut.cardinality();
+    }
+
+    public int getChunksX()
+    {
+        return chunksX;
+    }
+
+    public int getChunksY()
+    {
+        return chunksY;
+    }
+
+    public int getWidth()
+    {
+        return this.width;
+    }
+
+    public int getHeight()
+    {
+        return this.height;
+    }
+
+    /**
+     * @return A dense copy of every cell, by row. This reads in every chunk that was paged out
+     */
+    @SuppressWarnings("unchecked")
     public T[][] getGrid()
     {
-        return this.cells;
+        T[][] cells = (T[][]) new Object[height][width];
+        for (int r = 0; r < height; r++)
+        {
+            for (int c = 0; c < width; c++)
+            {
+                cells[r][c] = getCell(c, r);
+            }
+        }
+        return cells;
     }
 }
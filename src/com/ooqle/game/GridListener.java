@@ -0,0 +1,17 @@
+package com.ooqle.game;
+/*
+* @author Kenny Williams
+*/
+
+/**
+ * Notified by a World whenever its object grid is written
+ */
+public interface GridListener
+{
+    void cellChanged(World world, int x, int y);
+
+    /**
+     * The whole object grid was swapped out, so every cell may have changed
+     */
+    void gridReplaced(World world);
+}
@@ -0,0 +1,120 @@
+package com.ooqle.game;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.util.SaveLoad;
+import com.ooqle.game.util.WorldObjectSettings;
+
+/**
+ * Runs a World without a window. Game time moves in fixed steps as fast as the CPU allows, instead of following the
+ * wall clock the way Game.draw does. Nothing here touches PApplet; until a window loads the real images, entities
+ * are built with SpriteHandles, so no image file is ever read.
+ * <p>
+ * Run from the project root so res/newworld can be found. The optional arguments are the game time to simulate in
+ * milliseconds and the length of a step.
+ */
+public class HeadlessRuntime
+{
+    public static final long DEFAULT_STEP = 100;
+
+    private final World world;
+    private final long step;
+    private long time;
+    private long steps;
+
+    public HeadlessRuntime(World world, long step)
+    {
+        this(world, step, 0);
+    }
+
+    /**
+     * @param world     The world to run
+     * @param step      Game time added by each step, in milliseconds
+     * @param startTime The game time before the first step
+     */
+    public HeadlessRuntime(World world, long step, long startTime)
+    {
+        if (step <= 0)
+        {
+            throw new IllegalArgumentException("Step must be positive, got " + step);
+        }
+        this.world = world;
+        this.step = step;
+        this.time = startTime;
+    }
+
+    /**
+     * @return A runtime over res/newworld with the default step
+     */
+    public static HeadlessRuntime load()
+    {
+        return new HeadlessRuntime(SaveLoad.load(), DEFAULT_STEP);
+    }
+
+    public World getWorld()
+    {
+        return world;
+    }
+
+    public long getStep()
+    {
+        return step;
+    }
+
+    /**
+     * @return The game time the world was last advanced to
+     */
+    public long getTime()
+    {
+        return time;
+    }
+
+    public long getSteps()
+    {
+        return steps;
+    }
+
+    /**
+     * Advances the world by one step and runs every action that became due
+     */
+    public void step()
+    {
+        time += step;
+        steps++;
+        world.updateOnTime(time);
+        // Huge maps let go of the chunks nothing is happening in every so often
+        if (steps % WorldObjectSettings.PAGE_OUT_INTERVAL == 0
+                && (long) world.getWidth() * world.getHeight() >= WorldObjectSettings.PAGING_MIN_CELLS)
+        {
+            world.pageOutIdle(WorldObjectSettings.PAGE_OUT_RADIUS);
+        }
+    }
+
+    /**
+     * Steps until at least the given amount of game time has passed
+     */
+    public void runFor(long gameMillis)
+    {
+        long end = time + gameMillis;
+        while (time < end)
+        {
+            step();
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        long duration = args.length > 0 ? Long.parseLong(args[0]) : 10 * 60 * 1000;
+        long step = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_STEP;
+
+        HeadlessRuntime runtime = new HeadlessRuntime(SaveLoad.load(), step);
+        long start = System.nanoTime();
+        runtime.runFor(duration);
+        long nanos = System.nanoTime() - start;
+
+        System.out.println(String.format("Simulated %.1f s of game time in %d steps and %.1f ms (%.0f steps/s), %d objects left",
+                runtime.getTime() / 1000.0, runtime.getSteps(), nanos / 1e6, runtime.getSteps() / (nanos / 1e9),
+                runtime.getWorld().getWorldObjects().size()));
+    }
+}
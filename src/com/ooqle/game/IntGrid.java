@@ -0,0 +1,59 @@
+package com.ooqle.game;
+/*
+* @author Kenny Williams
+*/
+
+import java.util.Arrays;
+
+/**
+ * A grid of ints kept in one flat array, row by row, so a cell is a single array read. Cells are addressed either by
+ * x and y or by their index y * width + x, the same cell numbers World.toCell hands out. Only the array's own bounds
+ * are checked, so callers check withinBounds first.
+ */
+public class IntGrid
+{
+    private final int width, height;
+    private final int[] cells;
+
+    public IntGrid(int width, int height)
+    {
+        this.width = width;
+        this.height = height;
+        this.cells = new int[width * height];
+    }
+
+    public int get(int x, int y)
+    {
+        return cells[y * width + x];
+    }
+
+    public int get(int cell)
+    {
+        return cells[cell];
+    }
+
+    public void set(int x, int y, int value)
+    {
+        cells[y * width + x] = value;
+    }
+
+    public void set(int cell, int value)
+    {
+        cells[cell] = value;
+    }
+
+    public void fill(int value)
+    {
+        Arrays.fill(cells, value);
+    }
+
+    public int getWidth()
+    {
+        return width;
+    }
+
+    public int getHeight()
+    {
+        return height;
+    }
+}
@@ -0,0 +1,107 @@
+package com.ooqle.game;
+/*
+* @author Kenny Williams
+*/
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pages chunks out to a scratch file as two bytes a cell. Each distinct value gets a number the first time it is
+ * written, and only the numbers go to disk, so this suits grids that reuse a few shared values, like the backgrounds.
+ * Every chunk has a fixed slot in the file, which is sparse until something is written there.
+ */
+public class PaletteChunkPager<T> implements ChunkPager<T>, Closeable
+{
+    private static final int SLOT_BYTES = Grid.CHUNK_CELLS * 2;
+
+    private final FileChannel channel;
+    private final List<Object> palette;
+    private final Map<Object, Integer> ids;
+    private final ByteBuffer buffer;
+
+    /**
+     * Pages to a new temporary file that is deleted when the game exits
+     */
+    public PaletteChunkPager() throws IOException
+    {
+        this(File.createTempFile("chunks", ".bin"));
+    }
+
+    public PaletteChunkPager(File file) throws IOException
+    {
+        file.deleteOnExit();
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        palette = new ArrayList<>();
+        ids = new IdentityHashMap<>();
+        buffer = ByteBuffer.allocateDirect(SLOT_BYTES);
+    }
+
+    public void write(int chunk, Object[] cells) throws IOException
+    {
+        buffer.clear();
+        for (Object cell : cells)
+        {
+            Integer id = ids.get(cell);
+            if (id == null)
+            {
+                if (palette.size() > 0xFFFF)
+                {
+                    throw new IOException("More than " + 0x10000 + " distinct values to page out");
+                }
+                id = palette.size();
+                palette.add(cell);
+                ids.put(cell, id);
+            }
+            buffer.putShort((short) (int) id);
+        }
+        buffer.flip();
+        long position = (long) chunk * SLOT_BYTES;
+        while (buffer.hasRemaining())
+        {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    public void read(int chunk, Object[] cells) throws IOException
+    {
+        buffer.clear();
+        long position = (long) chunk * SLOT_BYTES;
+        while (buffer.hasRemaining())
+        {
+            int read = channel.read(buffer, position);
+            if (read < 0)
+            {
+                throw new IOException("Chunk " + chunk + " was never paged out");
+            }
+            position += read;
+        }
+        buffer.flip();
+        for (int i = 0; i < cells.length; i++)
+        {
+            cells[i] = palette.get(buffer.getShort() & 0xFFFF);
+        }
+    }
+
+    /**
+     * @return The number of distinct values written so far
+     */
+    public int getPaletteSize()
+    {
+        return palette.size();
+    }
+
+    public void close() throws IOException
+    {
+        channel.close();
+    }
+}
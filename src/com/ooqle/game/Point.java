@@ -3,11 +3,19 @@ package com.ooqle.game;
 * @author Ooqle Software
 */
 
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.json.simple.JSONObject;
 
+/**
+ * An x, y pair. Code that runs every tick can skip the object and pass a cell around as a long from pack(), which
+ * holds x in the high half and y in the low half.
+ */
 public class Point
 {
+    /**
+     * Packed value that is never a real cell, for methods that return a packed cell or nothing
+     */
+    public static final long NONE = Long.MIN_VALUE;
+
     private int x;
     private int y;
 
@@ -17,6 +25,31 @@ public class Point
         this.y = y;
     }
 
+    public static long pack(int x, int y)
+    {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    public static int unpackX(long packed)
+    {
+        return (int) (packed >> 32);
+    }
+
+    public static int unpackY(long packed)
+    {
+        return (int) packed;
+    }
+
+    public static Point unpack(long packed)
+    {
+        return new Point(unpackX(packed), unpackY(packed));
+    }
+
+    public long pack()
+    {
+        return pack(this.x, this.y);
+    }
+
     public int getX()
     {
         return this.x;
@@ -58,10 +91,7 @@ public class Point
 
     public int hashCode()
     {
-        return new HashCodeBuilder(17, 31).
-                append(this.getX()).
-                append(this.getY()).
-                toHashCode();
+        return (17 * 31 + this.x) * 31 + this.y;
     }
 
     public Point clone()
@@ -74,6 +104,7 @@ public class Point
         return this.getX() + " " + this.getY();
     }
 
+    @SuppressWarnings("unchecked")
     public JSONObject toJSON()
     {
         JSONObject out = new JSONObject();
@@ -0,0 +1,186 @@
+package com.ooqle.game;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.entity.MovableActor;
+import com.ooqle.game.entity.WorldObject;
+import processing.core.PImage;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * What the renderer needs from a World at one moment: the background image of every cell, and the position, image
+ * and health of every object in the order they were added. Snapshots are filled on the simulation thread and handed
+ * to the render thread by a SnapshotBuffer, which never refills one while the renderer holds it.
+ * <p>
+ * The background only changes through World.setBackground, so its images are copied again only when the world's
+ * background version has moved on. Otherwise the array is shared with the previous snapshot; it is never written
+ * after it is filled.
+ * <p>
+ * Each snapshot also carries the tiles that changed since the last snapshot the renderer took, so the renderer can
+ * repaint just those.
+ */
+public class RenderSnapshot
+{
+    private long time;
+    private int width, height;
+    private int count;
+    private int[] xs = new int[0];
+    private int[] ys = new int[0];
+    private PImage[] images = new PImage[0];
+    private int[] healths = new int[0];
+    private PImage[] background = new PImage[0];
+    private long backgroundVersion = -1;
+    private BitSet dirtyTiles = new BitSet();
+    private boolean fullRedraw;
+
+    /**
+     * Copies the world's current state into this snapshot
+     *
+     * @param time     The game time the world has been advanced to
+     * @param previous The last snapshot filled, whose background is reused if it is still current. May be null
+     * @param merge    True if the renderer may never take the previous snapshot, so its dirty tiles are carried
+     *                 over into this one
+     */
+    void fill(World world, long time, RenderSnapshot previous, boolean merge)
+    {
+        dirtyTiles.clear();
+        fullRedraw = previous == null || previous.width != world.getWidth() || previous.height != world.getHeight();
+        if (merge && previous != null)
+        {
+            dirtyTiles.or(previous.dirtyTiles);
+            fullRedraw |= previous.fullRedraw;
+        }
+        dirtyTiles.or(world.getDirtyTiles());
+
+        this.time = time;
+        this.width = world.getWidth();
+        this.height = world.getHeight();
+
+        if (previous != null && previous.backgroundVersion == world.getBackgroundVersion()
+                && previous.background.length == width * height)
+        {
+            background = previous.background;
+            backgroundVersion = previous.backgroundVersion;
+        } else if (backgroundVersion != world.getBackgroundVersion() || background.length != width * height)
+        {
+            PImage[] copy = new PImage[width * height];
+            for (int y = 0; y < height; y++)
+            {
+                for (int x = 0; x < width; x++)
+                {
+                    copy[y * width + x] = world.getBackgroundGrid().getCell(x, y).getImage();
+                }
+            }
+            background = copy;
+            backgroundVersion = world.getBackgroundVersion();
+        }
+
+        List<WorldObject> objects = world.getWorldObjects();
+        count = objects.size();
+        if (xs.length < count)
+        {
+            int capacity = Math.max(count, xs.length * 2);
+            xs = new int[capacity];
+            ys = new int[capacity];
+            images = new PImage[capacity];
+            healths = new int[capacity];
+        }
+        for (int i = 0; i < count; i++)
+        {
+            WorldObject obj = objects.get(i);
+            xs[i] = obj.getPosition().getX();
+            ys[i] = obj.getPosition().getY();
+            images[i] = obj.getImage();
+            healths[i] = obj instanceof MovableActor ? ((MovableActor) obj).getHealth() : 0;
+        }
+        // Let go of images of objects that have since left the world
+        for (int i = count; i < images.length && images[i] != null; i++)
+        {
+            images[i] = null;
+        }
+    }
+
+    /**
+     * @return The game time of the world when the snapshot was taken
+     */
+    public long getTime()
+    {
+        return time;
+    }
+
+    public int getWidth()
+    {
+        return width;
+    }
+
+    public int getHeight()
+    {
+        return height;
+    }
+
+    /**
+     * @return The number of world objects in the snapshot
+     */
+    public int getCount()
+    {
+        return count;
+    }
+
+    public int getX(int i)
+    {
+        return xs[i];
+    }
+
+    public int getY(int i)
+    {
+        return ys[i];
+    }
+
+    public PImage getImage(int i)
+    {
+        return images[i];
+    }
+
+    /**
+     * @return The health of the object, or 0 if it is not a MovableActor
+     */
+    public int getHealth(int i)
+    {
+        return healths[i];
+    }
+
+    public PImage getBackground(int x, int y)
+    {
+        return background[y * width + x];
+    }
+
+    /**
+     * @return The background image of every cell, as y * width + x. The array is shared between snapshots until the
+     * background changes, and is never written after it is filled.
+     */
+    PImage[] getBackgroundImages()
+    {
+        return background;
+    }
+
+    /**
+     * @return The cells, as y * width + x, that may look different from the last snapshot the renderer drew. Do not
+     * modify the set.
+     */
+    public BitSet getDirtyTiles()
+    {
+        return dirtyTiles;
+    }
+
+    /**
+     * @return True if the renderer has to repaint everything, because this is the first snapshot or the world size
+     * changed
+     */
+    public boolean isFullRedraw()
+    {
+        return fullRedraw;
+    }
+}
@@ -0,0 +1,155 @@
+package com.ooqle.game;
+/*
+* @author Kenny Williams
+*/
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Runs a HeadlessRuntime on its own thread, one fixed step for every step of wall time that passes, so a slow frame
+ * no longer holds the world back and a long tick no longer drops frames. After it steps, the thread publishes a
+ * RenderSnapshot for the renderer to draw from. The player's input reaches the world only as WorldCommands, which
+ * are applied on this thread before the next step.
+ * <p>
+ * While paused, wall time does not count towards game time. If the thread falls more than MAX_CATCH_UP steps
+ * behind, the extra time is dropped rather than run in a burst.
+ */
+public class SimulationThread implements Runnable
+{
+    public static final int MAX_CATCH_UP = 10;
+
+    private final HeadlessRuntime runtime;
+    private final Queue<WorldCommand> commands;
+    private final SnapshotBuffer snapshots;
+    private volatile boolean paused;
+    private volatile boolean running;
+    private Thread thread;
+
+    public SimulationThread(HeadlessRuntime runtime)
+    {
+        this.runtime = runtime;
+        this.commands = new ConcurrentLinkedQueue<>();
+        this.snapshots = new SnapshotBuffer();
+        snapshots.publish(runtime.getWorld(), runtime.getTime());
+    }
+
+    public HeadlessRuntime getRuntime()
+    {
+        return runtime;
+    }
+
+    /**
+     * Starts stepping the world on a new daemon thread
+     */
+    public synchronized void start()
+    {
+        if (thread != null)
+        {
+            throw new IllegalStateException("The simulation is already running");
+        }
+        running = true;
+        thread = new Thread(this, "simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the thread after the step it is on and waits for it to finish
+     */
+    public synchronized void stop()
+    {
+        if (thread == null)
+        {
+            return;
+        }
+        running = false;
+        thread.interrupt();
+        try
+        {
+            thread.join();
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    public boolean isPaused()
+    {
+        return paused;
+    }
+
+    public void setPaused(boolean paused)
+    {
+        this.paused = paused;
+    }
+
+    /**
+     * Queues a command to be applied to the world on the simulation thread. Safe to call from any thread.
+     */
+    public void submit(WorldCommand command)
+    {
+        commands.add(command);
+    }
+
+    /**
+     * @return The newest snapshot of the world. Only call this from the render thread.
+     */
+    public RenderSnapshot getSnapshot()
+    {
+        return snapshots.read();
+    }
+
+    /**
+     * Applies the queued commands, advances the world by the given number of steps and publishes a snapshot if
+     * anything happened. The thread calls this itself; call it directly only when the thread is not started.
+     */
+    public void update(int steps)
+    {
+        boolean changed = false;
+        WorldCommand command;
+        while ((command = commands.poll()) != null)
+        {
+            command.apply(runtime.getWorld());
+            changed = true;
+        }
+        for (int i = 0; i < steps; i++)
+        {
+            runtime.step();
+            changed = true;
+        }
+        if (changed)
+        {
+            snapshots.publish(runtime.getWorld(), runtime.getTime());
+        }
+    }
+
+    public void run()
+    {
+        long stepNanos = runtime.getStep() * 1000000;
+        long last = System.nanoTime();
+        long lag = 0;
+        while (running)
+        {
+            long now = System.nanoTime();
+            if (!paused)
+            {
+                lag += now - last;
+            }
+            last = now;
+
+            int steps = (int) Math.min(lag / stepNanos, MAX_CATCH_UP);
+            lag = Math.min(lag - steps * stepNanos, stepNanos);
+            update(steps);
+
+            try
+            {
+                Thread.sleep(Math.max(1, (stepNanos - lag) / 1000000));
+            } catch (InterruptedException e)
+            {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.ooqle.game;
+/*
+* @author Kenny Williams
+*/
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A triple buffer of RenderSnapshots between one writer and one reader. The writer fills its back snapshot and swaps
+ * it with the middle one; the reader swaps the middle one for its front snapshot only when a newer one is waiting.
+ * Neither side ever waits for the other, and the reader always sees a whole snapshot.
+ * <p>
+ * While the last snapshot published is still waiting for the reader, the next one also carries its dirty tiles, so
+ * the snapshots the reader does take always cover every change since the last one it took.
+ */
+public class SnapshotBuffer
+{
+    private static final int FRESH = 4;
+    private static final int INDEX = 3;
+
+    private final RenderSnapshot[] slots = {new RenderSnapshot(), new RenderSnapshot(), new RenderSnapshot()};
+    // The index of the middle slot, plus FRESH when the writer has published since the reader last took it
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0;
+    private int front = 2;
+    private RenderSnapshot latest;
+
+    /**
+     * Fills the writer's snapshot from the world, clears the world's dirty tiles and makes the snapshot the newest
+     * one. Only call this from the writing thread.
+     */
+    public void publish(World world, long time)
+    {
+        RenderSnapshot snapshot = slots[back];
+        // The reader may still take the waiting one before the swap, in which case its tiles are just painted twice
+        snapshot.fill(world, time, latest, (middle.get() & FRESH) != 0);
+        world.clearDirtyTiles();
+        latest = snapshot;
+        back = middle.getAndSet(back | FRESH) & INDEX;
+    }
+
+    /**
+     * @return The newest published snapshot. It stays untouched until the next call from the reading thread.
+     */
+    public RenderSnapshot read()
+    {
+        if ((middle.get() & FRESH) != 0)
+        {
+            front = middle.getAndSet(front) & INDEX;
+        }
+        return slots[front];
+    }
+}
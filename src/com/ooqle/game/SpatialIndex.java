@@ -0,0 +1,174 @@
+package com.ooqle.game;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.entity.WorldObject;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Uniform grid of buckets over the world used to answer nearest-of-type queries without scanning every object.
+ * Each bucket covers CELL_SIZE x CELL_SIZE tiles. Queries walk rings of buckets outwards from the query point and
+ * stop once no unvisited bucket can hold anything closer.
+ * <p>
+ * Objects are numbered in the order they were added, and ties on distance go to the object added first, which is
+ * the order World.getWorldObjects() lists them in.
+ */
+public class SpatialIndex
+{
+    public static final int CELL_SIZE = 8;
+
+    private int columns, rows;
+    private List<Entry>[] buckets;
+    private Map<WorldObject, Entry> entries;
+    private long nextOrder;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public SpatialIndex(int width, int height)
+    {
+        this.columns = Math.max(1, (width + CELL_SIZE - 1) / CELL_SIZE);
+        this.rows = Math.max(1, (height + CELL_SIZE - 1) / CELL_SIZE);
+        this.buckets = (List<Entry>[]) new List[columns * rows];
+        for (int i = 0; i < buckets.length; i++)
+        {
+            buckets[i] = new ArrayList<>();
+        }
+        this.entries = new IdentityHashMap<>();
+    }
+
+    public void add(WorldObject obj)
+    {
+        if (entries.containsKey(obj))
+        {
+            return;
+        }
+        Entry entry = new Entry(obj, nextOrder++, bucketOf(obj.getPosition()));
+        entries.put(obj, entry);
+        buckets[entry.bucket].add(entry);
+    }
+
+    public void remove(WorldObject obj)
+    {
+        Entry entry = entries.remove(obj);
+        if (entry != null)
+        {
+            buckets[entry.bucket].remove(entry);
+        }
+    }
+
+    /**
+     * Must be called after the object's position has been changed
+     */
+    public void move(WorldObject obj)
+    {
+        Entry entry = entries.get(obj);
+        if (entry == null)
+        {
+            return;
+        }
+        int bucket = bucketOf(obj.getPosition());
+        if (bucket != entry.bucket)
+        {
+            buckets[entry.bucket].remove(entry);
+            entry.bucket = bucket;
+            buckets[bucket].add(entry);
+        }
+    }
+
+    public boolean contains(WorldObject obj)
+    {
+        return entries.containsKey(obj);
+    }
+
+    public int size()
+    {
+        return entries.size();
+    }
+
+    public WorldObject findNearestOfType(Point pt, Class<? extends WorldObject> type)
+    {
+        int bx = Math.floorDiv(pt.getX(), CELL_SIZE);
+        int by = Math.floorDiv(pt.getY(), CELL_SIZE);
+        int maxRing = Math.max(Math.max(Math.abs(bx), Math.abs(columns - 1 - bx)),
+                Math.max(Math.abs(by), Math.abs(rows - 1 - by)));
+
+        Entry best = null;
+        int bestDist = Integer.MAX_VALUE;
+
+        for (int ring = 0; ring <= maxRing; ring++)
+        {
+            if (best != null && bestDist < ringLowerBound(ring))
+            {
+                break;
+            }
+
+            for (int y = by - ring; y <= by + ring; y++)
+            {
+                if (y < 0 || y >= rows)
+                {
+                    continue;
+                }
+                // Only the edge of the ring is new; the inside was covered by smaller rings
+                int step = (y == by - ring || y == by + ring) ? 1 : Math.max(1, 2 * ring);
+                for (int x = bx - ring; x <= bx + ring; x += step)
+                {
+                    if (x < 0 || x >= columns)
+                    {
+                        continue;
+                    }
+                    for (Entry entry : buckets[y * columns + x])
+                    {
+                        if (type.isInstance(entry.obj))
+                        {
+                            int dist = pt.distanceSq(entry.obj.getPosition());
+                            if (dist < bestDist || (dist == bestDist && entry.order < best.order))
+                            {
+                                best = entry;
+                                bestDist = dist;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return best == null ? null : best.obj;
+    }
+
+    /**
+     * @return The smallest squared distance from the query point to anything in the given ring of buckets
+     */
+    private static int ringLowerBound(int ring)
+    {
+        if (ring == 0)
+        {
+            return 0;
+        }
+        int d = (ring - 1) * CELL_SIZE + 1;
+        return d * d;
+    }
+
+    private int bucketOf(Point pt)
+    {
+        int x = Math.min(Math.max(pt.getX() / CELL_SIZE, 0), columns - 1);
+        int y = Math.min(Math.max(pt.getY() / CELL_SIZE, 0), rows - 1);
+        return y * columns + x;
+    }
+
+    private static class Entry
+    {
+        private WorldObject obj;
+        private long order;
+        private int bucket;
+
+        private Entry(WorldObject obj, long order, int bucket)
+        {
+            this.obj = obj;
+            this.order = order;
+            this.bucket = bucket;
+        }
+    }
+}
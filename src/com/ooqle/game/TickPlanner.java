@@ -0,0 +1,183 @@
+package com.ooqle.game;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.entity.MovableActor;
+import com.ooqle.game.path.PathFinder;
+import com.ooqle.game.util.DueActionsListener;
+import com.ooqle.game.util.PlannedAction;
+import com.ooqle.game.util.ScheduledAction;
+import com.ooqle.game.util.WorldObjectSettings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Searches for the paths of the moving actors due in a tick on a ForkJoin pool, before their actions run. The
+ * actors are grouped by the square of the world they stand in and each group is one task, so a thread's searches
+ * stay in one part of the grid.
+ * <p>
+ * Planning only reads the world. The actions then run one at a time in the order they were scheduled, and an actor
+ * only takes its planned path if no cell the search read has been written since. When an earlier action in the
+ * same tick moved something into the way, the path is searched for again on the spot, so conflicts resolve exactly
+ * as they would have without planning.
+ */
+public class TickPlanner implements DueActionsListener
+{
+    private static final int REGION_SHIFT = 5;
+
+    private final World world;
+    private final int threads;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<PathFinder[]> finders;
+    private final List<PathFinder> copies;
+    private PathFinder source;
+
+    public TickPlanner(World world, int threads)
+    {
+        this.world = world;
+        this.threads = threads;
+        this.pool = new ForkJoinPool(threads);
+        this.finders = new ThreadLocal<>();
+        this.copies = Collections.synchronizedList(new ArrayList<>());
+        this.source = world.getPathFinder();
+    }
+
+    public int getThreads()
+    {
+        return threads;
+    }
+
+    public void actionsDue(List<ScheduledAction> due, long ticks)
+    {
+        if (world.getPathFinder() != source)
+        {
+            releaseCopies();
+            source = world.getPathFinder();
+        }
+
+        List<MovableActor> actors = collectActors(due);
+        if (actors.size() < WorldObjectSettings.TICK_PLAN_MIN_ACTORS)
+        {
+            return;
+        }
+
+        // Sort by region, keeping schedule order inside each one, and cut the list where the region changes
+        int regionsX = (world.getWidth() >> REGION_SHIFT) + 1;
+        long[] order = new long[actors.size()];
+        for (int i = 0; i < order.length; i++)
+        {
+            Point pt = actors.get(i).getPosition();
+            long region = (pt.getY() >> REGION_SHIFT) * regionsX + (pt.getX() >> REGION_SHIFT);
+            order[i] = (region << 32) | i;
+        }
+        Arrays.sort(order);
+
+        MovableActor[] sorted = new MovableActor[order.length];
+        int[] groupStarts = new int[order.length + 1];
+        int groups = 0;
+        for (int i = 0; i < order.length; i++)
+        {
+            sorted[i] = actors.get((int) order[i]);
+            if (i == 0 || (order[i] >>> 32) != (order[i - 1] >>> 32))
+            {
+                groupStarts[groups++] = i;
+            }
+        }
+        groupStarts[groups] = order.length;
+
+        pool.invoke(new PlanGroups(sorted, groupStarts, 0, groups));
+    }
+
+    /**
+     * Stops the pool and unhooks the path finders copied for it from the world
+     */
+    public void shutdown()
+    {
+        pool.shutdown();
+        releaseCopies();
+    }
+
+    private List<MovableActor> collectActors(List<ScheduledAction> due)
+    {
+        Set<MovableActor> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<MovableActor> actors = new ArrayList<>();
+        for (ScheduledAction action : due)
+        {
+            if (action.getAction() instanceof PlannedAction && action.getOwner() instanceof MovableActor
+                    && seen.add((MovableActor) action.getOwner()))
+            {
+                actors.add((MovableActor) action.getOwner());
+            }
+        }
+        return actors;
+    }
+
+    /**
+     * @return The calling thread's own copy of the world's path finder
+     */
+    private PathFinder finder()
+    {
+        PathFinder[] pair = finders.get();
+        if (pair == null || pair[0] != source)
+        {
+            pair = new PathFinder[]{source, source.copy()};
+            finders.set(pair);
+            copies.add(pair[1]);
+        }
+        return pair[1];
+    }
+
+    private void releaseCopies()
+    {
+        synchronized (copies)
+        {
+            for (PathFinder copy : copies)
+            {
+                if (copy instanceof GridListener)
+                {
+                    world.removeGridListener((GridListener) copy);
+                }
+            }
+            copies.clear();
+        }
+    }
+
+    private class PlanGroups extends RecursiveAction
+    {
+        private final MovableActor[] actors;
+        private final int[] groupStarts;
+        private final int from, to;
+
+        private PlanGroups(MovableActor[] actors, int[] groupStarts, int from, int to)
+        {
+            this.actors = actors;
+            this.groupStarts = groupStarts;
+            this.from = from;
+            this.to = to;
+        }
+
+        protected void compute()
+        {
+            if (to - from > 1)
+            {
+                int middle = (from + to) >>> 1;
+                invokeAll(new PlanGroups(actors, groupStarts, from, middle),
+                        new PlanGroups(actors, groupStarts, middle, to));
+                return;
+            }
+            PathFinder finder = finder();
+            for (int i = groupStarts[from]; i < groupStarts[to]; i++)
+            {
+                actors[i].planPath(world, finder);
+            }
+        }
+    }
+}
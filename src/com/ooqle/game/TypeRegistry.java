@@ -0,0 +1,125 @@
+package com.ooqle.game;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.entity.WorldObject;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Live sets of world objects grouped by their concrete class. A query for a type only touches the classes that are
+ * assignable to it, so it costs time proportional to the number of matches rather than the size of the world.
+ * Results come back in the order the objects were added, the same order as World.getWorldObjects().
+ */
+public class TypeRegistry
+{
+    private Map<Class<?>, LinkedHashMap<WorldObject, Long>> byClass;
+    private Map<Class<?>, List<Class<?>>> assignableCache;
+    private long nextOrder;
+
+    public TypeRegistry()
+    {
+        this.byClass = new HashMap<>();
+        // Lookups fill the cache, and those can come from planning threads during a parallel tick
+        this.assignableCache = new ConcurrentHashMap<>();
+    }
+
+    public void add(WorldObject obj)
+    {
+        LinkedHashMap<WorldObject, Long> registry = byClass.get(obj.getClass());
+        if (registry == null)
+        {
+            registry = new LinkedHashMap<>();
+            byClass.put(obj.getClass(), registry);
+            // A new concrete class may match types that were already looked up
+            assignableCache.clear();
+        }
+        if (!registry.containsKey(obj))
+        {
+            registry.put(obj, nextOrder++);
+        }
+    }
+
+    public void remove(WorldObject obj)
+    {
+        LinkedHashMap<WorldObject, Long> registry = byClass.get(obj.getClass());
+        if (registry != null)
+        {
+            registry.remove(obj);
+        }
+    }
+
+    public int count(Class<?> type)
+    {
+        int count = 0;
+        for (Class<?> c : assignableClasses(type))
+        {
+            count += byClass.get(c).size();
+        }
+        return count;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getObjectsOfType(Class<T> type)
+    {
+        List<Class<?>> classes = assignableClasses(type);
+        if (classes.isEmpty())
+        {
+            return new ArrayList<>();
+        }
+        if (classes.size() == 1)
+        {
+            return new ArrayList<>((Set<T>) byClass.get(classes.get(0)).keySet());
+        }
+
+        // Merge the per-class registries back into insertion order
+        List<Iterator<Map.Entry<WorldObject, Long>>> iterators = new ArrayList<>(classes.size());
+        List<Map.Entry<WorldObject, Long>> heads = new ArrayList<>(classes.size());
+        int total = 0;
+        for (Class<?> c : classes)
+        {
+            LinkedHashMap<WorldObject, Long> registry = byClass.get(c);
+            total += registry.size();
+            Iterator<Map.Entry<WorldObject, Long>> it = registry.entrySet().iterator();
+            iterators.add(it);
+            heads.add(it.hasNext() ? it.next() : null);
+        }
+
+        List<T> out = new ArrayList<>(total);
+        while (out.size() < total)
+        {
+            int min = -1;
+            for (int i = 0; i < heads.size(); i++)
+            {
+                if (heads.get(i) != null && (min == -1 || heads.get(i).getValue() < heads.get(min).getValue()))
+                {
+                    min = i;
+                }
+            }
+            out.add((T) heads.get(min).getKey());
+            Iterator<Map.Entry<WorldObject, Long>> it = iterators.get(min);
+            heads.set(min, it.hasNext() ? it.next() : null);
+        }
+        return out;
+    }
+
+    private List<Class<?>> assignableClasses(Class<?> type)
+    {
+        List<Class<?>> classes = assignableCache.get(type);
+        if (classes == null)
+        {
+            classes = new ArrayList<>();
+            for (Class<?> c : byClass.keySet())
+            {
+                if (type.isAssignableFrom(c))
+                {
+                    classes.add(c);
+                }
+            }
+            assignableCache.put(type, classes);
+        }
+        return classes;
+    }
+}
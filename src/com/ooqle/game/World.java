@@ -3,38 +3,120 @@ package com.ooqle.game;
 * @author Kenny Williams
 */
 
-import com.google.common.collect.*;
+import com.ooqle.game.entity.AnimatedActor;
 import com.ooqle.game.entity.Background;
 import com.ooqle.game.entity.MovableActor;
 import com.ooqle.game.entity.WorldObject;
+import com.ooqle.game.path.AStarPathFinder;
+import com.ooqle.game.path.FlowField;
+import com.ooqle.game.path.HierarchicalPathFinder;
+import com.ooqle.game.path.PathFinder;
+import com.ooqle.game.path.RouteCacheStats;
 import com.ooqle.game.util.Action;
-import com.ooqle.game.util.GameUtils;
+import com.ooqle.game.util.ActionScheduler;
+import com.ooqle.game.util.DueActionsListener;
+import com.ooqle.game.util.ScheduledAction;
+import com.ooqle.game.util.TimingWheelScheduler;
 import com.ooqle.game.util.Tuple;
+import com.ooqle.game.util.WorldObjectSettings;
 
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class World
 {
+    // Types with at most this many live objects are searched with a plain scan instead of the spatial index
+    private static final int NEAREST_SCAN_LIMIT = 32;
+    // Writes are also stamped per square of 16x16 cells, so asking whether an area changed can skip quiet squares
+    private static final int REGION_SHIFT = 4;
+
     private int width, height;
     private long currentGameTime;
     private List<WorldObject> worldObjectList;
     private HashMap<UUID, WorldObject> uuidWorldObjectMap;
-    private Multimap<Long, Action> actionQueue;
+    private ActionScheduler actionScheduler;
+    private Background defaultBackground;
     private Grid<Background> backgroundGrid;
-    private Grid<WorldObject> worldObjectGrid;
+    private IntGrid occupancy;
+    private EntityTable entities;
+    private ActorStore actorStore;
+    private SpatialIndex spatialIndex;
+    private TypeRegistry typeRegistry;
+    private PathFinder pathFinder;
+    private RouteCacheStats routeStats;
+    private Map<Class<? extends WorldObject>, FlowField> flowFields;
+    private boolean flowFieldsEnabled;
+    private long[] cellStamps;
+    private long[] regionStamps;
+    private int regionsX;
+    private long gridMutations;
+    private long backgroundVersion;
+    private List<GridListener> gridListeners;
+    private TickPlanner tickPlanner;
+    private DueActionsListener tickListener;
+    private BitSet dirtyTiles;
 
     public World(int width, int height, Background initBackground)
+    {
+        this(width, height, initBackground, new TimingWheelScheduler());
+    }
+
+    public World(int width, int height, Background initBackground, ActionScheduler actionScheduler)
     {
         this.width = width;
         this.height = height;
         this.currentGameTime = 0;
+        defaultBackground = initBackground;
         backgroundGrid = new Grid<>(width, height, initBackground);
-        worldObjectGrid = new Grid<>(width, height, null);
+        occupancy = new IntGrid(width, height);
+        entities = new EntityTable();
+        spatialIndex = new SpatialIndex(width, height);
+        typeRegistry = new TypeRegistry();
+        // Flat A* slows down badly on big custom maps, so those search a cluster graph instead
+        if (width * height >= WorldObjectSettings.HIERARCHICAL_PATH_MIN_CELLS)
+        {
+            pathFinder = new HierarchicalPathFinder();
+        }
+        else
+        {
+            pathFinder = new AStarPathFinder();
+        }
+        routeStats = new RouteCacheStats();
+        flowFields = new HashMap<>();
+        flowFieldsEnabled = true;
+        cellStamps = new long[width * height];
+        regionsX = (width + (1 << REGION_SHIFT) - 1) >> REGION_SHIFT;
+        regionStamps = new long[regionsX * ((height + (1 << REGION_SHIFT) - 1) >> REGION_SHIFT)];
+        // Path finders copied for planning threads register themselves while the grid is not being written
+        gridListeners = new CopyOnWriteArrayList<>();
+        dirtyTiles = new BitSet(width * height);
+        tickListener = new DueActionsListener()
+        {
+            public void actionsDue(List<ScheduledAction> due, long ticks)
+            {
+                if (tickPlanner != null)
+                {
+                    tickPlanner.actionsDue(due, ticks);
+                }
+            }
+
+            public void actionRan(ScheduledAction action, List<Point> changed)
+            {
+                if (changed != null)
+                {
+                    // Indexed, so a tick that changes nothing does not even allocate an iterator
+                    for (int i = 0; i < changed.size(); i++)
+                    {
+                        markDirty(changed.get(i));
+                    }
+                }
+            }
+        };
         this.uuidWorldObjectMap = new HashMap<>();
-        actionQueue = Multimaps.newListMultimap(
-                new TreeMap<>(),
-                Lists::newArrayList
-        );
+        this.actionScheduler = actionScheduler;
         worldObjectList = new ArrayList<>();
     }
 
@@ -46,26 +128,124 @@ public class World
     public void setBackgroundGrid(Grid<Background> backgroundGrid)
     {
         this.backgroundGrid = backgroundGrid;
+        backgroundVersion++;
+        dirtyTiles.set(0, width * height);
     }
 
-    public Grid<WorldObject> getWorldObjectGrid()
+    /**
+     * Moves the state of every object in the world into an ActorStore, or back out of it. While the store is on,
+     * objects added to the world are attached to it, and looping animations started with
+     * AnimatedActor.scheduleAnimation are stepped by the store at the end of each updateOnTime rather than by an
+     * action per frame. Turning it off hands those animations back to the scheduler.
+     */
+    public void setActorStoreEnabled(boolean enabled)
     {
-        return worldObjectGrid;
+        if (enabled == (actorStore != null))
+        {
+            return;
+        }
+        if (enabled)
+        {
+            actorStore = new ActorStore(entities.getSlotLimit());
+            for (int slot = 1; slot < entities.getSlotLimit(); slot++)
+            {
+                WorldObject obj = entities.get(slot);
+                if (obj != null)
+                {
+                    actorStore.attach(slot, obj);
+                }
+            }
+        }
+        else
+        {
+            Map<WorldObject, Long> looping = actorStore.detachAll();
+            actorStore = null;
+            for (WorldObject obj : looping.keySet())
+            {
+                ((AnimatedActor) obj).scheduleAnimation(this);
+            }
+        }
     }
 
+    /**
+     * @return The store holding the state of the world's objects, or null if it is off
+     */
+    public ActorStore getActorStore()
+    {
+        return actorStore;
+    }
+
+    /**
+     * @return The slot in getEntityTable() of the object in every cell, EntityTable.EMPTY where there is none
+     */
+    public IntGrid getOccupancy()
+    {
+        return occupancy;
+    }
+
+    public EntityTable getEntityTable()
+    {
+        return entities;
+    }
+
+    /**
+     * Replaces what stands in every cell with the contents of the grid
+     */
     public void setWorldObjectGrid(Grid<WorldObject> worldObjectGrid)
     {
-        this.worldObjectGrid = worldObjectGrid;
+        occupancy = new IntGrid(width, height);
+        entities = new EntityTable();
+        for (int y = 0; y < height; y++)
+        {
+            for (int x = 0; x < width; x++)
+            {
+                WorldObject obj = worldObjectGrid.getCell(x, y);
+                if (obj != null)
+                {
+                    occupancy.set(x, y, entities.acquire(obj));
+                }
+            }
+        }
+        if (actorStore != null)
+        {
+            actorStore.rebuild(entities);
+        }
+        Arrays.fill(cellStamps, ++gridMutations);
+        Arrays.fill(regionStamps, gridMutations);
+        for (GridListener listener : gridListeners)
+        {
+            listener.gridReplaced(this);
+        }
+    }
+
+    public int getWidth()
+    {
+        return width;
+    }
+
+    public int getHeight()
+    {
+        return height;
     }
 
     public boolean withinBounds(Point pt)
     {
-        return pt.getX() >= 0 && pt.getX() < this.width && pt.getY() >= 0 && pt.getY() < this.height;
+        return withinBounds(pt.getX(), pt.getY());
+    }
+
+    public boolean withinBounds(int x, int y)
+    {
+        return x >= 0 && x < this.width && y >= 0 && y < this.height;
     }
 
     public boolean isOccupied(Point pt)
     {
-        return this.withinBounds(pt) && this.getWorldObjectGrid().getCell(pt) != null;
+        return isOccupied(pt.getX(), pt.getY());
+    }
+
+    public boolean isOccupied(int x, int y)
+    {
+        return this.withinBounds(x, y) && occupancy.get(x, y) != EntityTable.EMPTY;
     }
 
     public void addWorldObject(WorldObject obj)
@@ -73,20 +253,46 @@ public class World
         Point pt = obj.getPosition();
         if (withinBounds(pt))
         {
-            WorldObject oldEntity = this.getWorldObjectGrid().getCell(pt);
+            WorldObject oldEntity = entities.get(occupancy.get(pt.getX(), pt.getY()));
             if (oldEntity != null)
             {
                 oldEntity.clearPendingActions(this);
             }
-            this.getWorldObjectGrid().setCell(pt, obj);
+            this.setWorldObjectAt(pt, obj);
             this.worldObjectList.add(obj);
+            this.spatialIndex.add(obj);
+            this.typeRegistry.add(obj);
             this.uuidWorldObjectMap.put(obj.getUUID(), obj);
         }
     }
 
     public void setWorldObjectAt(Point pt, WorldObject obj)
     {
-        this.getWorldObjectGrid().setCell(pt, obj);
+        int cell = toCell(pt);
+        int old = occupancy.get(cell);
+        WorldObject previous = entities.get(old);
+        // Acquire before releasing, so writing an object over itself keeps its slot
+        int slot = obj == null ? EntityTable.EMPTY : entities.acquire(obj);
+        occupancy.set(cell, slot);
+        entities.release(old);
+        if (actorStore != null)
+        {
+            if (previous != null && entities.get(old) != previous)
+            {
+                actorStore.detach(old);
+            }
+            if (obj != null)
+            {
+                actorStore.attach(slot, obj);
+            }
+        }
+        this.cellStamps[cell] = ++gridMutations;
+        this.dirtyTiles.set(cell);
+        this.regionStamps[(pt.getY() >> REGION_SHIFT) * regionsX + (pt.getX() >> REGION_SHIFT)] = gridMutations;
+        for (GridListener listener : gridListeners)
+        {
+            listener.cellChanged(this, pt.getX(), pt.getY());
+        }
     }
 
     public void removeEntityAt(Point pt)
@@ -101,6 +307,8 @@ public class World
             }
             //obj.setPosition(new Point(-1, -1));
             this.worldObjectList.remove(obj);
+            this.spatialIndex.remove(obj);
+            this.typeRegistry.remove(obj);
             this.setWorldObjectAt(pt, null);
         }
     }
@@ -114,11 +322,35 @@ public class World
     {
         if (this.withinBounds(pt))
         {
-            return this.getWorldObjectGrid().getCell(pt);
+            return entities.get(occupancy.get(pt.getX(), pt.getY()));
         }
         return null;
     }
 
+    public WorldObject getWorldObjectAt(int x, int y)
+    {
+        if (this.withinBounds(x, y))
+        {
+            return entities.get(occupancy.get(x, y));
+        }
+        return null;
+    }
+
+    /**
+     * Whether a moving actor can step onto the given cell
+     *
+     * @param goalType Class of objects the actor is allowed to walk onto
+     */
+    public boolean isPassable(int x, int y, Class<?> goalType)
+    {
+        if (!this.withinBounds(x, y))
+        {
+            return false;
+        }
+        int slot = occupancy.get(x, y);
+        return slot == EntityTable.EMPTY || goalType.isInstance(entities.get(slot));
+    }
+
     public WorldObject getWorldObjectByUUID(UUID uuid)
     {
         return uuidWorldObjectMap.get(uuid);
@@ -127,6 +359,83 @@ public class World
     public void setBackground(Point pt, Background bg)
     {
         this.getBackgroundGrid().setCell(pt, bg);
+        backgroundVersion++;
+        markDirty(pt);
+    }
+
+    /**
+     * @return A counter that goes up every time a background cell or the background grid is replaced
+     */
+    public long getBackgroundVersion()
+    {
+        return backgroundVersion;
+    }
+
+    /**
+     * @return The background every cell had when the world was created
+     */
+    public Background getDefaultBackground()
+    {
+        return defaultBackground;
+    }
+
+    /**
+     * Pages out the background chunks no active object is near: every chunk more than radius chunks away from all
+     * the objects with an action waiting. They go to a PaletteChunkPager, made the first time it is needed, and are
+     * read back in the next time one of their cells is touched. Objects themselves are never paged out.
+     *
+     * @return The number of chunks let go
+     */
+    public int pageOutIdle(int radius)
+    {
+        int chunksX = backgroundGrid.getChunksX();
+        int chunksY = backgroundGrid.getChunksY();
+        BitSet keep = new BitSet(chunksX * chunksY);
+        for (WorldObject obj : worldObjectList)
+        {
+            if (!isActive(obj))
+            {
+                continue;
+            }
+            int cx = obj.getPosition().getX() >> Grid.CHUNK_SHIFT;
+            int cy = obj.getPosition().getY() >> Grid.CHUNK_SHIFT;
+            for (int y = Math.max(0, cy - radius); y <= Math.min(chunksY - 1, cy + radius); y++)
+            {
+                keep.set(y * chunksX + Math.max(0, cx - radius), y * chunksX + Math.min(chunksX - 1, cx + radius) + 1);
+            }
+        }
+
+        if (backgroundGrid.getPager() == null)
+        {
+            try
+            {
+                backgroundGrid.setPager(new PaletteChunkPager<>());
+            } catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        }
+        int released = 0;
+        for (int chunk = keep.nextClearBit(0); chunk < chunksX * chunksY; chunk = keep.nextClearBit(chunk + 1))
+        {
+            if (backgroundGrid.pageOut(chunk))
+            {
+                released++;
+            }
+        }
+        return released;
+    }
+
+    private static boolean isActive(WorldObject obj)
+    {
+        for (ScheduledAction action : obj.getPendingActions())
+        {
+            if (!action.isDone())
+            {
+                return true;
+            }
+        }
+        return false;
     }
 
     public Background getBackgroundAt(Point pt)
@@ -134,17 +443,27 @@ public class World
         return this.getBackgroundGrid().getCell(pt);
     }
 
+    public Background getBackgroundAt(int x, int y)
+    {
+        return this.getBackgroundGrid().getCell(x, y);
+    }
+
     public List<Point> moveWorldObject(WorldObject obj, Point pt)
     {
         List<Point> tiles = new ArrayList<>(2);
         if (this.withinBounds(pt))
         {
             Point oldPt = obj.getPosition();
-            this.getWorldObjectGrid().setCell(oldPt, null);
+            // Written into the new cell before the old one is cleared, so the object keeps its slot throughout
+            this.setWorldObjectAt(pt, obj);
+            if (!oldPt.equals(pt))
+            {
+                this.setWorldObjectAt(oldPt, null);
+            }
             tiles.add(oldPt);
-            this.getWorldObjectGrid().setCell(pt, obj);
             tiles.add(pt);
             obj.setPosition(pt);
+            this.spatialIndex.move(obj);
         }
         return tiles;
     }
@@ -154,73 +473,159 @@ public class World
         return this.worldObjectList;
     }
 
-    public WorldObject findNearestOfType(Point pt, Class type)
+    /**
+     * Returns every object in the world that is an instance of the given type, in the order they were added
+     *
+     * @param type The class to filter by. Subclasses are included
+     * @return A new list of the matching objects
+     */
+    public <T> List<T> getObjectsOfType(Class<T> type)
+    {
+        return typeRegistry.getObjectsOfType(type);
+    }
+
+    public int countObjectsOfType(Class<?> type)
     {
-        HashMap<WorldObject, Integer> oftype = new HashMap<>();
-        for (WorldObject obj : this.worldObjectList)
+        return typeRegistry.count(type);
+    }
+
+    public WorldObject findNearestOfType(Point pt, Class<? extends WorldObject> type)
+    {
+        int count = typeRegistry.count(type);
+        if (count == 0)
         {
-            if (type.isInstance(obj))
+            return null;
+        }
+        if (count > NEAREST_SCAN_LIMIT)
+        {
+            return spatialIndex.findNearestOfType(pt, type);
+        }
+
+        WorldObject nearest = null;
+        int nearestDist = 0;
+        for (WorldObject wo : typeRegistry.getObjectsOfType(type))
+        {
+            int dist = pt.distanceSq(wo.getPosition());
+            if (nearest == null || dist < nearestDist)
             {
-                oftype.put(obj, pt.distanceSq(obj.getPosition()));
+                nearest = wo;
+                nearestDist = dist;
             }
         }
-        return nearestEntity(oftype);
+        return nearest;
     }
 
     /*
     Actions
      */
 
-    public void scheduleAction(Action action, long time)
+    public ActionScheduler getActionScheduler()
+    {
+        return actionScheduler;
+    }
+
+    public long getCurrentGameTime()
+    {
+        return currentGameTime;
+    }
+
+    public ScheduledAction scheduleAction(Action action, long time)
+    {
+        return actionScheduler.schedule(action, time);
+    }
+
+    public ScheduledAction scheduleActionWithWaitTime(Action action, long ticks)
+    {
+        return scheduleAction(action, currentGameTime + ticks);
+    }
+
+    /**
+     * Runs the action every period ticks, starting period ticks from now, until the returned handle is cancelled.
+     * The action and handle are reused for every run, and the period can be changed through the handle.
+     */
+    public ScheduledAction scheduleRepeating(Action action, long period)
     {
-        actionQueue.put(time, action);
+        return scheduleRepeating(action, currentGameTime + period, period);
     }
 
-    public void scheduleActionWithWaitTime(Action action, long ticks)
+    /**
+     * Runs the action at the given time and every period ticks after that, until the returned handle is cancelled
+     */
+    public ScheduledAction scheduleRepeating(Action action, long time, long period)
     {
-        scheduleAction(action, currentGameTime + ticks);
+        return actionScheduler.scheduleRepeating(action, time, period);
     }
 
-    public void unscheduleActions(List<Action> toUnschedule)
+    public void unscheduleActions(List<ScheduledAction> toUnschedule)
     {
-        for(Action a : toUnschedule)
+        for (ScheduledAction a : toUnschedule)
         {
-            for(Map.Entry<Long, Action> entry : ImmutableList.copyOf(actionQueue.entries()))
-            {
-                if(a == entry.getValue())
-                {
-                    actionQueue.remove(entry.getKey(), entry.getValue());
-                }
-            }
+            a.cancel();
         }
     }
 
     public void updateOnTime(long ticks)
     {
         this.currentGameTime = ticks;
-
-        if (actionQueue.isEmpty())
+        actionScheduler.advance(ticks, tickListener);
+        if (actorStore != null)
         {
-            return;
+            actorStore.animate(this, ticks);
         }
+    }
 
-        Map.Entry<Long, Action> next = actionQueue.entries().iterator().next();
+    /**
+     * @return The cells that may look different since the dirty tiles were last cleared: every tile an action
+     * returned from Action.run, every cell whose object or background was replaced
+     */
+    public BitSet getDirtyTiles()
+    {
+        return dirtyTiles;
+    }
 
-        while (ticks >= next.getKey())
-        {
-            long firstKey = next.getKey();
-            Collection<Action> actionsToRun = ImmutableList.copyOf(actionQueue.get(firstKey));
+    public void clearDirtyTiles()
+    {
+        dirtyTiles.clear();
+    }
 
-            for(Action a : actionsToRun)
-            {
-                a.run(ticks);
-            }
+    public void markDirty(Point pt)
+    {
+        markDirty(pt.getX(), pt.getY());
+    }
 
-            actionQueue.removeAll(firstKey);
-            next = actionQueue.entries().iterator().next();
+    public void markDirty(int x, int y)
+    {
+        if (withinBounds(x, y))
+        {
+            dirtyTiles.set(y * width + x);
         }
     }
 
+    /**
+     * Sets how many threads search for paths during a tick. With more than one, the paths moving actors will need
+     * are planned on a pool of threads before the actions due at each timestamp run, and the actions themselves
+     * still run one at a time on the calling thread. Every tick ends in the same state as with one thread.
+     *
+     * @param threads The number of planning threads. 1 or less turns planning off
+     */
+    public void setTickThreads(int threads)
+    {
+        if (tickPlanner != null)
+        {
+            tickPlanner.shutdown();
+            tickPlanner = null;
+        }
+        if (threads > 1)
+        {
+            tickPlanner = new TickPlanner(this, threads);
+        }
+    }
+
+    public int getTickThreads()
+    {
+        return tickPlanner == null ? 1 : tickPlanner.getThreads();
+    }
+
     /*
     Static Functions
      */
@@ -253,100 +658,168 @@ public class World
         return null;
     }
 
-    private List<Point> getNeighbors(Point pt, Class goalType)
-    {
-        Point north = new Point(pt.getX(), pt.getY() - 1);
-        Point east = new Point(pt.getX() + 1, pt.getY());
-        Point south = new Point(pt.getX(), pt.getY() + 1);
-        Point west = new Point(pt.getX() - 1, pt.getY());
-        List<Point> neighbors = Arrays.asList(north, east, south, west);
-        List<Point> out = new ArrayList<>();
+    /*
+    Pathfinding
+     */
 
-        for (Point neighbor : neighbors)
-        {
-            if ((!this.isOccupied(neighbor) || goalType.isInstance(this.getWorldObjectAt(neighbor))) && this.withinBounds(pt))
-            {
-                out.add(neighbor);
-            }
-        }
-        return out;
+    public PathFinder getPathFinder()
+    {
+        return pathFinder;
     }
 
-    private List<Point> reconstructPath(Map<Point, Point> cameFrom, Point current)
+    public void setPathFinder(PathFinder pathFinder)
     {
-        List<Point> path = new ArrayList<>();
-        path.add(current);
-        while (cameFrom.containsKey(current))
-        {
-            current = cameFrom.get(current);
-            path.add(0, current);
-        }
-        return path;
+        this.pathFinder = pathFinder;
     }
 
-    public Tuple<List<Point>, List<Point>> createPath(Point start, Point goal)
+    public boolean isFlowFieldsEnabled()
     {
-        if(!(this.getWorldObjectAt(start) instanceof MovableActor))
-        {
-            return null;
-        }
-
-        MovableActor actor = (MovableActor) this.getWorldObjectAt(start);
+        return flowFieldsEnabled;
+    }
 
-        List<Point> closedSet = new ArrayList<>();
-        Multimap<Integer, Point> openSet = ArrayListMultimap.create();
-        List<Point> visited = new ArrayList<>();
-        Map<Point, Point> cameFrom = new HashMap<>();
-        Map<Point, Integer> gScore = new HashMap<>();
-        Map<Point, Integer> fScore = new HashMap<>();
+    /**
+     * Lets actors that opt in with MovableActor.usesFlowField share one distance field per goal type instead of
+     * each running A*
+     */
+    public void setFlowFieldsEnabled(boolean flowFieldsEnabled)
+    {
+        this.flowFieldsEnabled = flowFieldsEnabled;
+    }
 
-        gScore.put(start, 0);
-        fScore.put(start, gScore.get(start) + GameUtils.manhattanDistance(start, goal));
-        openSet.put(gScore.get(start) + GameUtils.manhattanDistance(start, goal), start);
-        while (!openSet.isEmpty())
+    /**
+     * @return The distance field towards the nearest object of the given type, rebuilt if it is out of date
+     */
+    public FlowField getFlowField(Class<? extends WorldObject> goalType)
+    {
+        FlowField field = flowFields.get(goalType);
+        if (field == null)
         {
-            Map.Entry<Integer, Point> firstEntry = openSet.entries().iterator().next();
-            Integer firstKey = firstEntry.getKey();
-            Point curr = firstEntry.getValue();
-
+            field = new FlowField(goalType);
+            flowFields.put(goalType, field);
+        }
+        field.update(this);
+        return field;
+    }
 
-            if (curr.equals(goal))
-            {
-                return new Tuple<>(visited, reconstructPath(cameFrom, goal));
-            }
+    public RouteCacheStats getRouteStats()
+    {
+        return routeStats;
+    }
 
-            if (!visited.contains(curr))
-            {
-                visited.add(curr);
-            }
+    /**
+     * @return A counter that goes up every time a cell of the object grid is written
+     */
+    public long getGridMutations()
+    {
+        return gridMutations;
+    }
 
-            openSet.remove(firstKey, curr);
-            closedSet.add(curr);
+    /**
+     * @return The value of getGridMutations() when the given cell was last written
+     */
+    public long getCellStamp(int cell)
+    {
+        return cellStamps[cell];
+    }
 
-            for (Point neighbor : getNeighbors(curr, actor.getGoalType()))
+    /**
+     * @param area  Cells to check, may reach outside the world
+     * @param since A value of getGridMutations()
+     * @return True if a cell in the area has been written since the given value
+     */
+    public boolean changedSince(Rectangle area, long since)
+    {
+        if (since >= gridMutations || area.isEmpty())
+        {
+            return false;
+        }
+        int minX = Math.max(area.x, 0);
+        int minY = Math.max(area.y, 0);
+        int maxX = Math.min(area.x + area.width - 1, width - 1);
+        int maxY = Math.min(area.y + area.height - 1, height - 1);
+        for (int ry = minY >> REGION_SHIFT; ry <= maxY >> REGION_SHIFT; ry++)
+        {
+            for (int rx = minX >> REGION_SHIFT; rx <= maxX >> REGION_SHIFT; rx++)
             {
-                if (closedSet.contains(neighbor))
+                if (regionStamps[ry * regionsX + rx] <= since)
                 {
                     continue;
                 }
-
-                int tentativeGScore = gScore.get(curr) + 1; //TODO: Could change this to be a calculation
-
-                if (!openSet.containsValue(neighbor) || tentativeGScore < gScore.get(neighbor))
+                int toY = Math.min(maxY, ((ry + 1) << REGION_SHIFT) - 1);
+                int toX = Math.min(maxX, ((rx + 1) << REGION_SHIFT) - 1);
+                for (int y = Math.max(minY, ry << REGION_SHIFT); y <= toY; y++)
                 {
-                    cameFrom.put(neighbor, curr);
-                    gScore.put(neighbor, tentativeGScore);
-
-                    int neighborFScore = gScore.get(neighbor) + GameUtils.manhattanDistance(neighbor, goal);
-                    fScore.put(neighbor, neighborFScore);
-
-                    if (!openSet.containsValue(neighbor))
+                    for (int x = Math.max(minX, rx << REGION_SHIFT); x <= toX; x++)
                     {
-                        openSet.put(neighborFScore, neighbor);
+                        if (cellStamps[y * width + x] > since)
+                        {
+                            return true;
+                        }
                     }
                 }
             }
         }
-        return null;
+        return false;
+    }
+
+    public void addGridListener(GridListener listener)
+    {
+        gridListeners.add(listener);
+    }
+
+    public void removeGridListener(GridListener listener)
+    {
+        gridListeners.remove(listener);
+    }
+
+    public int toCell(Point pt)
+    {
+        return pt.getY() * width + pt.getX();
+    }
+
+    public Point toPoint(int cell)
+    {
+        return new Point(cell % width, cell / width);
+    }
+
+    /**
+     * Finds a path for the actor standing at start
+     *
+     * @return A tuple of the cells expanded by the search and the path from start to goal, or null if start does
+     * not hold a MovableActor or no path exists
+     */
+    public Tuple<List<Point>, List<Point>> createPath(Point start, Point goal)
+    {
+        return createPath(start, goal, pathFinder);
+    }
+
+    /**
+     * Same as createPath(start, goal), searching with the given engine instead of the world's own
+     */
+    public Tuple<List<Point>, List<Point>> createPath(Point start, Point goal, PathFinder pathFinder)
+    {
+        if (!(this.getWorldObjectAt(start) instanceof MovableActor) || !this.withinBounds(goal))
+        {
+            return null;
+        }
+
+        MovableActor actor = (MovableActor) this.getWorldObjectAt(start);
+
+        if (!pathFinder.findPath(this, toCell(start), toCell(goal), actor.getGoalType()))
+        {
+            return null;
+        }
+
+        List<Point> visited = new ArrayList<>(pathFinder.getVisitedCount());
+        for (int i = 0; i < pathFinder.getVisitedCount(); i++)
+        {
+            visited.add(toPoint(pathFinder.getVisitedCell(i)));
+        }
+        List<Point> path = new ArrayList<>(pathFinder.getPathLength());
+        for (int i = 0; i < pathFinder.getPathLength(); i++)
+        {
+            path.add(toPoint(pathFinder.getPathCell(i)));
+        }
+        return new Tuple<>(visited, path);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,13 @@
+package com.ooqle.game;
+/*
+* @author Kenny Williams
+*/
+
+/**
+ * A change to the world asked for by the player. Commands are queued from the render thread and applied on the
+ * simulation thread between steps, so nothing else ever touches the World while it is running.
+ */
+public interface WorldCommand
+{
+    void apply(World world);
+}
@@ -0,0 +1,147 @@
+package com.ooqle.game;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.util.WorldObjectSettings;
+import processing.core.PApplet;
+import processing.core.PGraphics;
+import processing.core.PImage;
+
+import java.util.BitSet;
+
+/**
+ * Keeps the visible part of the world painted in an offscreen buffer and copies it to the screen each frame. Only
+ * the tiles a snapshot marks dirty are repainted, background first and then the object standing on them. The whole
+ * view is repainted when the camera moves, when the renderer is invalidated, or when a snapshot asks for it; its
+ * background then comes from a BackgroundLayer in a single blit.
+ */
+public class WorldRenderer
+{
+    private final PApplet game;
+    private final BackgroundLayer background;
+    private PGraphics buffer;
+    private RenderSnapshot drawn;
+    private int xShift, yShift;
+    private boolean invalid = true;
+    private long tilesPainted;
+
+    public WorldRenderer(PApplet game)
+    {
+        this.game = game;
+        this.background = new BackgroundLayer(game);
+    }
+
+    /**
+     * Makes the next frame repaint the whole view
+     */
+    public void invalidate()
+    {
+        invalid = true;
+    }
+
+    /**
+     * @return The number of tiles painted into the buffer so far
+     */
+    public long getTilesPainted()
+    {
+        return tilesPainted;
+    }
+
+    /**
+     * Brings the buffer up to date with the snapshot and draws it to the screen
+     *
+     * @param xShift The leftmost column in view
+     * @param yShift The topmost row in view
+     */
+    public void draw(RenderSnapshot snapshot, int xShift, int yShift)
+    {
+        if (buffer == null)
+        {
+            buffer = game.createGraphics(game.width, game.height);
+        }
+
+        boolean full = invalid || xShift != this.xShift || yShift != this.yShift
+                || (snapshot != drawn && snapshot.isFullRedraw());
+        if (full || snapshot != drawn)
+        {
+            this.xShift = xShift;
+            this.yShift = yShift;
+            background.update(snapshot);
+            buffer.beginDraw();
+            if (full)
+            {
+                buffer.background(0);
+                paintView(snapshot);
+            } else
+            {
+                paintDirty(snapshot);
+            }
+            buffer.endDraw();
+            drawn = snapshot;
+            invalid = false;
+        }
+        game.image(buffer, 0, 0);
+    }
+
+    private int columns()
+    {
+        return (game.width + WorldObjectSettings.TILESIZE - 1) / WorldObjectSettings.TILESIZE;
+    }
+
+    private int rows()
+    {
+        return (game.height + WorldObjectSettings.TILESIZE - 1) / WorldObjectSettings.TILESIZE;
+    }
+
+    private boolean inView(int x, int y)
+    {
+        return x >= xShift && y >= yShift && x < xShift + columns() && y < yShift + rows();
+    }
+
+    private void paintView(RenderSnapshot snapshot)
+    {
+        background.draw(buffer, xShift, yShift, columns(), rows());
+        for (int i = 0; i < snapshot.getCount(); i++)
+        {
+            if (inView(snapshot.getX(i), snapshot.getY(i)))
+            {
+                paint(snapshot.getImage(i), snapshot.getX(i), snapshot.getY(i));
+            }
+        }
+    }
+
+    private void paintDirty(RenderSnapshot snapshot)
+    {
+        BitSet dirty = snapshot.getDirtyTiles();
+        if (dirty.isEmpty())
+        {
+            return;
+        }
+        int width = snapshot.getWidth();
+        for (int cell = dirty.nextSetBit(0); cell >= 0; cell = dirty.nextSetBit(cell + 1))
+        {
+            int x = cell % width;
+            int y = cell / width;
+            if (inView(x, y))
+            {
+                paint(snapshot.getBackground(x, y), x, y);
+            }
+        }
+        for (int i = 0; i < snapshot.getCount(); i++)
+        {
+            int x = snapshot.getX(i);
+            int y = snapshot.getY(i);
+            if (inView(x, y) && dirty.get(y * width + x))
+            {
+                paint(snapshot.getImage(i), x, y);
+            }
+        }
+    }
+
+    private void paint(PImage img, int x, int y)
+    {
+        buffer.image(img, (x - xShift) * WorldObjectSettings.TILESIZE, (y - yShift) * WorldObjectSettings.TILESIZE);
+        tilesPainted++;
+    }
+}
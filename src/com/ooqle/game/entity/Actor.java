@@ -3,6 +3,7 @@ package com.ooqle.game.entity;
 * @author Kenny Williams
 */
 
+import com.ooqle.game.ActorStore;
 import com.ooqle.game.Point;
 import processing.core.PImage;
 
@@ -21,11 +22,24 @@ public class Actor extends WorldObject
 
     public int getResourceCount()
     {
-        return resourceCount;
+        return this.getStore() != null ? this.getStore().getResourceCount(this.getSlot()) : resourceCount;
     }
 
     public void setResourceCount(int resourceCount)
     {
-        this.resourceCount = resourceCount;
+        if (this.getStore() != null)
+        {
+            this.getStore().setResourceCount(this.getSlot(), resourceCount);
+        }
+        else
+        {
+            this.resourceCount = resourceCount;
+        }
+    }
+
+    protected void copyFromStore(ActorStore store, int slot)
+    {
+        super.copyFromStore(store, slot);
+        this.resourceCount = store.getResourceCount(slot);
     }
 }
@@ -3,9 +3,11 @@ package com.ooqle.game.entity;
 * @author Kenny Williams
 */
 
+import com.ooqle.game.ActorStore;
 import com.ooqle.game.Point;
 import com.ooqle.game.World;
 import com.ooqle.game.util.Action;
+import com.ooqle.game.util.ScheduledAction;
 import org.json.simple.JSONObject;
 import processing.core.PImage;
 
@@ -15,6 +17,7 @@ import java.util.List;
 public class AnimatedActor extends Actor
 {
     private int animationRate;
+    private ScheduledAction animation;
 
     public AnimatedActor(String name, String type, Point position, List<PImage> imgs, int rate, int animationRate)
     {
@@ -24,33 +27,73 @@ public class AnimatedActor extends Actor
 
     public int getAnimationRate()
     {
-        return animationRate;
+        return this.getStore() != null ? this.getStore().getAnimationRate(this.getSlot()) : animationRate;
     }
 
     public void setAnimationRate(int newrate)
     {
-        animationRate = newrate;
+        // The running animation picks the new rate up from its next image on
+        if (animation != null && !animation.isDone())
+        {
+            if (newrate > 0)
+            {
+                animation.setPeriod(newrate);
+            }
+            else
+            {
+                animation.cancel();
+            }
+        }
+        if (this.getStore() != null)
+        {
+            this.getStore().setAnimationRate(this.getSlot(), newrate);
+        }
+        else
+        {
+            animationRate = newrate;
+        }
+    }
+
+    protected void copyFromStore(ActorStore store, int slot)
+    {
+        super.copyFromStore(store, slot);
+        this.animationRate = store.getAnimationRate(slot);
     }
 
-    public Action createAnimationAction(World world, int repeatCount)
+    public Action createAnimationAction(World world)
     {
         Action a = (long currentTicks) ->
         {
             this.nextImage();
-
-            if (repeatCount != -1)
-            {
-                this.scheduleAction(world, this.createAnimationAction(world, Math.max(repeatCount - 1, 0)), currentTicks + this.getAnimationRate());
-            }
             return Collections.singletonList(this.getPosition());
         };
-        this.removePendingAction(a);
         return a;
     }
 
+    /**
+     * Steps through the images every animation rate ticks until the actor's pending actions are cleared
+     *
+     * @param repeatCount -1 to step just once. Any other count loops
+     */
     public void scheduleAnimation(World world, int repeatCount)
     {
-        this.scheduleAction(world, this.createAnimationAction(world, repeatCount), this.getAnimationRate());
+        if (repeatCount == -1)
+        {
+            this.scheduleAction(world, this.createAnimationAction(world), this.getAnimationRate());
+            return;
+        }
+        // A looping animation in the world's store is stepped by its animation system instead of an action per frame
+        if (this.getStore() != null && this.getStore() == world.getActorStore())
+        {
+            this.getStore().startAnimation(this.getSlot(), this.getAnimationRate());
+            return;
+        }
+        // An animation rate of 0 holds the current image
+        if (this.getAnimationRate() > 0)
+        {
+            animation = this.scheduleRepeating(world, this.createAnimationAction(world), this.getAnimationRate(),
+                    this.getAnimationRate());
+        }
     }
 
     public void scheduleAnimation(World world)
@@ -58,6 +101,7 @@ public class AnimatedActor extends Actor
         scheduleAnimation(world, 0);
     }
 
+    @SuppressWarnings("unchecked")
     public JSONObject entityJSON()
     {
         JSONObject out = super.entityJSON();
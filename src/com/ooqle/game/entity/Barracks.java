@@ -1,7 +1,7 @@
 package com.ooqle.game.entity;
 
-import com.ooqle.game.Game;
 import com.ooqle.game.Point;
+import com.ooqle.game.util.Sprites;
 
 import java.util.Arrays;
 
@@ -13,6 +13,6 @@ public class Barracks extends Base
 
     public Barracks(String name, Point position, int rate)
     {
-        super(name, "blacksmith", position, rate, Arrays.asList(Game.getImage("images/structures/barracks.png")));
+        super(name, "blacksmith", position, rate, Arrays.asList(Sprites.getImage("images/structures/barracks.png")));
     }
 }
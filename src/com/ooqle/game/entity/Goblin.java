@@ -3,6 +3,7 @@ package com.ooqle.game.entity;
 import com.ooqle.game.*;
 import com.ooqle.game.util.Action;
 import com.ooqle.game.util.GameUtils;
+import com.ooqle.game.util.Sprites;
 import com.ooqle.game.util.Tuple;
 import processing.core.PImage;
 
@@ -21,16 +22,22 @@ public class Goblin extends MovableActor implements Attackable
         target = null;
     }
 
-    public Class getGoalType()
+    public Class<? extends WorldObject> getGoalType()
     {
         return Soldier.class;
     }
 
-    public Class nearestTypeForSearching()
+    public Class<? extends WorldObject> nearestTypeForSearching()
     {
         return Soldier.class;
     }
 
+    @Override
+    public boolean usesFlowField()
+    {
+        return true;
+    }
+
     Tuple<List<Point>, Boolean> applyAction(World world, Actor obj)
     {
         Point pos = this.getPosition();
@@ -51,7 +58,7 @@ public class Goblin extends MovableActor implements Attackable
         }
     }
 
-    public Tuple<List<Point>, Boolean> getNearest(World world, Class type)
+    public Tuple<List<Point>, Boolean> getNearest(World world, Class<? extends WorldObject> type)
     {
         Point pos = this.getPosition();
         Actor nearestOfType = (Actor) world.findNearestOfType(pos, type);
@@ -60,7 +67,7 @@ public class Goblin extends MovableActor implements Attackable
 
     public void schedule(World world, long ticks)
     {
-        this.scheduleAction(world, this.createAction(world), ticks + this.getRate());
+        this.startBehavior(world, ticks + this.getRate(), this.getRate());
         this.scheduleAnimation(world);
     }
 
@@ -69,25 +76,22 @@ public class Goblin extends MovableActor implements Attackable
         Action a = (long currentTicks) ->
         {
             Tuple<List<Point>, Boolean> tup = this.getNearest(world, this.nearestTypeForSearching());
-            if (!this.isDead())
-            {
-                this.scheduleAction(world, this.createAction(world), currentTicks + this.getRate());
-            } else
+            if (this.isDead())
             {
-                this.setImages(GameUtils.getSpriteImages(Game.getImage("images/characters/goblin/goblin_die.png"), 9));
+                this.stopBehavior();
+                this.setImages(Sprites.getFrames("images/characters/goblin/goblin_die.png", 9));
                 this.die(world);
             }
             return tup.getKey();
         };
-        this.removePendingAction(a);
         return a;
     }
 
     @Override
     public List<PImage> getAttackImages(Point other)
     {
-        List<PImage> leftimg = GameUtils.getSpriteImages(Game.getImage("images/characters/goblin/goblin_attack_left.png"), 7);
-        List<PImage> rightimg = GameUtils.getSpriteImages(Game.getImage("images/characters/goblin/goblin_attack_right.png"), 7);
+        List<PImage> leftimg = Sprites.getFrames("images/characters/goblin/goblin_attack_left.png", 7);
+        List<PImage> rightimg = Sprites.getFrames("images/characters/goblin/goblin_attack_right.png", 7);
         if(this.getPosition().getX() == other.getX())
         {
             if(this.getPosition().getY() == other.getY() - 1)
@@ -115,18 +119,18 @@ public class Goblin extends MovableActor implements Attackable
     @Override
     public List<PImage> getMoveImages()
     {
-        return GameUtils.getSpriteImages(Game.getImage("images/characters/goblin/goblin_move_left.png"), 6);
+        return Sprites.getFrames("images/characters/goblin/goblin_move_left.png", 6);
     }
 
     @Override
     public MovableActor getTarget(World world)
     {
         List<MovableActor> availableToAttack = new ArrayList<>();
-        for (WorldObject obj : world.getWorldObjects())
+        for (MovableActor obj : world.getObjectsOfType(MovableActor.class))
         {
-            if (!(obj instanceof Goblin) && obj instanceof MovableActor && !BattleManager.isTargetted(obj))
+            if (!(obj instanceof Goblin) && !BattleManager.isTargetted(obj))
             {
-                availableToAttack.add((MovableActor) obj);
+                availableToAttack.add(obj);
             }
         }
 
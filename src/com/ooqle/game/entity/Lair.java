@@ -1,14 +1,14 @@
 package com.ooqle.game.entity;
 
 import com.ooqle.game.ActionManager;
-import com.ooqle.game.Game;
 import com.ooqle.game.Point;
 import com.ooqle.game.World;
 import com.ooqle.game.util.Action;
+import com.ooqle.game.util.Sprites;
 import com.ooqle.game.util.WorldObjectSettings;
 
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -22,7 +22,7 @@ public class Lair extends Actor {
 
     public Lair(String name, Point tl_position, int rate)
     {
-        super(name, "lair", tl_position, Arrays.asList(Game.getImage("images/cave.png")), rate);
+        super(name, "lair", tl_position, Arrays.asList(Sprites.getImage("images/cave.png")), rate);
         this.goblinCount = WorldObjectSettings.GOBLINSPAWNCOUNT;
         this.position = tl_position;
     }
@@ -44,55 +44,59 @@ public class Lair extends Actor {
     }
     public Point findOpenAround(World world)
     {
-        Point south = new Point(this.position.getX(), this.position.getY() + 2);
-        if(world.withinBounds(south) && (!(world.isOccupied(south))))
+        long open = this.findOpenCell(world);
+        return open == Point.NONE ? null : Point.unpack(open);
+    }
+
+    /**
+     * Tries south, west, north and east of the lair without allocating
+     *
+     * @return The first open cell as a packed point, or Point.NONE
+     */
+    public long findOpenCell(World world)
+    {
+        int x = this.position.getX();
+        int y = this.position.getY();
+        if (world.withinBounds(x, y + 2) && !world.isOccupied(x, y + 2))
         {
-            return south;
+            return Point.pack(x, y + 2);
         }
-
-        Point west = new Point(this.position.getX() -1, this.position.getY());
-        if(world.withinBounds(west) && (!(world.isOccupied(west))))
+        if (world.withinBounds(x - 1, y) && !world.isOccupied(x - 1, y))
         {
-            return west;
+            return Point.pack(x - 1, y);
         }
-        Point north = new Point(this.position.getX(), this.position.getY() - 1);
-        if(world.withinBounds(north) && (!(world.isOccupied(north))))
+        if (world.withinBounds(x, y - 1) && !world.isOccupied(x, y - 1))
         {
-            return north;
+            return Point.pack(x, y - 1);
         }
-
-        Point east = new Point(this.position.getX() +2, this.position.getY());
-        if(world.withinBounds(east) && (!(world.isOccupied(east))))
+        if (world.withinBounds(x + 2, y) && !world.isOccupied(x + 2, y))
         {
-            return east;
+            return Point.pack(x + 2, y);
         }
-
-        return null;
+        return Point.NONE;
     }
 
     public Action createAction(World world)
     {
         Action a = (long currentTicks) ->
         {
-            List<Point> tiles = new ArrayList<>();
-            Point openPt = this.findOpenAround(world);
-            if(openPt != null && this.getGoblinCount() != 0)
+            List<Point> tiles = Collections.emptyList();
+            long open = this.getGoblinCount() != 0 ? this.findOpenCell(world) : Point.NONE;
+            if(open != Point.NONE)
             {
+                Point openPt = Point.unpack(open);
                 Goblin goblin = ActionManager.createGoblin(world, openPt, currentTicks);
                 world.addWorldObject(goblin);
                 setGoblinCount(getGoblinCount() - 1);
-                tiles.add(openPt);
+                tiles = Collections.singletonList(openPt);
             }
-
-            this.scheduleAction(world, this.createAction(world), currentTicks + this.getRate());
             return tiles;
         };
-        this.removePendingAction(a);
         return a;
     }
 
     public void schedule(World world, long ticks)
     {
-        this.scheduleAction(world, this.createAction(world), ticks + this.getRate());
+        this.scheduleRepeating(world, this.createAction(world), ticks + this.getRate(), this.getRate());
     }
 }
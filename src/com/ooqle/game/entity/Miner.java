@@ -3,10 +3,11 @@ package com.ooqle.game.entity;
 * @author Kenny Williams
 */
 
-import com.ooqle.game.Game;
 import com.ooqle.game.Point;
 import com.ooqle.game.World;
 import com.ooqle.game.util.Action;
+import com.ooqle.game.util.PlannedAction;
+import com.ooqle.game.util.Sprites;
 import com.ooqle.game.util.Tuple;
 import org.json.simple.JSONObject;
 import processing.core.PImage;
@@ -32,24 +33,37 @@ public abstract class Miner extends MovableActor //implements Attackable
 
     abstract MovableActor transform(World world);
 
-    abstract Class nearestTypeForSearching();
+    abstract Class<? extends WorldObject> nearestTypeForSearching();
 
     abstract Tuple<List<Point>, Boolean> applyAction(World world, Actor obj);
 
-    public abstract Class getGoalType();
+    public abstract Class<? extends WorldObject> getGoalType();
 
     public int getResourceLimit()
     {
         return resourceLimit;
     }
 
-    public Tuple<List<Point>, Boolean> getNearest(World world, Class type)
+    public Tuple<List<Point>, Boolean> getNearest(World world, Class<? extends WorldObject> type)
     {
         Point pos = this.getPosition();
         Actor nearestOfType = (Actor) world.findNearestOfType(pos, type);
         return this.applyAction(world, nearestOfType);
     }
 
+    /**
+     * Heads for the nearest object of the type being searched for, unless it is already next to it
+     */
+    protected Point getPlanningGoal(World world)
+    {
+        WorldObject nearest = world.findNearestOfType(this.getPosition(), this.nearestTypeForSearching());
+        if (nearest == null || this.getPosition().adjacent(nearest.getPosition()))
+        {
+            return null;
+        }
+        return nearest.getPosition();
+    }
+
     private MovableActor tryTransform(World world)
     {
         MovableActor newObj = this.transform(world);
@@ -65,30 +79,32 @@ public abstract class Miner extends MovableActor //implements Attackable
 
     public Action createAction(World world)
     {
-        Action a = (long currentTicks) ->
+        PlannedAction a = (long currentTicks) ->
         {
             Tuple<List<Point>, Boolean> tup = this.getNearest(world, this.nearestTypeForSearching());
             boolean found = tup.getValue();
-            MovableActor newEntity = this;
 
+            // Transforming clears this miner's pending actions, which stops this action repeating
             if (found)
             {
-                newEntity = this.tryTransform(world);
+                MovableActor newEntity = this.tryTransform(world);
+                if (newEntity != this)
+                {
+                    newEntity.startBehavior(world, currentTicks + this.getRate(), newEntity.getRate());
+                }
             }
-
-            newEntity.scheduleAction(world, newEntity.createAction(world), currentTicks + this.getRate());
             return tup.getKey();
         };
-        this.removePendingAction(a);
         return a;
     }
 
     public void schedule(World world, long ticks)
     {
-        this.scheduleAction(world, this.createAction(world), ticks + this.getRate());
+        this.startBehavior(world, ticks + this.getRate(), this.getRate());
         this.scheduleAnimation(world);
     }
 
+    @SuppressWarnings("unchecked")
     public JSONObject entityJSON()
     {
         JSONObject out = super.entityJSON();
@@ -109,7 +125,7 @@ public abstract class Miner extends MovableActor //implements Attackable
 
     public List<PImage> getMoveImages()
     {
-        return Game.getImages("images/miner*.png", 5);
+        return Sprites.getImages("images/miner*.png", 5);
     }
 
 }
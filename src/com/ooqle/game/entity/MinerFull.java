@@ -3,10 +3,9 @@ package com.ooqle.game.entity;
 * @author Kenny Williams
 */
 
-import com.ooqle.game.Game;
 import com.ooqle.game.Point;
 import com.ooqle.game.World;
-import com.ooqle.game.util.GameUtils;
+import com.ooqle.game.util.Sprites;
 import com.ooqle.game.util.Tuple;
 import processing.core.PImage;
 
@@ -35,13 +34,13 @@ public class MinerFull extends Miner
     {
         if(knighthood)
         {
-            return new Soldier("soldier", this.getPosition(), GameUtils.getSpriteImages(Game.getImage("images/characters/soldier/soldier_move_left.png"), 6), 1000, 100);
+            return new Soldier("soldier", this.getPosition(), Sprites.getFrames("images/characters/soldier/soldier_move_left.png", 6), 1000, 100);
         }
         return new MinerNotFull(this.getName(), this.getPosition(), this.getImages(), this.getRate(), this.getAnimationRate(), this.getResourceCount(), this.getUUID());
     }
 
     @Override
-    Class nearestTypeForSearching()
+    Class<? extends WorldObject> nearestTypeForSearching()
     {
         return Base.class;
     }
@@ -83,7 +82,7 @@ public class MinerFull extends Miner
         //soldier.schedule(world, 0);
     }
 
-    public Class getGoalType()
+    public Class<? extends WorldObject> getGoalType()
     {
         return Base.class;
     }
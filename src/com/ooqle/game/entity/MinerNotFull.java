@@ -37,7 +37,7 @@ public class MinerNotFull extends Miner
     }
 
     @Override
-    Class nearestTypeForSearching()
+    Class<? extends WorldObject> nearestTypeForSearching()
     {
         return Ore.class;
     }
@@ -75,7 +75,7 @@ public class MinerNotFull extends Miner
         //return newObj;
     }
 
-    public Class getGoalType()
+    public Class<? extends WorldObject> getGoalType()
     {
         return Ore.class;
     }
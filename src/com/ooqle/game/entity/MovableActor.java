@@ -3,22 +3,49 @@ package com.ooqle.game.entity;
 * @author Kenny Williams
 */
 
+import com.ooqle.game.ActorStore;
 import com.ooqle.game.BattleManager;
 import com.ooqle.game.Point;
 import com.ooqle.game.World;
+import com.ooqle.game.path.PathFinder;
 import com.ooqle.game.util.Action;
+import com.ooqle.game.util.ScheduledAction;
 import com.ooqle.game.util.Tuple;
+import com.ooqle.game.util.WorldObjectSettings;
 import processing.core.PImage;
 
+import java.awt.Rectangle;
+import java.util.ArrayList;
 import java.util.List;
 
 public abstract class MovableActor extends AnimatedActor
 {
+    private static final int ROUTE_OK = 0;
+    private static final int MISS_NO_ROUTE = 1;
+    private static final int MISS_GOAL_CHANGED = 2;
+    private static final int MISS_BLOCKED = 3;
+    private static final int MISS_EXPIRED = 4;
+    private static final int MISS_STRAYED = 5;
+
     private Tuple<List<Point>, List<Point>> travelled;
+    private int[] route;
+    private int routeLength;
+    private int routeIndex;
+    private int routeGoal;
+    private int routeAge;
+    private int routeWidth;
+    private long routePlannedAt;
+    private boolean planned;
+    private Tuple<List<Point>, List<Point>> plannedPath;
+    private int plannedStart;
+    private int plannedGoal;
+    private long plannedAt;
+    private Rectangle plannedReads;
     private boolean exists = true;
     private boolean dead;
     private boolean attacking;
     private int health;
+    private ScheduledAction behavior;
 
     public MovableActor(String name, String type, Point position, List<PImage> imgs, int rate, int animationRate, int health)
     {
@@ -28,22 +55,239 @@ public abstract class MovableActor extends AnimatedActor
         this.attacking = false;
     }
 
-    public abstract Class getGoalType();
+    public abstract Class<? extends WorldObject> getGoalType();
 
     public abstract Action createAction(World world);
 
+    /**
+     * Runs createAction every period ticks from the given time on, as one repeating action whose handle is kept as
+     * the actor's behavior
+     */
+    protected ScheduledAction startBehavior(World world, long time, long period)
+    {
+        behavior = this.scheduleRepeating(world, this.createAction(world), time, period);
+        return behavior;
+    }
+
+    /**
+     * @return The handle of the repeating action started by startBehavior, or null if it was never started
+     */
+    public ScheduledAction getBehavior()
+    {
+        return behavior;
+    }
+
+    /**
+     * Stops the repeating action started by startBehavior, if there is one
+     */
+    protected void stopBehavior()
+    {
+        if (behavior != null)
+        {
+            behavior.cancel();
+        }
+    }
+
+    /**
+     * Actors that hunt whatever of their goal type is nearest, rather than one particular object, can return true
+     * to be steered by the world's shared flow field for their goal type instead of planning their own route.
+     */
+    public boolean usesFlowField()
+    {
+        return false;
+    }
+
+    /**
+     * Where the actor's next PlannedAction will call nextPosition towards, or null if it will not. Must only read
+     * the world, since it is called from planning threads.
+     */
+    protected Point getPlanningGoal(World world)
+    {
+        return null;
+    }
+
+    /**
+     * Searches ahead of time for the path the next call to nextPosition would search for, with the given engine.
+     * Only reads the world, so actors can be planned on several threads at once while nothing is being changed.
+     * The plan remembers the cells the search read, and nextPosition only uses it if none of them have been written
+     * since, so planning never changes where an actor goes.
+     */
+    public void planPath(World world, PathFinder finder)
+    {
+        planned = false;
+        plannedPath = null;
+        if (this.usesFlowField() && world.isFlowFieldsEnabled())
+        {
+            return;
+        }
+        Point goal = this.getPlanningGoal(world);
+        if (goal == null || !world.withinBounds(goal) || world.getWorldObjectAt(this.getPosition()) != this
+                || this.routeMiss(world, world.toCell(goal)) == ROUTE_OK)
+        {
+            return;
+        }
+
+        plannedAt = world.getGridMutations();
+        plannedStart = world.toCell(this.getPosition());
+        plannedGoal = world.toCell(goal);
+        plannedPath = world.createPath(this.getPosition(), goal, finder);
+        plannedReads = include(include(finder.getReadBounds(), this.getPosition()), goal);
+        planned = true;
+    }
+
+    private static Rectangle include(Rectangle area, Point pt)
+    {
+        Rectangle cell = new Rectangle(pt.getX(), pt.getY(), 1, 1);
+        return area.isEmpty() ? cell : area.union(cell);
+    }
+
+    /**
+     * Returns the next cell to step to on the way to destPt. The planned route is kept and followed on later calls,
+     * and is only planned again when the destination changes, a cell ahead becomes blocked, the actor has strayed
+     * from it or it has been followed for WorldObjectSettings.ROUTE_MAX_AGE steps.
+     */
     public Point nextPosition(World world, Point destPt)
     {
-        travelled = world.createPath(this.getPosition(), destPt);
+        if (this.usesFlowField() && world.isFlowFieldsEnabled())
+        {
+            int step = world.getFlowField(this.getGoalType()).nextStep(world, world.toCell(this.getPosition()));
+            return step == -1 ? this.getPosition() : world.toPoint(step);
+        }
+
+        if (world.withinBounds(destPt) && this.followRoute(world, world.toCell(destPt)))
+        {
+            world.getRouteStats().hit();
+            return world.toPoint(route[routeIndex]);
+        }
+
+        travelled = world.withinBounds(destPt) && this.takePlannedPath(world, destPt)
+                ? plannedPath : world.createPath(this.getPosition(), destPt);
+        planned = false;
+        plannedPath = null;
 
         if (travelled == null || travelled.getValue().size() == 1)
         {
+            this.clearRoute();
             return this.getPosition();
         }
         List<Point> path = travelled.getValue();
+        this.cacheRoute(world, path, world.toCell(destPt));
         return path.get(1);
     }
 
+    /**
+     * Whether the path planned for this step can stand in for searching now
+     */
+    private boolean takePlannedPath(World world, Point destPt)
+    {
+        if (!planned)
+        {
+            return false;
+        }
+        if (plannedStart == world.toCell(this.getPosition()) && plannedGoal == world.toCell(destPt)
+                && !world.changedSince(plannedReads, plannedAt))
+        {
+            world.getRouteStats().planUsed();
+            return true;
+        }
+        world.getRouteStats().planStale();
+        return false;
+    }
+
+    private boolean followRoute(World world, int goal)
+    {
+        switch (this.routeMiss(world, goal))
+        {
+            case MISS_NO_ROUTE:
+                world.getRouteStats().missNoRoute();
+                return false;
+            case MISS_GOAL_CHANGED:
+                world.getRouteStats().missGoalChanged();
+                return false;
+            case MISS_BLOCKED:
+                world.getRouteStats().missBlocked();
+                return false;
+            case MISS_EXPIRED:
+                world.getRouteStats().missExpired();
+                return false;
+            case MISS_STRAYED:
+                world.getRouteStats().missStrayed();
+                return false;
+        }
+        routeIndex++;
+        routeAge++;
+        return true;
+    }
+
+    /**
+     * @return ROUTE_OK if the cached route can be followed one more step towards goal, or why it cannot
+     */
+    private int routeMiss(World world, int goal)
+    {
+        if (route == null)
+        {
+            return MISS_NO_ROUTE;
+        }
+        if (goal != routeGoal)
+        {
+            return MISS_GOAL_CHANGED;
+        }
+        if (routeIndex + 1 >= routeLength)
+        {
+            return MISS_NO_ROUTE;
+        }
+        if (route[routeIndex] != world.toCell(this.getPosition()))
+        {
+            // Moved off the route, or the last step was never taken
+            return MISS_STRAYED;
+        }
+        if (routeAge >= WorldObjectSettings.ROUTE_MAX_AGE)
+        {
+            return MISS_EXPIRED;
+        }
+
+        // Only cells written since the route was planned can have been blocked
+        int width = world.getWidth();
+        for (int i = routeIndex + 1; i < routeLength; i++)
+        {
+            int cell = route[i];
+            if (cell != goal && world.getCellStamp(cell) > routePlannedAt
+                    && !world.isPassable(cell % width, cell / width, this.getGoalType()))
+            {
+                return MISS_BLOCKED;
+            }
+        }
+        return ROUTE_OK;
+    }
+
+    private void cacheRoute(World world, List<Point> path, int goal)
+    {
+        if (route == null || route.length < path.size())
+        {
+            route = new int[path.size()];
+        }
+        for (int i = 0; i < path.size(); i++)
+        {
+            route[i] = world.toCell(path.get(i));
+        }
+        routeLength = path.size();
+        routeIndex = 1;
+        routeGoal = goal;
+        routeAge = 0;
+        routeWidth = world.getWidth();
+        routePlannedAt = world.getGridMutations();
+    }
+
+    public void clearRoute()
+    {
+        route = null;
+        routeLength = 0;
+    }
+
+    /**
+     * @return The cells the last full search expanded, past the first two. Steps taken along a cached route do not
+     * search, so this is not updated by them.
+     */
     public List<Point> getVisited()
     {
         if (travelled != null)
@@ -55,15 +299,22 @@ public abstract class MovableActor extends AnimatedActor
         }
     }
 
+    /**
+     * @return The rest of the route being followed, after the step last returned by nextPosition, or null if there
+     * is no route
+     */
     public List<Point> getPath()
     {
-        if (travelled != null)
-        {
-            return travelled.getValue().subList(2, travelled.getValue().size());
-        } else
+        if (route == null)
         {
             return null;
         }
+        List<Point> path = new ArrayList<>(routeLength - routeIndex);
+        for (int i = routeIndex + 1; i < routeLength; i++)
+        {
+            path.add(new Point(route[i] % routeWidth, route[i] / routeWidth));
+        }
+        return path;
     }
 
     public boolean doesThisExist()
@@ -74,16 +325,32 @@ public abstract class MovableActor extends AnimatedActor
     public void removedFromWorld()
     {
         exists = false;
+        planned = false;
+        plannedPath = null;
+        this.clearRoute();
     }
 
     public void setHealth(int health)
     {
-        this.health = health;
+        if (this.getStore() != null)
+        {
+            this.getStore().setHealth(this.getSlot(), health);
+        }
+        else
+        {
+            this.health = health;
+        }
     }
 
     public int getHealth()
     {
-        return this.health;
+        return this.getStore() != null ? this.getStore().getHealth(this.getSlot()) : this.health;
+    }
+
+    protected void copyFromStore(ActorStore store, int slot)
+    {
+        super.copyFromStore(store, slot);
+        this.health = store.getHealth(slot);
     }
 
     public void takeDamage(int damage)
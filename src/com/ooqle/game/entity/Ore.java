@@ -34,7 +34,6 @@ public class Ore extends Actor
             world.addWorldObject(blob);
             return Collections.singletonList(blob.getPosition());
         };
-        this.removePendingAction(a);
         return a;
     }
 
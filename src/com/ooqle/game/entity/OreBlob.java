@@ -7,6 +7,7 @@ import com.ooqle.game.ActionManager;
 import com.ooqle.game.Point;
 import com.ooqle.game.World;
 import com.ooqle.game.util.Action;
+import com.ooqle.game.util.PlannedAction;
 import com.ooqle.game.util.Tuple;
 import processing.core.PImage;
 
@@ -45,28 +46,41 @@ public class OreBlob extends MovableActor
         }
     }
 
+    protected Point getPlanningGoal(World world)
+    {
+        WorldObject vein = world.findNearestOfType(this.getPosition(), Vein.class);
+        if (vein == null || this.getPosition().adjacent(vein.getPosition()))
+        {
+            return null;
+        }
+        return vein.getPosition();
+    }
+
     public Action createAction(World world)
     {
-        Action a = (long currentTicks) ->
+        PlannedAction a = (long currentTicks) ->
         {
             Point pt = this.getPosition();
             Vein vein = (Vein) world.findNearestOfType(pt, Vein.class);
             Tuple<List<Point>, Boolean> tup = this.toVein(world, vein);
 
-            long nextTime = currentTicks + this.getRate();
+            long period = this.getRate();
 
             if (tup.getValue())
             {
                 Quake quake = ActionManager.createQuake(world, tup.getKey().get(0), currentTicks);
                 world.addWorldObject(quake);
-                nextTime = currentTicks + this.getRate() * 2;
+                period = this.getRate() * 2;
             }
 
-            this.scheduleAction(world, this.createAction(world), nextTime);
+            // Rests twice as long after setting off a quake
+            if (this.getBehavior() != null && this.getBehavior().isRepeating())
+            {
+                this.getBehavior().setPeriod(period);
+            }
 
             return tup.getKey();
         };
-        this.removePendingAction(a);
         return a;
     }
 
@@ -84,11 +98,11 @@ public class OreBlob extends MovableActor
 
     public void schedule(World world, long ticks)
     {
-        this.scheduleAction(world, this.createAction(world), ticks + this.getRate());
+        this.startBehavior(world, ticks + this.getRate(), this.getRate());
         this.scheduleAnimation(world);
     }
 
-    public Class getGoalType()
+    public Class<? extends WorldObject> getGoalType()
     {
         return Ore.class;
     }
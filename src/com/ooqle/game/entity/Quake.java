@@ -27,7 +27,6 @@ public class Quake extends AnimatedActor
             this.removeEntity(world);
             return Collections.singletonList(this.getPosition());
         };
-        this.removePendingAction(a);
         return a;
     }
 
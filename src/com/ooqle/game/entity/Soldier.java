@@ -1,10 +1,9 @@
 package com.ooqle.game.entity;
 
-import com.ooqle.game.Game;
 import com.ooqle.game.Point;
 import com.ooqle.game.World;
 import com.ooqle.game.util.Action;
-import com.ooqle.game.util.GameUtils;
+import com.ooqle.game.util.Sprites;
 import com.ooqle.game.util.Tuple;
 import processing.core.PImage;
 
@@ -22,16 +21,22 @@ public class Soldier extends MovableActor
         super(name, "soldier", position, imgs, rate, animationRate, 5);
     }
 
-    public Class getGoalType()
+    public Class<? extends WorldObject> getGoalType()
     {
         return Goblin.class;
     }
 
-    public Class nearestTypeForSearching()
+    public Class<? extends WorldObject> nearestTypeForSearching()
     {
         return Goblin.class;
     }
 
+    @Override
+    public boolean usesFlowField()
+    {
+        return true;
+    }
+
     Tuple<List<Point>, Boolean> applyAction(World world, Actor obj)
     {
         Point pos = this.getPosition();
@@ -51,7 +56,7 @@ public class Soldier extends MovableActor
         }
     }
 
-    public Tuple<List<Point>, Boolean> getNearest(World world, Class type)
+    public Tuple<List<Point>, Boolean> getNearest(World world, Class<? extends WorldObject> type)
     {
         Point pos = this.getPosition();
         Actor nearestOfType = (Actor) world.findNearestOfType(pos, type);
@@ -60,7 +65,7 @@ public class Soldier extends MovableActor
 
     public void schedule(World world, long ticks)
     {
-        this.scheduleAction(world, this.createAction(world), ticks + this.getRate());
+        this.startBehavior(world, ticks + this.getRate(), this.getRate());
         this.scheduleAnimation(world);
     }
 
@@ -71,26 +76,23 @@ public class Soldier extends MovableActor
             Tuple<List<Point>, Boolean> tup = this.getNearest(world, this.nearestTypeForSearching());
             boolean found = tup.getValue();
 
-            if (!this.isDead())
-            {
-                this.scheduleAction(world, this.createAction(world), currentTicks + this.getRate());
-            } else
+            if (this.isDead())
             {
-                this.setImages(GameUtils.getSpriteImages(Game.getImage("images/characters/soldier/soldier_die.png"), 9));
+                this.stopBehavior();
+                this.setImages(Sprites.getFrames("images/characters/soldier/soldier_die.png", 9));
                 this.die(world);
             }
 
             return tup.getKey();
         };
-        this.removePendingAction(a);
         return a;
     }
 
     @Override
     public List<PImage> getAttackImages(Point other)
     {
-        List<PImage> leftimg = GameUtils.getSpriteImages(Game.getImage("images/characters/soldier/soldier_attack_left.png"), 5);
-        List<PImage> rightimg = GameUtils.getSpriteImages(Game.getImage("images/characters/soldier/soldier_attack_right.png"), 5);
+        List<PImage> leftimg = Sprites.getFrames("images/characters/soldier/soldier_attack_left.png", 5);
+        List<PImage> rightimg = Sprites.getFrames("images/characters/soldier/soldier_attack_right.png", 5);
         if(this.getPosition().getX() == other.getX())
         {
             if(this.getPosition().getY() == other.getY() - 1)
@@ -118,6 +120,6 @@ public class Soldier extends MovableActor
     @Override
     public List<PImage> getMoveImages()
     {
-        return GameUtils.getSpriteImages(Game.getImage("images/characters/soldier/soldier_move_left.png"), 6);
+        return Sprites.getFrames("images/characters/soldier/soldier_move_left.png", 6);
     }
 }
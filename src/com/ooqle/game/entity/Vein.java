@@ -10,7 +10,7 @@ import com.ooqle.game.util.Action;
 import org.json.simple.JSONObject;
 import processing.core.PImage;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class Vein extends Actor
@@ -35,46 +35,55 @@ public class Vein extends Actor
 
     public Point findOpenAround(World world)
     {
+        long open = this.findOpenCell(world);
+        return open == Point.NONE ? null : Point.unpack(open);
+    }
+
+    /**
+     * Same search as findOpenAround, without allocating
+     *
+     * @return The first open cell as a packed point, or Point.NONE
+     */
+    public long findOpenCell(World world)
+    {
+        int x = this.getPosition().getX();
+        int y = this.getPosition().getY();
         for (int dy = (-1 * this.getResourceDistance()); dy < (this.getResourceDistance() + 1); dy++)
         {
             for (int dx = (-1 * this.getResourceDistance()); dx < (this.getResourceDistance() + 1); dx++)
             {
-                Point newPt = new Point(this.getPosition().getX() + dx, this.getPosition().getY() + dy);
-
-                if (world.withinBounds(newPt) && !world.isOccupied(newPt))
+                if (world.withinBounds(x + dx, y + dy) && !world.isOccupied(x + dx, y + dy))
                 {
-                    return newPt;
+                    return Point.pack(x + dx, y + dy);
                 }
             }
         }
-        return null;
+        return Point.NONE;
     }
 
     public Action createAction(World world)
     {
         Action a = (long currentTicks) ->
         {
-            List<Point> tiles = new ArrayList<>();
-            Point openPt = this.findOpenAround(world);
-            if (openPt != null)
+            List<Point> tiles = Collections.emptyList();
+            long open = this.findOpenCell(world);
+            if (open != Point.NONE)
             {
+                Point openPt = Point.unpack(open);
                 Ore ore = ActionManager.createOre(world,
                         "ore - " + this.getName() + " - " + currentTicks,
                         openPt, currentTicks);
                 world.addWorldObject(ore);
-                tiles.add(openPt);
+                tiles = Collections.singletonList(openPt);
             }
-
-            this.scheduleAction(world, this.createAction(world), currentTicks + this.getRate());
             return tiles;
         };
-        this.removePendingAction(a);
         return a;
     }
 
     public void schedule(World world, long ticks)
     {
-        this.scheduleAction(world, this.createAction(world), ticks + this.getRate());
+        this.scheduleRepeating(world, this.createAction(world), ticks + this.getRate(), this.getRate());
     }
 
     public String entityString()
@@ -83,10 +92,11 @@ public class Vein extends Actor
         return super.entityString() + s + this.getRate() + s + this.getResourceDistance();
     }
 
+    @SuppressWarnings("unchecked")
     public JSONObject entityJSON()
     {
         JSONObject out = super.entityJSON();
-        out.put("resourcedistance", this.getResourceDistance());
+        out.put("resourceDistance", this.getResourceDistance());
         return out;
     }
 }
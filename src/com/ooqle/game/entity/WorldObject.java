@@ -3,9 +3,11 @@ package com.ooqle.game.entity;
 * @author Kenny Williams
 */
 
+import com.ooqle.game.ActorStore;
 import com.ooqle.game.Point;
 import com.ooqle.game.World;
 import com.ooqle.game.util.Action;
+import com.ooqle.game.util.ScheduledAction;
 import org.json.simple.JSONObject;
 import processing.core.PImage;
 
@@ -21,8 +23,10 @@ public class WorldObject
     private int rate;
     private int currentImg;
     private List<PImage> imgs;
-    private List<Action> pendingActions;
+    private List<ScheduledAction> pendingActions;
     private UUID uuid;
+    private ActorStore store;
+    private int slot;
 
     public WorldObject(String name, String type, Point position, List<PImage> imgs, int rate)
     {
@@ -48,6 +52,10 @@ public class WorldObject
     public void setPosition(Point position)
     {
         this.position = position;
+        if (store != null)
+        {
+            store.setPosition(slot, position.getX(), position.getY());
+        }
     }
 
     public String getType()
@@ -69,16 +77,66 @@ public class WorldObject
     {
         currentImg = 0;
         this.imgs = imgs;
+        if (store != null)
+        {
+            store.setFrame(slot, 0);
+            store.setFrameCount(slot, imgs == null ? 0 : imgs.size());
+        }
     }
 
     public PImage getImage()
     {
-        return this.getImages().get(this.currentImg);
+        return this.getImages().get(this.getImageIndex());
+    }
+
+    public int getImageIndex()
+    {
+        return store != null ? store.getFrame(slot) : currentImg;
     }
 
     public void nextImage()
     {
-        this.currentImg = (this.currentImg + 1) % this.getImages().size();
+        int next = (this.getImageIndex() + 1) % this.getImages().size();
+        if (store != null)
+        {
+            store.setFrame(slot, next);
+        }
+        else
+        {
+            this.currentImg = next;
+        }
+    }
+
+    /**
+     * Called by an ActorStore when the object is given the columns of a slot, or with null when it leaves them, at
+     * which point the columns are copied back into the object's fields
+     */
+    public void setStore(ActorStore store, int slot)
+    {
+        if (this.store != null && store == null)
+        {
+            this.copyFromStore(this.store, this.slot);
+        }
+        this.store = store;
+        this.slot = slot;
+    }
+
+    /**
+     * @return The store whose columns hold this object's state, or null while the fields do
+     */
+    public ActorStore getStore()
+    {
+        return store;
+    }
+
+    public int getSlot()
+    {
+        return slot;
+    }
+
+    protected void copyFromStore(ActorStore store, int slot)
+    {
+        this.currentImg = store.getFrame(slot);
     }
 
     public void removeEntity(World world)
@@ -87,31 +145,65 @@ public class WorldObject
         world.removeEntity(this);
     }
 
-    public void addPendingAction(Action action)
+    public void addPendingAction(ScheduledAction action)
     {
-        this.getPendingActions().add(action);
+        // Drop handles that already ran so the list only holds live actions. Compacted in place, since removeIf
+        // allocates whenever it finds something to remove, which is nearly every time an action reschedules itself
+        List<ScheduledAction> pending = this.getPendingActions();
+        int live = 0;
+        for (int i = 0; i < pending.size(); i++)
+        {
+            ScheduledAction pendingAction = pending.get(i);
+            if (!pendingAction.isDone())
+            {
+                pending.set(live++, pendingAction);
+            }
+        }
+        while (pending.size() > live)
+        {
+            pending.remove(pending.size() - 1);
+        }
+        pending.add(action);
     }
 
-    public void removePendingAction(Action action)
+    public void removePendingAction(ScheduledAction action)
     {
         this.getPendingActions().remove(action);
     }
 
-    public List<Action> getPendingActions()
+    public List<ScheduledAction> getPendingActions()
     {
         return this.pendingActions;
     }
 
     public void clearPendingActions(World world)
     {
+        if (store != null)
+        {
+            store.stopAnimation(slot);
+        }
         world.unscheduleActions(this.getPendingActions());
         this.getPendingActions().clear();
     }
 
-    public void scheduleAction(World world, Action action, long time)
+    public ScheduledAction scheduleAction(World world, Action action, long time)
+    {
+        ScheduledAction scheduled = world.scheduleAction(action, time);
+        scheduled.setOwner(this);
+        this.addPendingAction(scheduled);
+        return scheduled;
+    }
+
+    /**
+     * Same as scheduleAction, for an action that runs every period ticks from the given time until it is cancelled.
+     * The handle stays in the pending actions for as long as it repeats.
+     */
+    public ScheduledAction scheduleRepeating(World world, Action action, long time, long period)
     {
-        this.addPendingAction(action);
-        world.scheduleAction(action, time);
+        ScheduledAction scheduled = world.scheduleRepeating(action, time, period);
+        scheduled.setOwner(this);
+        this.addPendingAction(scheduled);
+        return scheduled;
     }
 
     public String entityString()
@@ -120,6 +212,7 @@ public class WorldObject
         return this.type + s + this.getName() + s + this.getPosition().toString();
     }
 
+    @SuppressWarnings("unchecked")
     public JSONObject entityJSON()
     {
         JSONObject out = new JSONObject();
@@ -0,0 +1,129 @@
+package com.ooqle.game.path;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.World;
+import com.ooqle.game.entity.WorldObject;
+
+/**
+ * A* over cell indices with a Manhattan heuristic. Expands every open 4-neighbor, tried north, east, south, west.
+ */
+public class AStarPathFinder extends GridPathFinder
+{
+    public AStarPathFinder()
+    {
+        this(false);
+    }
+
+    /**
+     * @param preferDeeper Break ties between equal f scores towards the cell furthest from the start instead of the
+     *                     one pushed first
+     */
+    public AStarPathFinder(boolean preferDeeper)
+    {
+        this.preferDeeper = preferDeeper;
+    }
+
+    public PathFinder copy()
+    {
+        return new AStarPathFinder(preferDeeper);
+    }
+
+    public boolean findPath(World world, int start, int goal, Class<? extends WorldObject> goalType)
+    {
+        return findPath(world, start, goal, goalType, 0, 0, world.getWidth() - 1, world.getHeight() - 1);
+    }
+
+    /**
+     * Searches without leaving the given rectangle of cells, bounds included
+     */
+    public boolean findPath(World world, int start, int goal, Class<? extends WorldObject> goalType, int minX, int minY, int maxX, int maxY)
+    {
+        prepare(world);
+
+        int goalX = goal % width;
+        int goalY = goal / width;
+
+        // Only the neighbors of closed cells are read, so their bounds grown by one cover every read
+        int closedMinX = Integer.MAX_VALUE;
+        int closedMinY = Integer.MAX_VALUE;
+        int closedMaxX = Integer.MIN_VALUE;
+        int closedMaxY = Integer.MIN_VALUE;
+
+        open(start, 0, -1, manhattan(start, goalX, goalY));
+
+        while (hasOpen())
+        {
+            int curr = pop();
+            if (isClosed(curr))
+            {
+                continue;
+            }
+
+            if (curr == goal)
+            {
+                for (int c = goal; c != -1; c = parent[c])
+                {
+                    appendPath(c);
+                }
+                reversePath();
+                readAround(closedMinX, closedMinY, closedMaxX, closedMaxY, minX, minY, maxX, maxY);
+                return true;
+            }
+
+            close(curr);
+
+            int x = curr % width;
+            int y = curr / width;
+            int g = gScore[curr] + 1;
+            closedMinX = Math.min(closedMinX, x);
+            closedMinY = Math.min(closedMinY, y);
+            closedMaxX = Math.max(closedMaxX, x);
+            closedMaxY = Math.max(closedMaxY, y);
+
+            if (y > minY)
+            {
+                relax(world, curr, curr - width, g, goal, goalX, goalY, goalType);
+            }
+            if (x < maxX)
+            {
+                relax(world, curr, curr + 1, g, goal, goalX, goalY, goalType);
+            }
+            if (y < maxY)
+            {
+                relax(world, curr, curr + width, g, goal, goalX, goalY, goalType);
+            }
+            if (x > minX)
+            {
+                relax(world, curr, curr - 1, g, goal, goalX, goalY, goalType);
+            }
+        }
+        readAround(closedMinX, closedMinY, closedMaxX, closedMaxY, minX, minY, maxX, maxY);
+        return false;
+    }
+
+    private void readAround(int closedMinX, int closedMinY, int closedMaxX, int closedMaxY,
+                            int minX, int minY, int maxX, int maxY)
+    {
+        if (closedMaxX >= closedMinX)
+        {
+            read(Math.max(closedMinX - 1, minX), Math.max(closedMinY - 1, minY),
+                    Math.min(closedMaxX + 1, maxX), Math.min(closedMaxY + 1, maxY));
+        }
+    }
+
+    private void relax(World world, int curr, int neighbor, int g, int goal, int goalX, int goalY, Class<? extends WorldObject> goalType)
+    {
+        if (isClosed(neighbor) || !canEnter(world, neighbor, goal, goalType))
+        {
+            return;
+        }
+        if (isSeen(neighbor) && g >= gScore[neighbor])
+        {
+            return;
+        }
+        // A better score re-pushes the cell; the stale copy is skipped once the cell is closed
+        open(neighbor, g, curr, g + manhattan(neighbor, goalX, goalY));
+    }
+}
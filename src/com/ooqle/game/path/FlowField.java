@@ -0,0 +1,179 @@
+package com.ooqle.game.path;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.World;
+import com.ooqle.game.entity.MovableActor;
+import com.ooqle.game.entity.WorldObject;
+
+import java.util.Arrays;
+
+/**
+ * Distance field to the nearest object of one goal type, built with a single breadth first search seeded from every
+ * object of that type. Any actor heading for that type gets its next step by moving to the neighbor closest to a
+ * goal, so one search serves every actor instead of one A* per actor.
+ * <p>
+ * Moving actors do not block the field since they will have moved by the time anyone gets there. They are instead
+ * avoided when a step is picked. The field is rebuilt at most once per game tick, and only if the grid changed.
+ */
+public class FlowField
+{
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private Class<? extends WorldObject> goalType;
+    private int width, height;
+    private int[] dist;
+    private int[] queue;
+    private long builtAtTime = -1;
+    private long builtAtMutation = -1;
+    private long builds;
+
+    public FlowField(Class<? extends WorldObject> goalType)
+    {
+        this.goalType = goalType;
+        this.dist = new int[0];
+        this.queue = new int[0];
+    }
+
+    public Class<? extends WorldObject> getGoalType()
+    {
+        return goalType;
+    }
+
+    /**
+     * Rebuilds the field if the grid has changed since it was last built, unless it was already built this tick
+     */
+    public void update(World world)
+    {
+        if (builtAtTime == world.getCurrentGameTime() || builtAtMutation == world.getGridMutations())
+        {
+            return;
+        }
+        build(world);
+    }
+
+    public void build(World world)
+    {
+        width = world.getWidth();
+        height = world.getHeight();
+        int cells = width * height;
+        if (dist.length < cells)
+        {
+            dist = new int[cells];
+            queue = new int[cells];
+        }
+        Arrays.fill(dist, 0, cells, UNREACHABLE);
+
+        int head = 0;
+        int tail = 0;
+        for (WorldObject goal : world.getObjectsOfType(goalType))
+        {
+            int cell = world.toCell(goal.getPosition());
+            if (dist[cell] != 0)
+            {
+                dist[cell] = 0;
+                queue[tail++] = cell;
+            }
+        }
+
+        while (head < tail)
+        {
+            int curr = queue[head++];
+            int x = curr % width;
+            int y = curr / width;
+            int d = dist[curr] + 1;
+
+            if (y > 0)
+            {
+                tail = visit(world, curr - width, d, tail);
+            }
+            if (x < width - 1)
+            {
+                tail = visit(world, curr + 1, d, tail);
+            }
+            if (y < height - 1)
+            {
+                tail = visit(world, curr + width, d, tail);
+            }
+            if (x > 0)
+            {
+                tail = visit(world, curr - 1, d, tail);
+            }
+        }
+
+        builtAtTime = world.getCurrentGameTime();
+        builtAtMutation = world.getGridMutations();
+        builds++;
+    }
+
+    private int visit(World world, int cell, int d, int tail)
+    {
+        if (dist[cell] != UNREACHABLE)
+        {
+            return tail;
+        }
+        WorldObject obj = world.getWorldObjectAt(cell % width, cell / width);
+        if (obj != null && !(obj instanceof MovableActor) && !goalType.isInstance(obj))
+        {
+            return tail;
+        }
+        dist[cell] = d;
+        queue[tail] = cell;
+        return tail + 1;
+    }
+
+    public int getDistance(int cell)
+    {
+        return dist[cell];
+    }
+
+    /**
+     * Picks the free neighbor of the given cell that is closest to a goal, trying north, east, south and west on
+     * ties.
+     *
+     * @return The cell to step to, or -1 if no free neighbor is closer to a goal than the given cell
+     */
+    public int nextStep(World world, int cell)
+    {
+        int x = cell % width;
+        int y = cell / width;
+        int best = -1;
+
+        if (y > 0)
+        {
+            best = closer(world, cell, cell - width, best);
+        }
+        if (x < width - 1)
+        {
+            best = closer(world, cell, cell + 1, best);
+        }
+        if (y < height - 1)
+        {
+            best = closer(world, cell, cell + width, best);
+        }
+        if (x > 0)
+        {
+            best = closer(world, cell, cell - 1, best);
+        }
+        return best;
+    }
+
+    private int closer(World world, int cell, int neighbor, int best)
+    {
+        int bestDist = best == -1 ? dist[cell] : dist[best];
+        if (dist[neighbor] < bestDist && world.isPassable(neighbor % width, neighbor / width, goalType))
+        {
+            return neighbor;
+        }
+        return best;
+    }
+
+    /**
+     * @return How many times the field has been built
+     */
+    public long getBuilds()
+    {
+        return builds;
+    }
+}
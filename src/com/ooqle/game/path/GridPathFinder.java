@@ -0,0 +1,313 @@
+package com.ooqle.game.path;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.World;
+import com.ooqle.game.entity.WorldObject;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+
+/**
+ * Shared storage for best-first searches over cell indices. Scores and parents live in int arrays sized to the
+ * world and the open set is a binary heap of primitive keys. The arrays are stamped with a search generation
+ * instead of being cleared, so nothing is allocated once they have grown to the size of the world.
+ * <p>
+ * The open set pops the lowest f score first and, among equal f scores, the cell that was pushed first. Subclasses
+ * can instead break ties towards the highest g score, which heads straight for the goal across open ground rather
+ * than widening out along every equally good path. Both give paths of the same length.
+ * <p>
+ * Each search also records a rectangle holding every cell it read, so a caller can tell whether a path found
+ * earlier would still be found now.
+ */
+public abstract class GridPathFinder implements PathFinder
+{
+    protected int width, height;
+    protected int generation;
+    protected boolean preferDeeper;
+
+    protected int[] gScore;
+    protected int[] parent;
+    protected int[] seen;
+    protected int[] closed;
+
+    private long[] heapKeys;
+    private int[] heapCells;
+    private int heapSize;
+    private int pushCount;
+
+    private int[] path;
+    private int pathLength;
+    private int[] visited;
+    private int visitedCount;
+
+    private int readMinX, readMinY, readMaxX, readMaxY;
+
+    public GridPathFinder()
+    {
+        this.heapKeys = new long[64];
+        this.heapCells = new int[64];
+        this.path = new int[64];
+        this.gScore = new int[0];
+        this.parent = new int[0];
+        this.seen = new int[0];
+        this.closed = new int[0];
+        this.visited = new int[0];
+    }
+
+    public int getPathLength()
+    {
+        return pathLength;
+    }
+
+    public int getPathCell(int index)
+    {
+        return path[index];
+    }
+
+    public int getVisitedCount()
+    {
+        return visitedCount;
+    }
+
+    public int getVisitedCell(int index)
+    {
+        return visited[index];
+    }
+
+    public Rectangle getReadBounds()
+    {
+        if (readMaxX < readMinX)
+        {
+            return new Rectangle();
+        }
+        return new Rectangle(readMinX, readMinY, readMaxX - readMinX + 1, readMaxY - readMinY + 1);
+    }
+
+    /**
+     * Sizes the buffers for the world and starts a new search generation
+     */
+    protected void prepare(World world)
+    {
+        int cells = world.getWidth() * world.getHeight();
+        if (gScore.length < cells)
+        {
+            gScore = new int[cells];
+            parent = new int[cells];
+            seen = new int[cells];
+            closed = new int[cells];
+            visited = new int[cells];
+            resized(cells);
+            generation = 0;
+        }
+        width = world.getWidth();
+        height = world.getHeight();
+
+        generation++;
+        if (generation == Integer.MAX_VALUE)
+        {
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+
+        pathLength = 0;
+        visitedCount = 0;
+        heapSize = 0;
+        pushCount = 0;
+        clearReads();
+    }
+
+    protected void clearReads()
+    {
+        readMinX = readMinY = Integer.MAX_VALUE;
+        readMaxX = readMaxY = Integer.MIN_VALUE;
+    }
+
+    /**
+     * Adds a rectangle of cells, bounds included, to the cells the current search has read. Parts outside the
+     * world are dropped.
+     */
+    protected void read(int minX, int minY, int maxX, int maxY)
+    {
+        readMinX = Math.min(readMinX, Math.max(minX, 0));
+        readMinY = Math.min(readMinY, Math.max(minY, 0));
+        readMaxX = Math.max(readMaxX, Math.min(maxX, width - 1));
+        readMaxY = Math.max(readMaxY, Math.min(maxY, height - 1));
+    }
+
+    /**
+     * Adds the cells read by the last search of another finder, for searches that hand legs off to one
+     */
+    protected void read(GridPathFinder other)
+    {
+        if (other.readMaxX >= other.readMinX)
+        {
+            read(other.readMinX, other.readMinY, other.readMaxX, other.readMaxY);
+        }
+    }
+
+    /**
+     * Grows the search buffers to hold at least the given number of ids, for searches over something other than
+     * the cells of the world
+     */
+    protected void reserve(int size)
+    {
+        if (gScore.length < size)
+        {
+            gScore = Arrays.copyOf(gScore, size);
+            parent = Arrays.copyOf(parent, size);
+            seen = Arrays.copyOf(seen, size);
+            closed = Arrays.copyOf(closed, size);
+            visited = Arrays.copyOf(visited, size);
+        }
+    }
+
+    /**
+     * Called when the per-cell buffers grow, for subclasses that keep buffers of their own
+     */
+    protected void resized(int cells)
+    {
+    }
+
+    protected boolean isClosed(int cell)
+    {
+        return closed[cell] == generation;
+    }
+
+    protected void close(int cell)
+    {
+        closed[cell] = generation;
+        visited[visitedCount++] = cell;
+    }
+
+    protected boolean isSeen(int cell)
+    {
+        return seen[cell] == generation;
+    }
+
+    protected void open(int cell, int g, int from, int f)
+    {
+        seen[cell] = generation;
+        gScore[cell] = g;
+        parent[cell] = from;
+        if (preferDeeper)
+        {
+            pushKey(cell, ((long) f << 32) | (Integer.MAX_VALUE - g));
+        }
+        else
+        {
+            push(cell, f);
+        }
+    }
+
+    protected int manhattan(int cell, int goalX, int goalY)
+    {
+        return Math.abs(cell % width - goalX) + Math.abs(cell / width - goalY);
+    }
+
+    /**
+     * Whether a searching actor may enter the given cell
+     */
+    protected boolean canEnter(World world, int cell, int goal, Class<? extends WorldObject> goalType)
+    {
+        return cell == goal || world.isPassable(cell % width, cell / width, goalType);
+    }
+
+    protected void appendPath(int cell)
+    {
+        if (pathLength == path.length)
+        {
+            path = Arrays.copyOf(path, path.length * 2);
+        }
+        path[pathLength++] = cell;
+    }
+
+    protected void clearPath()
+    {
+        pathLength = 0;
+    }
+
+    protected void reversePath()
+    {
+        for (int i = 0, j = pathLength - 1; i < j; i++, j--)
+        {
+            int tmp = path[i];
+            path[i] = path[j];
+            path[j] = tmp;
+        }
+    }
+
+    /*
+    Binary heap keyed on (f score, push order)
+     */
+
+    protected boolean hasOpen()
+    {
+        return heapSize > 0;
+    }
+
+    protected void push(int cell, int f)
+    {
+        pushKey(cell, ((long) f << 32) | (pushCount++ & 0xffffffffL));
+    }
+
+    private void pushKey(int cell, long key)
+    {
+        if (heapSize == heapKeys.length)
+        {
+            heapKeys = Arrays.copyOf(heapKeys, heapKeys.length * 2);
+            heapCells = Arrays.copyOf(heapCells, heapCells.length * 2);
+        }
+
+        int i = heapSize++;
+        while (i > 0)
+        {
+            int up = (i - 1) >>> 1;
+            if (heapKeys[up] <= key)
+            {
+                break;
+            }
+            heapKeys[i] = heapKeys[up];
+            heapCells[i] = heapCells[up];
+            i = up;
+        }
+        heapKeys[i] = key;
+        heapCells[i] = cell;
+    }
+
+    protected int pop()
+    {
+        int top = heapCells[0];
+        heapSize--;
+        if (heapSize > 0)
+        {
+            long key = heapKeys[heapSize];
+            int cell = heapCells[heapSize];
+            int i = 0;
+            while (true)
+            {
+                int child = 2 * i + 1;
+                if (child >= heapSize)
+                {
+                    break;
+                }
+                if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child])
+                {
+                    child++;
+                }
+                if (key <= heapKeys[child])
+                {
+                    break;
+                }
+                heapKeys[i] = heapKeys[child];
+                heapCells[i] = heapCells[child];
+                i = child;
+            }
+            heapKeys[i] = key;
+            heapCells[i] = cell;
+        }
+        return top;
+    }
+}
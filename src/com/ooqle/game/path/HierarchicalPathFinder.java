@@ -0,0 +1,916 @@
+package com.ooqle.game.path;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.GridListener;
+import com.ooqle.game.World;
+import com.ooqle.game.entity.MovableActor;
+import com.ooqle.game.entity.WorldObject;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical A* (HPA*) for worlds much larger than the screen. The grid is cut into square clusters. Where two
+ * clusters share a run of open border cells, one or two transitions are placed across it, and the cells on either
+ * side become nodes of an abstract graph. Nodes in the same cluster are linked by their distance inside that
+ * cluster, so a long query searches a few hundred nodes instead of most of the map. The abstract path is then
+ * refined one cluster at a time with a bounded A*.
+ * <p>
+ * Only objects that stay put are part of the abstract graph, like FlowField. The finder listens to the world's
+ * grid and when a cell changes between blocked and open, the clusters around it are rebuilt before the next
+ * query. Moving actors are only seen by the refinement, and a refinement they block falls back to a flat A* over
+ * the whole world. Objects of the goal type other than the goal itself count as walls in the abstract graph.
+ * <p>
+ * Paths are close to the shortest but not always the shortest, since they pass through transition cells. Visited
+ * cells are the abstract nodes that were expanded.
+ * <p>
+ * The abstract search numbers nodes densely and keeps their coordinates, so its arrays stay small and in cache on
+ * large worlds. Ties are broken towards the node furthest from the start, which stops it from fanning out across
+ * open ground.
+ */
+public class HierarchicalPathFinder extends GridPathFinder implements GridListener
+{
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+
+    // Open runs of border at least this long get a transition at each end instead of one in the middle
+    private static final int WIDE_ENTRANCE = 6;
+
+    private final int clusterSize;
+    private final AStarPathFinder local;
+
+    private World graphWorld;
+    private boolean rebuild;
+    private int clustersX, clustersY;
+    private boolean[] blocked;
+    private int[] nodeAt;
+
+    private int nodeCount;
+    private int[] nodeCell;
+    private int[] nodeX;
+    private int[] nodeY;
+    private int[] nodeRefs;
+    private int[][] edgeTo;
+    private int[][] edgeCost;
+    private int[] edgeCount;
+    private int[] freeNodes;
+    private int freeCount;
+
+    // Transition pairs per border, the cell in the lower numbered cluster first. Border 2 * c runs along the east
+    // side of cluster c and border 2 * c + 1 along its south side
+    private int[][] borderPairs;
+    private int[] borderLength;
+
+    private boolean[] dirty;
+    private int[] dirtyClusters;
+    private int dirtyCount;
+    private int[] borderStamp;
+    private int[] clusterStamp;
+    private int repairs;
+
+    private int[] clusterNodes;
+    private int clusterNodeCount;
+    private int[] nodeMark;
+    private int marks;
+    private int[] bfsDist;
+    private int[] bfsQueue;
+
+    private int[] startNodes, startCosts;
+    private int startCount;
+    private int[] goalStamp;
+    private int[] goalCost;
+    private int queries;
+    private int queryStart;
+    private int queryGoal;
+    private int startId;
+    private int goalId;
+    private int startGoalCost;
+    private int[] waypoints;
+
+    public HierarchicalPathFinder()
+    {
+        this(DEFAULT_CLUSTER_SIZE);
+    }
+
+    public HierarchicalPathFinder(int clusterSize)
+    {
+        if (clusterSize < 2)
+        {
+            throw new IllegalArgumentException("Cluster size must be at least 2, got " + clusterSize);
+        }
+        this.clusterSize = clusterSize;
+        this.preferDeeper = true;
+        this.local = new AStarPathFinder(true);
+        this.bfsDist = new int[clusterSize * clusterSize];
+        this.bfsQueue = new int[clusterSize * clusterSize];
+        this.clusterNodes = new int[16];
+        this.startNodes = new int[16];
+        this.startCosts = new int[16];
+        this.waypoints = new int[64];
+    }
+
+    public int getClusterSize()
+    {
+        return clusterSize;
+    }
+
+    /**
+     * @return The number of nodes in the abstract graph, building it first if needed
+     */
+    public int getNodeCount(World world)
+    {
+        prepare(world);
+        update(world);
+        return nodeCount - freeCount;
+    }
+
+    public PathFinder copy()
+    {
+        return new HierarchicalPathFinder(clusterSize);
+    }
+
+    public boolean findPath(World world, int start, int goal, Class<? extends WorldObject> goalType)
+    {
+        prepare(world);
+        update(world);
+
+        int startCluster = clusterOf(start);
+        int goalCluster = clusterOf(goal);
+        if (startCluster == goalCluster)
+        {
+            boolean found = searchClusters(world, start, goal, goalType, startCluster, goalCluster);
+            read(local);
+            if (found)
+            {
+                copyPath(local);
+                return true;
+            }
+        }
+
+        queryStart = start;
+        queryGoal = goal;
+        startId = nodeCount;
+        goalId = nodeCount + 1;
+        reserve(nodeCount + 2);
+        linkStart(start, startCluster);
+        linkGoal(goal, goalCluster);
+        boolean found = searchAbstract();
+        readExpanded();
+        if (!found)
+        {
+            return false;
+        }
+        if (refine(world, start, goal, goalType))
+        {
+            return true;
+        }
+
+        // A moving actor is standing in the refined path
+        clearPath();
+        found = local.findPath(world, start, goal, goalType);
+        read(local);
+        if (!found)
+        {
+            return false;
+        }
+        copyPath(local);
+        return true;
+    }
+
+    public void cellChanged(World world, int x, int y)
+    {
+        if (world != graphWorld || rebuild)
+        {
+            return;
+        }
+        int cell = y * width + x;
+        boolean nowBlocked = isStatic(world.getWorldObjectAt(x, y));
+        if (blocked[cell] != nowBlocked)
+        {
+            blocked[cell] = nowBlocked;
+            int cluster = clusterOf(cell);
+            if (!dirty[cluster])
+            {
+                dirty[cluster] = true;
+                dirtyClusters[dirtyCount++] = cluster;
+            }
+        }
+    }
+
+    public void gridReplaced(World world)
+    {
+        if (world == graphWorld)
+        {
+            rebuild = true;
+        }
+    }
+
+    private static boolean isStatic(WorldObject obj)
+    {
+        return obj != null && !(obj instanceof MovableActor);
+    }
+
+    /*
+    Abstract graph upkeep
+     */
+
+    private void update(World world)
+    {
+        if (world != graphWorld || rebuild)
+        {
+            build(world);
+        }
+        else if (dirtyCount > 0)
+        {
+            repair();
+        }
+    }
+
+    private void build(World world)
+    {
+        if (graphWorld != world)
+        {
+            if (graphWorld != null)
+            {
+                graphWorld.removeGridListener(this);
+            }
+            world.addGridListener(this);
+            graphWorld = world;
+        }
+        rebuild = false;
+
+        clustersX = (width + clusterSize - 1) / clusterSize;
+        clustersY = (height + clusterSize - 1) / clusterSize;
+        int cells = width * height;
+        int clusters = clustersX * clustersY;
+
+        blocked = new boolean[cells];
+        nodeAt = new int[cells];
+        Arrays.fill(nodeAt, -1);
+        for (int cell = 0; cell < cells; cell++)
+        {
+            blocked[cell] = isStatic(world.getWorldObjectAt(cell % width, cell / width));
+        }
+
+        nodeCount = 0;
+        freeCount = 0;
+        nodeCell = new int[64];
+        nodeX = new int[64];
+        nodeY = new int[64];
+        nodeRefs = new int[64];
+        edgeTo = new int[64][];
+        edgeCost = new int[64][];
+        edgeCount = new int[64];
+        nodeMark = new int[64];
+        goalStamp = new int[64];
+        goalCost = new int[64];
+        freeNodes = new int[64];
+
+        borderPairs = new int[2 * clusters][];
+        borderLength = new int[2 * clusters];
+        borderStamp = new int[2 * clusters];
+        clusterStamp = new int[clusters];
+        dirty = new boolean[clusters];
+        dirtyClusters = new int[clusters];
+        dirtyCount = 0;
+
+        for (int border = 0; border < 2 * clusters; border++)
+        {
+            placeTransitions(border);
+        }
+        for (int cluster = 0; cluster < clusters; cluster++)
+        {
+            connect(cluster);
+        }
+    }
+
+    /**
+     * Rebuilds the borders of every changed cluster, then the edges of every cluster that touches one of those
+     * borders
+     */
+    private void repair()
+    {
+        repairs++;
+        for (int i = 0; i < dirtyCount; i++)
+        {
+            int cluster = dirtyClusters[i];
+            int cx = cluster % clustersX;
+            int cy = cluster / clustersX;
+            replaceBorder(2 * cluster);
+            replaceBorder(2 * cluster + 1);
+            if (cx > 0)
+            {
+                replaceBorder(2 * (cluster - 1));
+            }
+            if (cy > 0)
+            {
+                replaceBorder(2 * (cluster - clustersX) + 1);
+            }
+        }
+
+        for (int i = 0; i < dirtyCount; i++)
+        {
+            int cluster = dirtyClusters[i];
+            dirty[cluster] = false;
+            int cx = cluster % clustersX;
+            int cy = cluster / clustersX;
+            reconnect(cluster);
+            if (cx > 0)
+            {
+                reconnect(cluster - 1);
+            }
+            if (cx < clustersX - 1)
+            {
+                reconnect(cluster + 1);
+            }
+            if (cy > 0)
+            {
+                reconnect(cluster - clustersX);
+            }
+            if (cy < clustersY - 1)
+            {
+                reconnect(cluster + clustersX);
+            }
+        }
+        dirtyCount = 0;
+    }
+
+    private void replaceBorder(int border)
+    {
+        if (borderStamp[border] == repairs)
+        {
+            return;
+        }
+        borderStamp[border] = repairs;
+
+        for (int i = 0; i < borderLength[border]; i++)
+        {
+            releaseNode(borderPairs[border][i]);
+        }
+        borderLength[border] = 0;
+        placeTransitions(border);
+    }
+
+    private void reconnect(int cluster)
+    {
+        if (clusterStamp[cluster] != repairs)
+        {
+            clusterStamp[cluster] = repairs;
+            connect(cluster);
+        }
+    }
+
+    private void placeTransitions(int border)
+    {
+        int cluster = border / 2;
+        boolean east = border % 2 == 0;
+        if (east ? cluster % clustersX == clustersX - 1 : cluster / clustersX == clustersY - 1)
+        {
+            return;
+        }
+
+        int line = east ? maxX(cluster) : maxY(cluster);
+        int from = east ? minY(cluster) : minX(cluster);
+        int to = east ? maxY(cluster) : maxX(cluster);
+        int step = east ? 1 : width;
+
+        int runStart = -1;
+        for (int i = from; i <= to + 1; i++)
+        {
+            int cell = east ? i * width + line : line * width + i;
+            boolean open = i <= to && !blocked[cell] && !blocked[cell + step];
+            if (open && runStart == -1)
+            {
+                runStart = i;
+            }
+            else if (!open && runStart != -1)
+            {
+                int runEnd = i - 1;
+                if (runEnd - runStart + 1 >= WIDE_ENTRANCE)
+                {
+                    addTransition(border, east ? runStart * width + line : line * width + runStart, step);
+                    addTransition(border, east ? runEnd * width + line : line * width + runEnd, step);
+                }
+                else
+                {
+                    int middle = (runStart + runEnd) / 2;
+                    addTransition(border, east ? middle * width + line : line * width + middle, step);
+                }
+                runStart = -1;
+            }
+        }
+    }
+
+    private void addTransition(int border, int cell, int step)
+    {
+        int[] pairs = borderPairs[border];
+        if (pairs == null)
+        {
+            pairs = borderPairs[border] = new int[4];
+        }
+        else if (borderLength[border] + 2 > pairs.length)
+        {
+            pairs = borderPairs[border] = Arrays.copyOf(pairs, pairs.length * 2);
+        }
+        pairs[borderLength[border]++] = acquireNode(cell);
+        pairs[borderLength[border]++] = acquireNode(cell + step);
+    }
+
+    private int acquireNode(int cell)
+    {
+        int node = nodeAt[cell];
+        if (node == -1)
+        {
+            if (freeCount > 0)
+            {
+                node = freeNodes[--freeCount];
+            }
+            else
+            {
+                if (nodeCount == nodeCell.length)
+                {
+                    growNodes();
+                }
+                node = nodeCount++;
+            }
+            nodeAt[cell] = node;
+            nodeCell[node] = cell;
+            nodeX[node] = cell % width;
+            nodeY[node] = cell / width;
+            nodeRefs[node] = 0;
+            edgeCount[node] = 0;
+        }
+        nodeRefs[node]++;
+        return node;
+    }
+
+    private void releaseNode(int node)
+    {
+        if (--nodeRefs[node] == 0)
+        {
+            nodeAt[nodeCell[node]] = -1;
+            edgeCount[node] = 0;
+            freeNodes[freeCount++] = node;
+        }
+    }
+
+    private void growNodes()
+    {
+        int size = nodeCell.length * 2;
+        nodeCell = Arrays.copyOf(nodeCell, size);
+        nodeX = Arrays.copyOf(nodeX, size);
+        nodeY = Arrays.copyOf(nodeY, size);
+        nodeRefs = Arrays.copyOf(nodeRefs, size);
+        edgeTo = Arrays.copyOf(edgeTo, size);
+        edgeCost = Arrays.copyOf(edgeCost, size);
+        edgeCount = Arrays.copyOf(edgeCount, size);
+        nodeMark = Arrays.copyOf(nodeMark, size);
+        goalStamp = Arrays.copyOf(goalStamp, size);
+        goalCost = Arrays.copyOf(goalCost, size);
+        freeNodes = Arrays.copyOf(freeNodes, size);
+    }
+
+    /**
+     * Recomputes every edge leaving the nodes of a cluster: one step across each of its borders, and the distance
+     * inside the cluster to each other node of it
+     */
+    private void connect(int cluster)
+    {
+        gatherNodes(cluster);
+        for (int i = 0; i < clusterNodeCount; i++)
+        {
+            edgeCount[clusterNodes[i]] = 0;
+        }
+
+        connectAcross(2 * cluster, 0);
+        connectAcross(2 * cluster + 1, 0);
+        if (cluster % clustersX > 0)
+        {
+            connectAcross(2 * (cluster - 1), 1);
+        }
+        if (cluster / clustersX > 0)
+        {
+            connectAcross(2 * (cluster - clustersX) + 1, 1);
+        }
+
+        for (int i = 0; i < clusterNodeCount; i++)
+        {
+            int from = clusterNodes[i];
+            floodCluster(cluster, nodeCell[from]);
+            for (int j = 0; j < clusterNodeCount; j++)
+            {
+                int dist = clusterDistance(cluster, nodeCell[clusterNodes[j]]);
+                if (j != i && dist != -1)
+                {
+                    addEdge(from, clusterNodes[j], dist);
+                }
+            }
+        }
+    }
+
+    private void connectAcross(int border, int side)
+    {
+        for (int i = 0; i < borderLength[border]; i += 2)
+        {
+            addEdge(borderPairs[border][i + side], borderPairs[border][i + 1 - side], 1);
+        }
+    }
+
+    private void addEdge(int from, int to, int cost)
+    {
+        if (edgeTo[from] == null)
+        {
+            edgeTo[from] = new int[8];
+            edgeCost[from] = new int[8];
+        }
+        else if (edgeCount[from] == edgeTo[from].length)
+        {
+            edgeTo[from] = Arrays.copyOf(edgeTo[from], edgeCount[from] * 2);
+            edgeCost[from] = Arrays.copyOf(edgeCost[from], edgeCount[from] * 2);
+        }
+        edgeTo[from][edgeCount[from]] = to;
+        edgeCost[from][edgeCount[from]] = cost;
+        edgeCount[from]++;
+    }
+
+    /**
+     * Collects the nodes that lie inside a cluster into clusterNodes, each once
+     */
+    private void gatherNodes(int cluster)
+    {
+        marks++;
+        clusterNodeCount = 0;
+        gatherSide(2 * cluster, 0);
+        gatherSide(2 * cluster + 1, 0);
+        if (cluster % clustersX > 0)
+        {
+            gatherSide(2 * (cluster - 1), 1);
+        }
+        if (cluster / clustersX > 0)
+        {
+            gatherSide(2 * (cluster - clustersX) + 1, 1);
+        }
+    }
+
+    private void gatherSide(int border, int side)
+    {
+        for (int i = side; i < borderLength[border]; i += 2)
+        {
+            int node = borderPairs[border][i];
+            if (nodeMark[node] != marks)
+            {
+                nodeMark[node] = marks;
+                if (clusterNodeCount == clusterNodes.length)
+                {
+                    clusterNodes = Arrays.copyOf(clusterNodes, clusterNodeCount * 2);
+                }
+                clusterNodes[clusterNodeCount++] = node;
+            }
+        }
+    }
+
+    /**
+     * Breadth first search from a cell over the open cells of its cluster. The source itself is always entered.
+     */
+    private void floodCluster(int cluster, int source)
+    {
+        int minX = minX(cluster);
+        int minY = minY(cluster);
+        int maxX = maxX(cluster);
+        int maxY = maxY(cluster);
+        int clusterWidth = maxX - minX + 1;
+        Arrays.fill(bfsDist, 0, clusterWidth * (maxY - minY + 1), -1);
+
+        int head = 0;
+        int tail = 0;
+        bfsDist[(source / width - minY) * clusterWidth + source % width - minX] = 0;
+        bfsQueue[tail++] = source;
+        while (head < tail)
+        {
+            int curr = bfsQueue[head++];
+            int x = curr % width;
+            int y = curr / width;
+            int d = bfsDist[(y - minY) * clusterWidth + x - minX] + 1;
+            if (y > minY)
+            {
+                tail = flood(curr - width, x, y - 1, d, minX, minY, clusterWidth, tail);
+            }
+            if (x < maxX)
+            {
+                tail = flood(curr + 1, x + 1, y, d, minX, minY, clusterWidth, tail);
+            }
+            if (y < maxY)
+            {
+                tail = flood(curr + width, x, y + 1, d, minX, minY, clusterWidth, tail);
+            }
+            if (x > minX)
+            {
+                tail = flood(curr - 1, x - 1, y, d, minX, minY, clusterWidth, tail);
+            }
+        }
+    }
+
+    private int flood(int cell, int x, int y, int d, int minX, int minY, int clusterWidth, int tail)
+    {
+        int local = (y - minY) * clusterWidth + x - minX;
+        if (bfsDist[local] != -1 || blocked[cell])
+        {
+            return tail;
+        }
+        bfsDist[local] = d;
+        bfsQueue[tail] = cell;
+        return tail + 1;
+    }
+
+    /**
+     * @return The distance to a cell of the cluster from the source of the last flood, or -1 if it was not reached
+     */
+    private int clusterDistance(int cluster, int cell)
+    {
+        int clusterWidth = maxX(cluster) - minX(cluster) + 1;
+        return bfsDist[(cell / width - minY(cluster)) * clusterWidth + cell % width - minX(cluster)];
+    }
+
+    /**
+     * Marks a cluster as read. Its nodes depend on the cells across its borders too, so those are included.
+     */
+    private void readCluster(int cluster)
+    {
+        read(minX(cluster) - 1, minY(cluster) - 1, maxX(cluster) + 1, maxY(cluster) + 1);
+    }
+
+    private int clusterOf(int cell)
+    {
+        return (cell / width / clusterSize) * clustersX + (cell % width) / clusterSize;
+    }
+
+    private int minX(int cluster)
+    {
+        return (cluster % clustersX) * clusterSize;
+    }
+
+    private int minY(int cluster)
+    {
+        return (cluster / clustersX) * clusterSize;
+    }
+
+    private int maxX(int cluster)
+    {
+        return Math.min(minX(cluster) + clusterSize, width) - 1;
+    }
+
+    private int maxY(int cluster)
+    {
+        return Math.min(minY(cluster) + clusterSize, height) - 1;
+    }
+
+    /*
+    Queries
+     */
+
+    private void linkStart(int start, int cluster)
+    {
+        readCluster(cluster);
+        gatherNodes(cluster);
+        floodCluster(cluster, start);
+        startCount = 0;
+        if (startNodes.length < clusterNodeCount)
+        {
+            startNodes = new int[clusterNodeCount];
+            startCosts = new int[clusterNodeCount];
+        }
+        for (int i = 0; i < clusterNodeCount; i++)
+        {
+            int dist = clusterDistance(cluster, nodeCell[clusterNodes[i]]);
+            if (dist != -1)
+            {
+                startNodes[startCount] = clusterNodes[i];
+                startCosts[startCount++] = dist;
+            }
+        }
+    }
+
+    /**
+     * Works out the cost from each node that can reach the goal. A goal that is itself a wall, like an Ore, has no
+     * transitions across its border, so it is also linked to the nodes around each open neighbor in another cluster.
+     */
+    private void linkGoal(int goal, int cluster)
+    {
+        queries++;
+        startGoalCost = -1;
+        linkGoalFrom(goal, cluster, 0);
+        if (!blocked[goal])
+        {
+            return;
+        }
+
+        int x = goal % width;
+        int y = goal / width;
+        if (y > 0)
+        {
+            linkGoalNeighbor(goal - width, cluster);
+        }
+        if (x < width - 1)
+        {
+            linkGoalNeighbor(goal + 1, cluster);
+        }
+        if (y < height - 1)
+        {
+            linkGoalNeighbor(goal + width, cluster);
+        }
+        if (x > 0)
+        {
+            linkGoalNeighbor(goal - 1, cluster);
+        }
+    }
+
+    private void linkGoalNeighbor(int cell, int goalCluster)
+    {
+        if (!blocked[cell] && clusterOf(cell) != goalCluster)
+        {
+            linkGoalFrom(cell, clusterOf(cell), 1);
+        }
+    }
+
+    private void linkGoalFrom(int source, int cluster, int extra)
+    {
+        readCluster(cluster);
+        gatherNodes(cluster);
+        floodCluster(cluster, source);
+        for (int i = 0; i < clusterNodeCount; i++)
+        {
+            int node = clusterNodes[i];
+            int dist = clusterDistance(cluster, nodeCell[node]);
+            if (dist != -1 && (goalStamp[node] != queries || dist + extra < goalCost[node]))
+            {
+                goalStamp[node] = queries;
+                goalCost[node] = dist + extra;
+            }
+        }
+
+        // The start need not be a node, but it may be right next to the goal
+        if (clusterOf(queryStart) == cluster)
+        {
+            int dist = clusterDistance(cluster, queryStart);
+            if (dist != -1 && (startGoalCost == -1 || dist + extra < startGoalCost))
+            {
+                startGoalCost = dist + extra;
+            }
+        }
+    }
+
+    /**
+     * A* over the abstract graph. The start and goal get the two ids after the last node and are linked in for this
+     * query only.
+     */
+    private boolean searchAbstract()
+    {
+        int goalX = queryGoal % width;
+        int goalY = queryGoal / width;
+        open(startId, 0, -1, Math.abs(queryStart % width - goalX) + Math.abs(queryStart / width - goalY));
+
+        while (hasOpen())
+        {
+            int curr = pop();
+            if (isClosed(curr))
+            {
+                continue;
+            }
+            if (curr == goalId)
+            {
+                return true;
+            }
+            close(curr);
+
+            if (curr == startId)
+            {
+                for (int i = 0; i < startCount; i++)
+                {
+                    relax(curr, startNodes[i], startCosts[i], goalX, goalY);
+                }
+                if (startGoalCost != -1)
+                {
+                    relax(curr, goalId, startGoalCost, goalX, goalY);
+                }
+                continue;
+            }
+
+            for (int i = 0; i < edgeCount[curr]; i++)
+            {
+                relax(curr, edgeTo[curr][i], edgeCost[curr][i], goalX, goalY);
+            }
+            if (goalStamp[curr] == queries)
+            {
+                relax(curr, goalId, goalCost[curr], goalX, goalY);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Marks the cluster of every node the abstract search expanded as read, since their edges decided the path
+     */
+    private void readExpanded()
+    {
+        for (int i = 0; i < getVisitedCount(); i++)
+        {
+            int id = super.getVisitedCell(i);
+            if (id < startId)
+            {
+                readCluster(clusterOf(nodeCell[id]));
+            }
+        }
+    }
+
+    private void relax(int curr, int next, int cost, int goalX, int goalY)
+    {
+        if (isClosed(next))
+        {
+            return;
+        }
+        int g = gScore[curr] + cost;
+        if (isSeen(next) && g >= gScore[next])
+        {
+            return;
+        }
+        int h = next == goalId ? 0 : Math.abs(nodeX[next] - goalX) + Math.abs(nodeY[next] - goalY);
+        open(next, g, curr, g + h);
+    }
+
+    private int cellOf(int id)
+    {
+        if (id == startId)
+        {
+            return queryStart;
+        }
+        return id == goalId ? queryGoal : nodeCell[id];
+    }
+
+    public int getVisitedCell(int index)
+    {
+        return cellOf(super.getVisitedCell(index));
+    }
+
+    /**
+     * Turns the abstract path into cells, searching only inside the clusters at either end of each leg
+     *
+     * @return False if a moving actor blocks one of the legs
+     */
+    private boolean refine(World world, int start, int goal, Class<? extends WorldObject> goalType)
+    {
+        int count = 0;
+        for (int id = goalId; id != -1; id = parent[id])
+        {
+            if (count == waypoints.length)
+            {
+                waypoints = Arrays.copyOf(waypoints, count * 2);
+            }
+            waypoints[count++] = cellOf(id);
+        }
+
+        appendPath(start);
+        for (int i = count - 1; i > 0; i--)
+        {
+            int from = waypoints[i];
+            int to = waypoints[i - 1];
+            if (to != goal && !world.isPassable(to % width, to / width, goalType))
+            {
+                return false;
+            }
+
+            if (Math.abs(from % width - to % width) + Math.abs(from / width - to / width) == 1)
+            {
+                appendPath(to);
+            }
+            else if (searchClusters(world, from, to, goalType, clusterOf(from), clusterOf(to)))
+            {
+                read(local);
+                for (int j = 1; j < local.getPathLength(); j++)
+                {
+                    appendPath(local.getPathCell(j));
+                }
+            }
+            else
+            {
+                read(local);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean searchClusters(World world, int from, int to, Class<? extends WorldObject> goalType, int fromCluster, int toCluster)
+    {
+        return local.findPath(world, from, to, goalType,
+                Math.min(minX(fromCluster), minX(toCluster)), Math.min(minY(fromCluster), minY(toCluster)),
+                Math.max(maxX(fromCluster), maxX(toCluster)), Math.max(maxY(fromCluster), maxY(toCluster)));
+    }
+
+    private void copyPath(PathFinder finder)
+    {
+        for (int i = 0; i < finder.getPathLength(); i++)
+        {
+            appendPath(finder.getPathCell(i));
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package com.ooqle.game.path;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.GridListener;
+import com.ooqle.game.World;
+import com.ooqle.game.entity.WorldObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Jump Point Search for 4-connected grids where every step costs the same. Instead of pushing every open neighbor
+ * it jumps in straight lines and only puts cells where the path may have to turn on the open set, which skips
+ * most of the work plain A* does in open areas.
+ * <p>
+ * Paths are ordered horizontal first: moving horizontally may turn vertically anywhere, so a horizontal jump
+ * stops wherever a vertical jump from it finds something. Moving vertically may only turn where the cell beside
+ * it is open but the one diagonally behind is blocked, since otherwise the turn could have been made earlier.
+ * Every shortest path has an equally short path of that shape, so the paths found are as short as A*'s.
+ * <p>
+ * Jumps read the grid far more often than A* does, so which cells are blocked is copied into a flat array, one per
+ * goal type searched for. The result of every vertical jump is worked out at the same time, since horizontal jumps
+ * try one from every cell they pass. Only columns next to the goal, which is always enterable, are still scanned. A
+ * jump that runs into a wall keeps which cell stopped it, so the cells a search read are known without scanning.
+ * <p>
+ * The tables are built the first time a goal type is searched for and then kept up to date like
+ * HierarchicalPathFinder's graph: the finder listens to the world's grid, and when a cell changes between blocked and
+ * open only the jumps of its own column and the two beside it are redone, from that row until they come out as they
+ * were. An actor taking a step costs a few cells of work, not a copy of the map.
+ * <p>
+ * Visited cells are the jump points that were expanded, not every cell that was scanned.
+ */
+public class JumpPointPathFinder extends GridPathFinder implements GridListener
+{
+    private static final int START = 0;
+    private static final int NORTH = 1;
+    private static final int EAST = 2;
+    private static final int SOUTH = 3;
+    private static final int WEST = 4;
+
+    private int[] direction = new int[0];
+
+    // The tables of the goal type being searched for, or being patched
+    private boolean[] blocked;
+    private int[] jumpNorth;
+    private int[] jumpSouth;
+
+    private World tableWorld;
+    private List<Tables> tables = new ArrayList<>();
+
+    private int goal;
+    private int goalX, goalY;
+
+    // Rows are kept as y * width while searching, so no division is needed per jump
+    private int spanMinX, spanMaxX, spanMinRow, spanMaxRow;
+
+    protected void resized(int cells)
+    {
+        direction = new int[cells];
+    }
+
+    /**
+     * Selects the tables for the goal type, building them if this is the first search for it on this world
+     */
+    private void useTables(World world, Class<? extends WorldObject> goalType)
+    {
+        if (tableWorld != world)
+        {
+            if (tableWorld != null)
+            {
+                tableWorld.removeGridListener(this);
+            }
+            world.addGridListener(this);
+            tableWorld = world;
+            tables.clear();
+        }
+        for (Tables table : tables)
+        {
+            if (table.goalType == goalType)
+            {
+                select(table);
+                return;
+            }
+        }
+
+        Tables table = new Tables(goalType, width * height);
+        select(table);
+        goal = -1;
+        for (int cell = 0; cell < table.blocked.length; cell++)
+        {
+            blocked[cell] = !world.isPassable(cell % width, cell / width, goalType);
+        }
+        for (int x = 0; x < width; x++)
+        {
+            jumpNorth[x] = -1;
+            for (int y = 1; y < height; y++)
+            {
+                jumpNorth[y * width + x] = step(x, y - 1, -1, jumpNorth[(y - 1) * width + x]);
+            }
+            jumpSouth[(height - 1) * width + x] = -1;
+            for (int y = height - 2; y >= 0; y--)
+            {
+                jumpSouth[y * width + x] = step(x, y + 1, 1, jumpSouth[(y + 1) * width + x]);
+            }
+        }
+        tables.add(table);
+    }
+
+    private void select(Tables table)
+    {
+        blocked = table.blocked;
+        jumpNorth = table.jumpNorth;
+        jumpSouth = table.jumpSouth;
+    }
+
+    public void cellChanged(World world, int x, int y)
+    {
+        if (world != tableWorld)
+        {
+            return;
+        }
+        int cell = y * width + x;
+        goal = -1;
+        for (Tables table : tables)
+        {
+            boolean nowBlocked = !world.isPassable(x, y, table.goalType);
+            if (table.blocked[cell] != nowBlocked)
+            {
+                select(table);
+                blocked[cell] = nowBlocked;
+                // Forced turns in the columns beside read the cell too
+                for (int column = Math.max(x - 1, 0); column <= Math.min(x + 1, width - 1); column++)
+                {
+                    patchColumn(column, y);
+                }
+            }
+        }
+    }
+
+    public void gridReplaced(World world)
+    {
+        if (world == tableWorld)
+        {
+            tables.clear();
+        }
+    }
+
+    /**
+     * Redoes the vertical jumps of a column after the cell at row y or one beside it changed. A jump arriving at a
+     * row reads that row and the one it came from, so only the rows around y change by themselves, and further
+     * along only while the jump carried on from them comes out different.
+     */
+    private void patchColumn(int x, int y)
+    {
+        for (int row = Math.max(y, 1); row < height; row++)
+        {
+            int jump = step(x, row - 1, -1, jumpNorth[(row - 1) * width + x]);
+            if (row > y && jump == jumpNorth[row * width + x])
+            {
+                break;
+            }
+            jumpNorth[row * width + x] = jump;
+        }
+        for (int row = Math.min(y, height - 2); row >= 0; row--)
+        {
+            int jump = step(x, row + 1, 1, jumpSouth[(row + 1) * width + x]);
+            if (row < y && jump == jumpSouth[row * width + x])
+            {
+                break;
+            }
+            jumpSouth[row * width + x] = jump;
+        }
+    }
+
+    /**
+     * The result of a vertical jump arriving at (x, y), given the result of the same jump carrying on from there.
+     * That is a jump point, -1 for running off the map or -2 - cell for the blocked cell the jump ran into.
+     */
+    private int step(int x, int y, int dy, int beyond)
+    {
+        int cell = y * width + x;
+        if (blocked[cell])
+        {
+            return -2 - cell;
+        }
+        return isForcedTurn(x, y, 1, dy) || isForcedTurn(x, y, -1, dy) ? cell : beyond;
+    }
+
+    private boolean canEnter(int cell)
+    {
+        return cell == goal || !blocked[cell];
+    }
+
+    public PathFinder copy()
+    {
+        return new JumpPointPathFinder();
+    }
+
+    public boolean findPath(World world, int start, int goal, Class<? extends WorldObject> goalType)
+    {
+        prepare(world);
+        useTables(world, goalType);
+        this.goal = goal;
+        this.goalX = goal % width;
+        this.goalY = goal / width;
+        spanMinX = spanMinRow = Integer.MAX_VALUE;
+        spanMaxX = spanMaxRow = Integer.MIN_VALUE;
+
+        direction[start] = START;
+        open(start, 0, -1, manhattan(start, goalX, goalY));
+
+        while (hasOpen())
+        {
+            int curr = pop();
+            if (isClosed(curr))
+            {
+                continue;
+            }
+
+            if (curr == goal)
+            {
+                buildPath();
+                readSpans();
+                return true;
+            }
+
+            close(curr);
+            expand(curr);
+        }
+        readSpans();
+        return false;
+    }
+
+    private void span(int minX, int maxX, int rowA, int rowB)
+    {
+        spanMinX = Math.min(spanMinX, minX);
+        spanMaxX = Math.max(spanMaxX, maxX);
+        spanMinRow = Math.min(spanMinRow, Math.min(rowA, rowB));
+        spanMaxRow = Math.max(spanMaxRow, Math.max(rowA, rowB));
+    }
+
+    private void readSpans()
+    {
+        if (spanMaxX >= spanMinX)
+        {
+            read(spanMinX, Math.floorDiv(spanMinRow, width), spanMaxX, Math.floorDiv(spanMaxRow, width));
+        }
+    }
+
+    private void expand(int curr)
+    {
+        int x = curr % width;
+        int y = curr / width;
+
+        switch (direction[curr])
+        {
+            case START:
+                successor(curr, jumpVertical(x, y, -1), NORTH);
+                successor(curr, jumpHorizontal(x, y, 1), EAST);
+                successor(curr, jumpVertical(x, y, 1), SOUTH);
+                successor(curr, jumpHorizontal(x, y, -1), WEST);
+                break;
+
+            case EAST:
+            case WEST:
+                int dx = direction[curr] == EAST ? 1 : -1;
+                successor(curr, jumpVertical(x, y, -1), NORTH);
+                successor(curr, jumpHorizontal(x, y, dx), direction[curr]);
+                successor(curr, jumpVertical(x, y, 1), SOUTH);
+                break;
+
+            case NORTH:
+            case SOUTH:
+                int dy = direction[curr] == SOUTH ? 1 : -1;
+                span(x - 1, x + 1, curr - x - width, curr - x + width);
+                successor(curr, jumpVertical(x, y, dy), direction[curr]);
+                if (isForcedTurn(x, y, 1, dy))
+                {
+                    successor(curr, jumpHorizontal(x, y, 1), EAST);
+                }
+                if (isForcedTurn(x, y, -1, dy))
+                {
+                    successor(curr, jumpHorizontal(x, y, -1), WEST);
+                }
+                break;
+        }
+    }
+
+    private void successor(int curr, int next, int dir)
+    {
+        if (next == -1 || isClosed(next))
+        {
+            return;
+        }
+        int g = gScore[curr] + Math.abs(next % width - curr % width) + Math.abs(next / width - curr / width);
+        if (isSeen(next) && g >= gScore[next])
+        {
+            return;
+        }
+        direction[next] = dir;
+        open(next, g, curr, g + manhattan(next, goalX, goalY));
+    }
+
+    /**
+     * @return The first jump point moving horizontally from (x, y), or -1 if the line runs into a wall
+     */
+    private int jumpHorizontal(int x, int y, int dx)
+    {
+        int from = x;
+        int row = y * width;
+        while (true)
+        {
+            x += dx;
+            if (x < 0 || x >= width)
+            {
+                span(Math.min(from, x - dx), Math.max(from, x - dx), row, row);
+                return -1;
+            }
+            int cell = row + x;
+            if (!canEnter(cell))
+            {
+                span(Math.min(from, x), Math.max(from, x), row, row);
+                return -1;
+            }
+            if (cell == goal || jumpVertical(x, y, -1) != -1 || jumpVertical(x, y, 1) != -1)
+            {
+                span(Math.min(from, x), Math.max(from, x), row, row);
+                return cell;
+            }
+        }
+    }
+
+    /**
+     * @return The first jump point moving vertically from (x, y), or -1 if the line runs into a wall
+     */
+    private int jumpVertical(int x, int y, int dy)
+    {
+        int row = y * width;
+        if (Math.abs(x - goalX) > 1)
+        {
+            int jump = dy < 0 ? jumpNorth[row + x] : jumpSouth[row + x];
+            if (jump >= 0)
+            {
+                span(x - 1, x + 1, row, jump - x);
+                return jump;
+            }
+            int end = jump == -1 ? (dy < 0 ? 0 : (height - 1) * width) : -2 - jump - x;
+            span(x - 1, x + 1, row, end);
+            return -1;
+        }
+        int from = row;
+        while (true)
+        {
+            y += dy;
+            if (y < 0 || y >= height)
+            {
+                span(x - 1, x + 1, from, row);
+                return -1;
+            }
+            row = y * width;
+            int cell = row + x;
+            if (!canEnter(cell))
+            {
+                span(x - 1, x + 1, from, row);
+                return -1;
+            }
+            if (cell == goal || isForcedTurn(x, y, 1, dy) || isForcedTurn(x, y, -1, dy))
+            {
+                span(x - 1, x + 1, from, row);
+                return cell;
+            }
+        }
+    }
+
+    /**
+     * Moving vertically by dy into (x, y), a turn towards dx is forced when the cell beside is open but the cell
+     * diagonally behind is not
+     */
+    private boolean isForcedTurn(int x, int y, int dx, int dy)
+    {
+        int nx = x + dx;
+        if (nx < 0 || nx >= width)
+        {
+            return false;
+        }
+        return canEnter(y * width + nx) && !canEnter((y - dy) * width + nx);
+    }
+
+    private void buildPath()
+    {
+        int c = goal;
+        while (parent[c] != -1)
+        {
+            int p = parent[c];
+            int step = p % width == c % width ? (p > c ? width : -width) : (p > c ? 1 : -1);
+            for (int cell = c; cell != p; cell += step)
+            {
+                appendPath(cell);
+            }
+            c = p;
+        }
+        appendPath(c);
+        reversePath();
+    }
+
+    private static class Tables
+    {
+        private final Class<? extends WorldObject> goalType;
+        private final boolean[] blocked;
+        private final int[] jumpNorth;
+        private final int[] jumpSouth;
+
+        private Tables(Class<? extends WorldObject> goalType, int cells)
+        {
+            this.goalType = goalType;
+            this.blocked = new boolean[cells];
+            this.jumpNorth = new int[cells];
+            this.jumpSouth = new int[cells];
+        }
+    }
+}
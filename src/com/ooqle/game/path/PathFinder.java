@@ -0,0 +1,56 @@
+package com.ooqle.game.path;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.World;
+import com.ooqle.game.entity.WorldObject;
+
+import java.awt.Rectangle;
+
+/**
+ * Grid search engine used by World.createPath. Cells are addressed by index, y * width + x.
+ * <p>
+ * Engines keep their buffers between searches, so a search does not allocate. The results of the last search stay
+ * readable through getPathCell and getVisitedCell until the next search.
+ */
+public interface PathFinder
+{
+    /**
+     * Searches for a 4-connected path. A cell can be entered if it is empty, holds an instance of goalType or is
+     * the goal itself.
+     *
+     * @param world    The world to search
+     * @param start    Cell index to start from
+     * @param goal     Cell index to reach
+     * @param goalType Class of objects that may be walked onto
+     * @return True if a path was found
+     */
+    boolean findPath(World world, int start, int goal, Class<? extends WorldObject> goalType);
+
+    /**
+     * @return The number of cells in the last path found, including the start and the goal
+     */
+    int getPathLength();
+
+    int getPathCell(int index);
+
+    /**
+     * @return The number of cells the last search expanded, in the order they were expanded
+     */
+    int getVisitedCount();
+
+    int getVisitedCell(int index);
+
+    /**
+     * @return A rectangle holding every cell the last search read. Searching again gives the same result as long as
+     * none of those cells have changed.
+     */
+    Rectangle getReadBounds();
+
+    /**
+     * @return A new engine of the same kind and settings. Engines are not thread safe, so each thread searching the
+     * same world needs its own.
+     */
+    PathFinder copy();
+}
@@ -0,0 +1,137 @@
+package com.ooqle.game.path;
+/*
+* @author Kenny Williams
+*/
+
+/**
+ * Counters for how often moving actors could follow their cached route instead of planning a new one
+ */
+public class RouteCacheStats
+{
+    private long hits;
+    private long noRoute;
+    private long goalChanged;
+    private long blocked;
+    private long expired;
+    private long strayed;
+    private long plansUsed;
+    private long plansStale;
+
+    public void hit()
+    {
+        hits++;
+    }
+
+    public void missNoRoute()
+    {
+        noRoute++;
+    }
+
+    public void missGoalChanged()
+    {
+        goalChanged++;
+    }
+
+    public void missBlocked()
+    {
+        blocked++;
+    }
+
+    public void missExpired()
+    {
+        expired++;
+    }
+
+    /**
+     * The actor was not on the cell of its route it should have reached
+     */
+    public void missStrayed()
+    {
+        strayed++;
+    }
+
+    /**
+     * A path planned ahead of time by a parallel tick was still valid and was used
+     */
+    public void planUsed()
+    {
+        plansUsed++;
+    }
+
+    /**
+     * A path planned ahead of time had to be searched for again, since the grid changed under it first
+     */
+    public void planStale()
+    {
+        plansStale++;
+    }
+
+    public long getPlansUsed()
+    {
+        return plansUsed;
+    }
+
+    public long getStalePlans()
+    {
+        return plansStale;
+    }
+
+    public long getHits()
+    {
+        return hits;
+    }
+
+    public long getMisses()
+    {
+        return noRoute + goalChanged + blocked + expired + strayed;
+    }
+
+    public long getNoRouteMisses()
+    {
+        return noRoute;
+    }
+
+    public long getGoalChangedMisses()
+    {
+        return goalChanged;
+    }
+
+    public long getBlockedMisses()
+    {
+        return blocked;
+    }
+
+    public long getExpiredMisses()
+    {
+        return expired;
+    }
+
+    public long getStrayedMisses()
+    {
+        return strayed;
+    }
+
+    public double getHitRate()
+    {
+        long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public void reset()
+    {
+        hits = 0;
+        noRoute = 0;
+        goalChanged = 0;
+        blocked = 0;
+        expired = 0;
+        strayed = 0;
+        plansUsed = 0;
+        plansStale = 0;
+    }
+
+    public String toString()
+    {
+        return "hits " + hits + ", misses " + getMisses() + " (no route " + noRoute + ", goal changed " + goalChanged
+                + ", blocked " + blocked + ", expired " + expired + ", strayed " + strayed + ")";
+    }
+}
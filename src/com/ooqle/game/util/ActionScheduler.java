@@ -0,0 +1,50 @@
+package com.ooqle.game.util;
+/*
+* @author Kenny Williams
+*/
+
+/**
+ * Engine that holds the actions queued on a World and runs them once the game time reaches them.
+ * Actions that share a timestamp must run in the order they were scheduled.
+ */
+public interface ActionScheduler
+{
+    /**
+     * Queues an action to be run once the game time reaches the given time
+     *
+     * @param action The action to run
+     * @param time   The game time at which the action is due
+     * @return A handle that cancels the action in constant time
+     */
+    ScheduledAction schedule(Action action, long time);
+
+    /**
+     * Queues an action that runs at the given time and then every period ticks after each run, until its handle is
+     * cancelled. The handle and action are reused for every run.
+     *
+     * @param period The ticks from one run to the next. Must be positive; can be changed through the handle
+     * @return A handle that cancels the action in constant time
+     */
+    ScheduledAction scheduleRepeating(Action action, long time, long period);
+
+    /**
+     * Runs every action due at or before the given time, earliest first
+     *
+     * @param ticks The current game time. This is the value passed to each Action.run
+     */
+    void advance(long ticks);
+
+    /**
+     * Same as advance(ticks), but hands each batch of actions sharing a timestamp to the listener before running it
+     *
+     * @param listener Told about every batch before it runs, or null to run without one
+     */
+    void advance(long ticks, DueActionsListener listener);
+
+    boolean isEmpty();
+
+    /**
+     * @return The number of queued actions that have not run and were not cancelled
+     */
+    int size();
+}
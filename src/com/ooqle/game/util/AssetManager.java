@@ -0,0 +1,290 @@
+package com.ooqle.game.util;
+/*
+* @author Kenny Williams
+*/
+
+import processing.core.PImage;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Serves the images under a directory without decoding them all up front. index() only lists the image files;
+ * loadRequired() then decodes every image outside LAZY_PREFIXES on a pool of threads, and the rest are decoded on
+ * the calling thread the first time someone asks for them. Asking for an image that is still being decoded waits for
+ * it, and no image is ever decoded twice.
+ */
+public class AssetManager implements SpriteSource
+{
+    public static final String[] IMAGE_EXTENSIONS = new String[]{"jpg", "png", "gif", "bmp"};
+    /**
+     * Images only needed once a battle starts, or never
+     */
+    public static final String[] LAZY_PREFIXES = new String[]{"images/characters/", "images/structures/", "images/old/"};
+
+    private final File root;
+    private final Function<File, PImage> decoder;
+    private final Map<String, File> files;
+    private final Map<String, Future<PImage>> images;
+    private final AtomicInteger remaining;
+    private final AtomicInteger lazyLoads;
+    private final AtomicLong lazyNanos;
+    private final AtomicLong requiredEnd;
+    private ExecutorService pool;
+    private int required;
+    private long indexNanos;
+    private long requiredStart;
+
+    /**
+     * @param root    The directory to serve images from. Paths are relative to it, with / as the separator
+     * @param decoder Reads one image file. Called from the pool threads and from whoever asks for a lazy image
+     */
+    public AssetManager(File root, Function<File, PImage> decoder)
+    {
+        this.root = root;
+        this.decoder = decoder;
+        this.files = new HashMap<>();
+        this.images = new ConcurrentHashMap<>();
+        this.remaining = new AtomicInteger();
+        this.lazyLoads = new AtomicInteger();
+        this.lazyNanos = new AtomicLong();
+        this.requiredEnd = new AtomicLong();
+    }
+
+    /**
+     * Lists every image file under the root. Call this once, before anything else.
+     */
+    public void index()
+    {
+        long start = System.nanoTime();
+        index(root);
+        indexNanos = System.nanoTime() - start;
+    }
+
+    private void index(File dir)
+    {
+        File[] children = dir.listFiles();
+        if (children == null)
+        {
+            return;
+        }
+        for (File f : children)
+        {
+            if (f.isDirectory())
+            {
+                index(f);
+            } else if (isImage(f.getName()))
+            {
+                String path = root.toURI().relativize(f.toURI()).getPath();
+                files.put(path, f);
+            }
+        }
+    }
+
+    private static boolean isImage(String name)
+    {
+        for (String extension : IMAGE_EXTENSIONS)
+        {
+            if (name.toLowerCase().endsWith(extension))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static boolean isLazy(String path)
+    {
+        for (String prefix : LAZY_PREFIXES)
+        {
+            if (path.startsWith(prefix))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Starts decoding every indexed image that is not lazy on a pool of daemon threads
+     */
+    public void loadRequired(int threads)
+    {
+        List<String> paths = new ArrayList<>();
+        for (String path : files.keySet())
+        {
+            if (!isLazy(path))
+            {
+                paths.add(path);
+            }
+        }
+        Collections.sort(paths);
+
+        required = paths.size();
+        remaining.set(required);
+        requiredStart = System.nanoTime();
+        requiredEnd.set(requiredStart);
+        if (required == 0)
+        {
+            return;
+        }
+
+        pool = Executors.newFixedThreadPool(threads, r ->
+        {
+            Thread thread = new Thread(r, "asset loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (String path : paths)
+        {
+            // Counted down before the result is set, so isReady() already holds once awaitReady() returns
+            FutureTask<PImage> task = new FutureTask<>(() ->
+            {
+                try
+                {
+                    return decoder.apply(files.get(path));
+                } finally
+                {
+                    requiredEnd.accumulateAndGet(System.nanoTime(), Math::max);
+                    if (remaining.decrementAndGet() == 0)
+                    {
+                        pool.shutdown();
+                    }
+                }
+            });
+            images.put(path, task);
+            pool.execute(task);
+        }
+    }
+
+    /**
+     * @return True once every image started by loadRequired has been decoded
+     */
+    public boolean isReady()
+    {
+        return remaining.get() == 0;
+    }
+
+    /**
+     * Blocks until isReady()
+     */
+    public void awaitReady()
+    {
+        for (Map.Entry<String, Future<PImage>> entry : images.entrySet())
+        {
+            if (!isLazy(entry.getKey()))
+            {
+                get(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * @return The image at the path, decoding it first if nothing has yet, or null if no such image was indexed
+     */
+    public PImage getImage(String path)
+    {
+        Future<PImage> image = images.get(path);
+        if (image == null)
+        {
+            File file = files.get(path);
+            if (file == null)
+            {
+                return null;
+            }
+            FutureTask<PImage> task = new FutureTask<>(() -> decoder.apply(file));
+            image = images.putIfAbsent(path, task);
+            if (image == null)
+            {
+                long start = System.nanoTime();
+                task.run();
+                lazyNanos.addAndGet(System.nanoTime() - start);
+                lazyLoads.incrementAndGet();
+                image = task;
+            }
+        }
+        return get(path, image);
+    }
+
+    public List<PImage> getFrames(String path, int frames)
+    {
+        return GameUtils.getSpriteImages(path, getImage(path), frames);
+    }
+
+    private static PImage get(String path, Future<PImage> image)
+    {
+        try
+        {
+            return image.get();
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading " + path, e);
+        } catch (ExecutionException e)
+        {
+            throw new IllegalStateException("Could not load " + path, e.getCause());
+        }
+    }
+
+    /**
+     * @return Every indexed path, whether it has been decoded or not
+     */
+    public Collection<String> getPaths()
+    {
+        return Collections.unmodifiableCollection(files.keySet());
+    }
+
+    public long getIndexNanos()
+    {
+        return indexNanos;
+    }
+
+    /**
+     * @return The number of images loadRequired decodes up front
+     */
+    public int getRequiredCount()
+    {
+        return required;
+    }
+
+    /**
+     * @return The nanoseconds from loadRequired until the last of its images was decoded, or -1 while it is not done
+     */
+    public long getRequiredNanos()
+    {
+        return isReady() ? requiredEnd.get() - requiredStart : -1;
+    }
+
+    /**
+     * @return The number of images decoded on first use
+     */
+    public int getLazyLoads()
+    {
+        return lazyLoads.get();
+    }
+
+    public long getLazyNanos()
+    {
+        return lazyNanos.get();
+    }
+
+    public String toString()
+    {
+        return String.format("%d images indexed in %.1f ms, %d required decoded in %.1f ms, %d decoded lazily in %.1f ms",
+                files.size(), indexNanos / 1e6, required, getRequiredNanos() / 1e6, getLazyLoads(), getLazyNanos() / 1e6);
+    }
+}
@@ -0,0 +1,31 @@
+package com.ooqle.game.util;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.Point;
+
+import java.util.List;
+
+/**
+ * Told about each batch of actions an ActionScheduler is about to run together, before any of them runs, and about
+ * the tiles each action changed once it has run
+ */
+public interface DueActionsListener
+{
+    /**
+     * @param due   The actions due at one timestamp, in the order they will run. Actions they schedule for the
+     *              same tick are run afterwards without being reported.
+     *              The scheduler may reuse the list once this returns
+     * @param ticks The game time the actions will be run with
+     */
+    void actionsDue(List<ScheduledAction> due, long ticks);
+
+    /**
+     * @param action  An action that just ran, including ones scheduled for the same tick that were not reported
+     * @param changed The tiles its Action.run returned. May be null
+     */
+    default void actionRan(ScheduledAction action, List<Point> changed)
+    {
+    }
+}
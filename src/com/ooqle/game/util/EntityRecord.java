@@ -0,0 +1,191 @@
+package com.ooqle.game.util;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.Point;
+import com.ooqle.game.entity.*;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * The saved fields of one world object, as read from or written to a world file. Fields a type does not use are 0.
+ * Readers fill one record over and over, so a WorldSink must copy anything it wants to keep.
+ */
+public class EntityRecord
+{
+    public static final String MINER = "miner";
+    public static final String VEIN = "vein";
+    public static final String BLACKSMITH = "blacksmith";
+    public static final String OBSTACLE = "obstacle";
+    public static final String ORE = "ore";
+
+    private String type;
+    private UUID id;
+    private int x, y;
+    private int rate, animationRate, resourceLimit, resourceDistance;
+
+    /**
+     * Clears every field and sets the type and location
+     */
+    public EntityRecord reset(String type, int x, int y)
+    {
+        this.type = type;
+        this.id = null;
+        this.x = x;
+        this.y = y;
+        this.rate = 0;
+        this.animationRate = 0;
+        this.resourceLimit = 0;
+        this.resourceDistance = 0;
+        return this;
+    }
+
+    /**
+     * Fills the record from a live object
+     *
+     * @return False, leaving the record alone, if objects of its type are not saved
+     */
+    public boolean capture(WorldObject obj)
+    {
+        Point pt = obj.getPosition();
+        // MinerFull calls itself "unknown", so go by class rather than getType()
+        if (obj instanceof Miner)
+        {
+            Miner miner = (Miner) obj;
+            reset(MINER, pt.getX(), pt.getY());
+            rate = miner.getRate();
+            animationRate = miner.getAnimationRate();
+            resourceLimit = miner.getResourceLimit();
+        }
+        else if (obj instanceof Vein)
+        {
+            reset(VEIN, pt.getX(), pt.getY());
+            rate = obj.getRate();
+            resourceDistance = ((Vein) obj).getResourceDistance();
+        }
+        else if (obj instanceof Blacksmith)
+        {
+            reset(BLACKSMITH, pt.getX(), pt.getY());
+            rate = obj.getRate();
+        }
+        else if (obj instanceof Obstacle)
+        {
+            reset(OBSTACLE, pt.getX(), pt.getY());
+        }
+        else if (obj instanceof Ore)
+        {
+            reset(ORE, pt.getX(), pt.getY());
+            rate = obj.getRate();
+        }
+        else
+        {
+            return false;
+        }
+        id = obj.getUUID();
+        return true;
+    }
+
+    public EntityRecord copy()
+    {
+        EntityRecord copy = new EntityRecord().reset(type, x, y);
+        copy.id = id;
+        copy.rate = rate;
+        copy.animationRate = animationRate;
+        copy.resourceLimit = resourceLimit;
+        copy.resourceDistance = resourceDistance;
+        return copy;
+    }
+
+    public String getType()
+    {
+        return type;
+    }
+
+    /**
+     * @return The UUID of the object the record was saved from, or null if the file did not say
+     */
+    public UUID getId()
+    {
+        return id;
+    }
+
+    public void setId(UUID id)
+    {
+        this.id = id;
+    }
+
+    public int getX()
+    {
+        return x;
+    }
+
+    public int getY()
+    {
+        return y;
+    }
+
+    public int getRate()
+    {
+        return rate;
+    }
+
+    public void setRate(int rate)
+    {
+        this.rate = rate;
+    }
+
+    public int getAnimationRate()
+    {
+        return animationRate;
+    }
+
+    public void setAnimationRate(int animationRate)
+    {
+        this.animationRate = animationRate;
+    }
+
+    public int getResourceLimit()
+    {
+        return resourceLimit;
+    }
+
+    public void setResourceLimit(int resourceLimit)
+    {
+        this.resourceLimit = resourceLimit;
+    }
+
+    public int getResourceDistance()
+    {
+        return resourceDistance;
+    }
+
+    public void setResourceDistance(int resourceDistance)
+    {
+        this.resourceDistance = resourceDistance;
+    }
+
+    public boolean equals(Object o)
+    {
+        if (!(o instanceof EntityRecord))
+        {
+            return false;
+        }
+        EntityRecord other = (EntityRecord) o;
+        return type.equals(other.type) && Objects.equals(id, other.id) && x == other.x && y == other.y
+                && rate == other.rate && animationRate == other.animationRate
+                && resourceLimit == other.resourceLimit && resourceDistance == other.resourceDistance;
+    }
+
+    public int hashCode()
+    {
+        return Objects.hash(type, id, x, y, rate, animationRate, resourceLimit, resourceDistance);
+    }
+
+    public String toString()
+    {
+        return type + " (" + x + ", " + y + ") rate " + rate + " animationRate " + animationRate
+                + " resourceLimit " + resourceLimit + " resourceDistance " + resourceDistance;
+    }
+}
@@ -11,6 +11,11 @@ import java.util.List;
 
 public class GameUtils
 {
+    // 4M pixels is about 16 MB, several times what every character sheet in /res needs
+    public static final long SPRITE_CACHE_PIXELS = 4 * 1024 * 1024;
+
+    private static final SpriteCache spriteCache = new SpriteCache(SPRITE_CACHE_PIXELS);
+
     public static int sign(int x)
     {
         if (x < 0)
@@ -51,4 +56,21 @@ public class GameUtils
         }
         return sprites;
     }
+
+    /**
+     * Same as getSpriteImages(sprite, numberOfImages), but the frames are cut once per sheet and shared
+     *
+     * @param path The path the sprite was loaded from
+     * @return An unmodifiable list of PImages
+     * @see SpriteCache#getFrames(String, PImage, int)
+     */
+    public static List<PImage> getSpriteImages(String path, PImage sprite, int numberOfImages)
+    {
+        return spriteCache.getFrames(path, sprite, numberOfImages);
+    }
+
+    public static SpriteCache getSpriteCache()
+    {
+        return spriteCache;
+    }
 }
@@ -0,0 +1,680 @@
+package com.ooqle.game.util;
+/*
+* @author Kenny Williams
+*/
+
+import org.json.simple.JSONValue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Reads a JSON world straight off a memory-mapped file into a WorldSink, without building a document first. The
+ * file may be laid out any way JSON allows and its keys may come in any order.
+ * <p>
+ * A first pass only skims the file: it picks up "width" and "height" and notes where the "background" and
+ * "worldObjects" arrays are, cut into pieces of about CHUNK_BYTES. The second pass parses the pieces, backgrounds
+ * first, and hands each record to the sink as soon as it is read. Numbers are read digit by digit from the bytes,
+ * quoted or not, and type names are matched against the known ones in place, so the records themselves allocate
+ * nothing.
+ * <p>
+ * With more than one thread the pieces are parsed in parallel. Each thread passes small batches of records back to
+ * the caller, which feeds them to the sink in file order, so the sink never sees more than one thread. A thread
+ * stops once QUEUED_BATCHES batches are waiting, which keeps memory bounded however big the file is.
+ */
+public class JsonWorldReader
+{
+    public static final int CHUNK_BYTES = 1 << 20;
+    private static final int BATCH = 1024;
+    private static final int QUEUED_BATCHES = 4;
+
+    private static final byte[] WIDTH = bytes("width");
+    private static final byte[] HEIGHT = bytes("height");
+    private static final byte[] BACKGROUND = bytes("background");
+    private static final byte[] WORLD_OBJECTS = bytes("worldObjects");
+    private static final byte[] TYPE = bytes("type");
+    private static final byte[] ID = bytes("id");
+    private static final byte[] LOCATION = bytes("location");
+    private static final byte[] X = bytes("x");
+    private static final byte[] Y = bytes("y");
+    private static final byte[] RATE = bytes("rate");
+    private static final byte[] ANIMATION_RATE = bytes("animationRate");
+    private static final byte[] RESOURCE_LIMIT = bytes("resourceLimit");
+    private static final byte[] RESOURCE_DISTANCE = bytes("resourceDistance");
+
+    private static final String[] KNOWN_TYPES = {EntityRecord.MINER, EntityRecord.VEIN, EntityRecord.BLACKSMITH,
+            EntityRecord.OBSTACLE, EntityRecord.ORE, WorldBuilder.ROCKS};
+    private static final byte[][] KNOWN_TYPE_BYTES = new byte[KNOWN_TYPES.length][];
+
+    static
+    {
+        for (int i = 0; i < KNOWN_TYPES.length; i++)
+        {
+            KNOWN_TYPE_BYTES[i] = bytes(KNOWN_TYPES[i]);
+        }
+    }
+
+    private final File file;
+    private final ByteBuffer in;
+    private int width = WorldObjectSettings.GAMEWIDTH;
+    private int height = WorldObjectSettings.GAMEHEIGHT;
+    private final List<Range> backgrounds = new ArrayList<>();
+    private final List<Range> entities = new ArrayList<>();
+
+    private JsonWorldReader(File file, ByteBuffer in)
+    {
+        this.file = file;
+        this.in = in;
+    }
+
+    /**
+     * Reads the file on the calling thread
+     */
+    public static void read(File file, WorldSink sink) throws IOException
+    {
+        read(file, sink, 1);
+    }
+
+    /**
+     * Reads the file, parsing it on up to the given number of threads. The sink is only ever called from the calling
+     * thread. "width" and "height" default to the size of the game screen.
+     *
+     * @throws IOException If the file cannot be read or is not a JSON world
+     */
+    public static void read(File file, WorldSink sink, int threads) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            JsonWorldReader reader = new JsonWorldReader(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            try
+            {
+                reader.index();
+                List<Range> ranges = new ArrayList<>(reader.backgrounds);
+                ranges.addAll(reader.entities);
+
+                sink.begin(reader.width, reader.height);
+                if (threads <= 1 || ranges.size() <= 1)
+                {
+                    EntityRecord record = new EntityRecord();
+                    for (Range range : ranges)
+                    {
+                        Cursor c = reader.new Cursor(reader.in, range.start);
+                        while (c.nextElement(range.end))
+                        {
+                            deliver(sink, c.readRecord(record), range.background);
+                        }
+                    }
+                }
+                else
+                {
+                    reader.readParallel(ranges, sink, threads);
+                }
+            } catch (IndexOutOfBoundsException e)
+            {
+                throw new IOException(file + " ends in the middle of the world", e);
+            }
+        }
+    }
+
+    private static void deliver(WorldSink sink, EntityRecord record, boolean background)
+    {
+        if (background)
+        {
+            sink.background(record.getX(), record.getY(), record.getType());
+        }
+        else
+        {
+            sink.entity(record);
+        }
+    }
+
+    /**
+     * The first pass: reads the size and cuts the two arrays into ranges that each start on an element
+     */
+    private void index() throws IOException
+    {
+        Cursor c = new Cursor(in, 0);
+        c.expect('{');
+        if (c.peek() == '}')
+        {
+            return;
+        }
+        do
+        {
+            byte[] key = c.readKey(WIDTH, HEIGHT, BACKGROUND, WORLD_OBJECTS);
+            c.expect(':');
+            if (key == WIDTH)
+            {
+                width = c.readInt();
+            }
+            else if (key == HEIGHT)
+            {
+                height = c.readInt();
+            }
+            else if (key == BACKGROUND)
+            {
+                indexArray(c, backgrounds, true);
+            }
+            else if (key == WORLD_OBJECTS)
+            {
+                indexArray(c, entities, false);
+            }
+            else
+            {
+                c.skipValue();
+            }
+        } while (c.next('}'));
+    }
+
+    private void indexArray(Cursor c, List<Range> ranges, boolean background) throws IOException
+    {
+        c.expect('[');
+        int start = c.pos;
+        while (true)
+        {
+            byte b = c.peek();
+            if (b == ']')
+            {
+                ranges.add(new Range(start, c.pos, background));
+                c.pos++;
+                return;
+            }
+            if (b == ',')
+            {
+                c.pos++;
+                continue;
+            }
+            if (c.pos - start >= CHUNK_BYTES)
+            {
+                ranges.add(new Range(start, c.pos, background));
+                start = c.pos;
+            }
+            c.skipValue();
+        }
+    }
+
+    private void readParallel(List<Range> ranges, WorldSink sink, int threads) throws IOException
+    {
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r ->
+        {
+            Thread thread = new Thread(r, "world reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try
+        {
+            // Ranges start in order, so the one the caller is waiting on is always running or done
+            List<BlockingQueue<Batch>> queues = new ArrayList<>();
+            for (Range range : ranges)
+            {
+                BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(QUEUED_BATCHES);
+                queues.add(queue);
+                pool.execute(() -> parse(range, queue));
+            }
+            for (int i = 0; i < ranges.size(); i++)
+            {
+                Batch batch;
+                do
+                {
+                    batch = queues.get(i).take();
+                    if (batch.error != null)
+                    {
+                        throw batch.error;
+                    }
+                    for (EntityRecord record : batch.records)
+                    {
+                        deliver(sink, record, ranges.get(i).background);
+                    }
+                } while (!batch.last);
+            }
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading " + file);
+        } finally
+        {
+            pool.shutdownNow();
+        }
+    }
+
+    private void parse(Range range, BlockingQueue<Batch> queue)
+    {
+        try
+        {
+            try
+            {
+                Cursor c = new Cursor(in.duplicate(), range.start);
+                List<EntityRecord> records = new ArrayList<>(BATCH);
+                while (c.nextElement(range.end))
+                {
+                    records.add(c.readRecord(new EntityRecord()));
+                    if (records.size() == BATCH)
+                    {
+                        queue.put(new Batch(records, false, null));
+                        records = new ArrayList<>(BATCH);
+                    }
+                }
+                queue.put(new Batch(records, true, null));
+            } catch (IOException e)
+            {
+                queue.put(new Batch(null, true, e));
+            } catch (IndexOutOfBoundsException e)
+            {
+                queue.put(new Batch(null, true, new IOException(file + " ends in the middle of the world", e)));
+            }
+        } catch (InterruptedException e)
+        {
+            // The caller gave up
+        }
+    }
+
+    private static byte[] bytes(String s)
+    {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A stretch of one of the arrays, from the start of an element to the start of the next range or the closing ]
+     */
+    private static class Range
+    {
+        private final int start, end;
+        private final boolean background;
+
+        private Range(int start, int end, boolean background)
+        {
+            this.start = start;
+            this.end = end;
+            this.background = background;
+        }
+    }
+
+    private static class Batch
+    {
+        private final List<EntityRecord> records;
+        private final boolean last;
+        private final IOException error;
+
+        private Batch(List<EntityRecord> records, boolean last, IOException error)
+        {
+            this.records = records;
+            this.last = last;
+            this.error = error;
+        }
+    }
+
+    /**
+     * A read position in the file. Every method skips the whitespace in front of what it reads.
+     */
+    private class Cursor
+    {
+        private final ByteBuffer in;
+        private int pos;
+
+        private Cursor(ByteBuffer in, int pos)
+        {
+            this.in = in;
+            this.pos = pos;
+        }
+
+        private IOException error(String message)
+        {
+            return new IOException(file + " at byte " + pos + ": " + message);
+        }
+
+        private byte peek()
+        {
+            byte b = in.get(pos);
+            while (b == ' ' || b == '\n' || b == '\r' || b == '\t')
+            {
+                b = in.get(++pos);
+            }
+            return b;
+        }
+
+        private void expect(char c) throws IOException
+        {
+            if (peek() != c)
+            {
+                throw error("expected " + c);
+            }
+            pos++;
+        }
+
+        /**
+         * Moves past the comma or the closing bracket after a value
+         *
+         * @return True if another member follows
+         */
+        private boolean next(char close) throws IOException
+        {
+            byte b = peek();
+            pos++;
+            if (b == ',')
+            {
+                return true;
+            }
+            if (b != close)
+            {
+                throw error("expected , or " + close);
+            }
+            return false;
+        }
+
+        /**
+         * Moves to the start of the next element of an array range
+         *
+         * @return False once the range is used up
+         */
+        private boolean nextElement(int end) throws IOException
+        {
+            while (pos < end)
+            {
+                byte b = peek();
+                if (b == ']' || pos >= end)
+                {
+                    return false;
+                }
+                if (b != ',')
+                {
+                    return true;
+                }
+                pos++;
+            }
+            return false;
+        }
+
+        /**
+         * Reads an object key and the quotes around it
+         *
+         * @return The candidate it matches, or null
+         */
+        private byte[] readKey(byte[]... candidates) throws IOException
+        {
+            if (peek() != '"')
+            {
+                throw error("expected a key");
+            }
+            int start = pos + 1;
+            skipString();
+            int length = pos - 1 - start;
+            for (byte[] candidate : candidates)
+            {
+                if (matches(start, length, candidate))
+                {
+                    return candidate;
+                }
+            }
+            return null;
+        }
+
+        private boolean matches(int start, int length, byte[] candidate)
+        {
+            if (length != candidate.length)
+            {
+                return false;
+            }
+            for (int i = 0; i < length; i++)
+            {
+                if (in.get(start + i) != candidate[i])
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Reads an integer, which may be quoted. A fraction is dropped.
+         */
+        private int readInt() throws IOException
+        {
+            boolean quoted = peek() == '"';
+            if (quoted)
+            {
+                pos++;
+            }
+            boolean negative = in.get(pos) == '-';
+            if (negative)
+            {
+                pos++;
+            }
+            int start = pos;
+            int value = 0;
+            byte b;
+            while ((b = in.get(pos)) >= '0' && b <= '9')
+            {
+                value = value * 10 + (b - '0');
+                pos++;
+            }
+            if (pos == start)
+            {
+                throw error("expected a number");
+            }
+            if (b == '.')
+            {
+                do
+                {
+                    pos++;
+                } while ((b = in.get(pos)) >= '0' && b <= '9');
+            }
+            if (quoted)
+            {
+                expect('"');
+            }
+            return negative ? -value : value;
+        }
+
+        /**
+         * @return One of KNOWN_TYPES if it is one, so the common case allocates nothing
+         */
+        private String readType() throws IOException
+        {
+            if (peek() != '"')
+            {
+                throw error("expected a type name");
+            }
+            int start = pos;
+            skipString();
+            for (int i = 0; i < KNOWN_TYPES.length; i++)
+            {
+                if (matches(start + 1, pos - start - 2, KNOWN_TYPE_BYTES[i]))
+                {
+                    return KNOWN_TYPES[i];
+                }
+            }
+            byte[] raw = new byte[pos - start];
+            for (int i = 0; i < raw.length; i++)
+            {
+                raw[i] = in.get(start + i);
+            }
+            return (String) JSONValue.parse(new String(raw, StandardCharsets.UTF_8));
+        }
+
+        private UUID readUuid() throws IOException
+        {
+            expect('"');
+            long most = 0, least = 0;
+            int digits = 0;
+            byte b;
+            while ((b = in.get(pos++)) != '"')
+            {
+                if (b == '-')
+                {
+                    continue;
+                }
+                int digit = Character.digit(b, 16);
+                if (digit < 0 || digits == 32)
+                {
+                    throw error("bad id");
+                }
+                if (digits++ < 16)
+                {
+                    most = most << 4 | digit;
+                }
+                else
+                {
+                    least = least << 4 | digit;
+                }
+            }
+            if (digits != 32)
+            {
+                throw error("bad id");
+            }
+            return new UUID(most, least);
+        }
+
+        /**
+         * Reads one object of either array into the record
+         */
+        private EntityRecord readRecord(EntityRecord record) throws IOException
+        {
+            String type = null;
+            UUID id = null;
+            int x = 0, y = 0, rate = 0, animationRate = 0, resourceLimit = 0, resourceDistance = 0;
+            expect('{');
+            if (peek() != '}')
+            {
+                do
+                {
+                    byte[] key = readKey(TYPE, ID, LOCATION, RATE, ANIMATION_RATE, RESOURCE_LIMIT, RESOURCE_DISTANCE);
+                    expect(':');
+                    if (key == TYPE)
+                    {
+                        type = readType();
+                    }
+                    else if (key == ID)
+                    {
+                        id = readUuid();
+                    }
+                    else if (key == LOCATION)
+                    {
+                        expect('{');
+                        if (peek() != '}')
+                        {
+                            do
+                            {
+                                byte[] axis = readKey(X, Y);
+                                expect(':');
+                                if (axis == X)
+                                {
+                                    x = readInt();
+                                }
+                                else if (axis == Y)
+                                {
+                                    y = readInt();
+                                }
+                                else
+                                {
+                                    skipValue();
+                                }
+                            } while (next('}'));
+                        }
+                        else
+                        {
+                            pos++;
+                        }
+                    }
+                    else if (key == RATE)
+                    {
+                        rate = readInt();
+                    }
+                    else if (key == ANIMATION_RATE)
+                    {
+                        animationRate = readInt();
+                    }
+                    else if (key == RESOURCE_LIMIT)
+                    {
+                        resourceLimit = readInt();
+                    }
+                    else if (key == RESOURCE_DISTANCE)
+                    {
+                        resourceDistance = readInt();
+                    }
+                    else
+                    {
+                        skipValue();
+                    }
+                } while (next('}'));
+            }
+            else
+            {
+                pos++;
+            }
+            if (type == null)
+            {
+                throw error("object has no type");
+            }
+            record.reset(type, x, y);
+            record.setId(id);
+            record.setRate(rate);
+            record.setAnimationRate(animationRate);
+            record.setResourceLimit(resourceLimit);
+            record.setResourceDistance(resourceDistance);
+            return record;
+        }
+
+        private void skipString()
+        {
+            pos++;
+            byte b;
+            while ((b = in.get(pos++)) != '"')
+            {
+                if (b == '\\')
+                {
+                    pos++;
+                }
+            }
+        }
+
+        private void skipValue()
+        {
+            byte b = peek();
+            if (b == '"')
+            {
+                skipString();
+            }
+            else if (b == '{' || b == '[')
+            {
+                int depth = 0;
+                do
+                {
+                    b = in.get(pos);
+                    if (b == '"')
+                    {
+                        skipString();
+                        continue;
+                    }
+                    if (b == '{' || b == '[')
+                    {
+                        depth++;
+                    }
+                    else if (b == '}' || b == ']')
+                    {
+                        depth--;
+                    }
+                    pos++;
+                } while (depth > 0);
+            }
+            else
+            {
+                while ((b = in.get(pos)) != ',' && b != '}' && b != ']' && b != ' ' && b != '\n' && b != '\r' && b != '\t')
+                {
+                    pos++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.ooqle.game.util;
+/*
+* @author Kenny Williams
+*/
+
+import org.json.simple.JSONValue;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A WorldSink that writes what it is given as a JSON world SaveLoad can read, one piece at a time, so saving never
+ * builds the whole document in memory. The file is a single line:
+ * <pre>
+ * {"width": 40, "height": 30, "background": [...], "worldObjects": [...]}
+ * </pre>
+ * Entity fields that are 0 are left out, since readers treat a missing field as 0.
+ */
+public class JsonWorldWriter implements WorldSink, Closeable
+{
+    private final Writer out;
+    private boolean inEntities;
+    private boolean first;
+
+    public JsonWorldWriter(File file) throws IOException
+    {
+        this(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)));
+    }
+
+    public JsonWorldWriter(Writer out)
+    {
+        this.out = out;
+    }
+
+    public void begin(int width, int height)
+    {
+        try
+        {
+            out.write("{\"width\": " + width + ", \"height\": " + height + ", \"background\": [");
+            first = true;
+        } catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void background(int x, int y, String type)
+    {
+        try
+        {
+            separate();
+            out.write("{\"type\": \"");
+            out.write(JSONValue.escape(type));
+            out.write("\", \"location\": {\"x\": " + x + ", \"y\": " + y + "}}");
+        } catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void entity(EntityRecord record)
+    {
+        try
+        {
+            if (!inEntities)
+            {
+                out.write("], \"worldObjects\": [");
+                inEntities = true;
+                first = true;
+            }
+            separate();
+            writeEntity(out, record);
+        } catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void separate() throws IOException
+    {
+        if (!first)
+        {
+            out.write(", ");
+        }
+        first = false;
+    }
+
+    /**
+     * Writes one record as a JSON object
+     */
+    static void writeEntity(Writer out, EntityRecord record) throws IOException
+    {
+        out.write("{\"type\": \"");
+        out.write(JSONValue.escape(record.getType()));
+        out.write('"');
+        if (record.getId() != null)
+        {
+            out.write(", \"id\": \"" + record.getId() + '"');
+        }
+        out.write(", \"location\": {\"x\": " + record.getX() + ", \"y\": " + record.getY() + '}');
+        writeField(out, "rate", record.getRate());
+        writeField(out, "animationRate", record.getAnimationRate());
+        writeField(out, "resourceLimit", record.getResourceLimit());
+        writeField(out, "resourceDistance", record.getResourceDistance());
+        out.write('}');
+    }
+
+    private static void writeField(Writer out, String key, int value) throws IOException
+    {
+        if (value != 0)
+        {
+            out.write(", \"" + key + "\": " + value);
+        }
+    }
+
+    /**
+     * Ends the document and closes the file
+     */
+    public void close() throws IOException
+    {
+        try
+        {
+            out.write(inEntities ? "]}\n" : "], \"worldObjects\": []}\n");
+        } finally
+        {
+            out.close();
+        }
+    }
+}
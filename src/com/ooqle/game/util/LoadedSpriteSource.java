@@ -0,0 +1,32 @@
+package com.ooqle.game.util;
+/*
+* @author Kenny Williams
+*/
+
+import processing.core.PImage;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serves images that were loaded from disk by the game window, keyed by their path under /res
+ */
+public class LoadedSpriteSource implements SpriteSource
+{
+    private Map<String, PImage> images;
+
+    public LoadedSpriteSource(Map<String, PImage> images)
+    {
+        this.images = images;
+    }
+
+    public PImage getImage(String path)
+    {
+        return images.get(path);
+    }
+
+    public List<PImage> getFrames(String path, int frames)
+    {
+        return GameUtils.getSpriteImages(path, getImage(path), frames);
+    }
+}
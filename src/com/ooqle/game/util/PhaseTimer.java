@@ -0,0 +1,64 @@
+package com.ooqle.game.util;
+/*
+* @author Kenny Williams
+*/
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Splits a stretch of wall time into named phases. Each mark ends the phase that began at the previous mark, or when
+ * the timer was created.
+ */
+public class PhaseTimer
+{
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+    private final long start;
+    private long last;
+
+    public PhaseTimer()
+    {
+        start = last = System.nanoTime();
+    }
+
+    /**
+     * Ends the current phase under the given name. Marking the same name again adds to it.
+     *
+     * @return The length of the phase just ended in nanoseconds
+     */
+    public long mark(String phase)
+    {
+        long now = System.nanoTime();
+        long nanos = now - last;
+        phases.merge(phase, nanos, Long::sum);
+        last = now;
+        return nanos;
+    }
+
+    /**
+     * @return The length of each phase in nanoseconds, in the order they were first marked
+     */
+    public Map<String, Long> getPhases()
+    {
+        return Collections.unmodifiableMap(phases);
+    }
+
+    /**
+     * @return The nanoseconds from creation to the last mark
+     */
+    public long getTotal()
+    {
+        return last - start;
+    }
+
+    public String toString()
+    {
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<String, Long> phase : phases.entrySet())
+        {
+            out.append(String.format("%s %.1f ms, ", phase.getKey(), phase.getValue() / 1e6));
+        }
+        return out.append(String.format("total %.1f ms", getTotal() / 1e6)).toString();
+    }
+}
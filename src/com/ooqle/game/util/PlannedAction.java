@@ -0,0 +1,12 @@
+package com.ooqle.game.util;
+/*
+* @author Kenny Williams
+*/
+
+/**
+ * An action that may move the actor that scheduled it along a path. A parallel tick searches for that path on
+ * another thread before the action runs, through MovableActor.planPath.
+ */
+public interface PlannedAction extends Action
+{
+}
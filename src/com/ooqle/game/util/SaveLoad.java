@@ -3,113 +3,117 @@ package com.ooqle.game.util;
 * @author Kenny Williams
 */
 
-import com.ooqle.game.Game;
-import com.ooqle.game.Point;
 import com.ooqle.game.World;
 import com.ooqle.game.entity.*;
-import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
-import org.json.simple.JSONValue;
-import processing.core.PImage;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Scanner;
+import java.nio.file.Files;
+import java.util.UUID;
 
 public class SaveLoad
 {
+    public static final String WORLD_FILE = "res/newworld";
+    /**
+     * Where the 'k' key saves the world to. Only read back through an explicit load(File)
+     */
+    public static final String SAVE_FILE = "res/savedworld";
+
     public static World load()
     {
-        File file = new File("res/newworld");
-
-        List<PImage> miner_imgs = Game.getImages("images/miner*.png", 5);
+        return load(new File(WORLD_FILE));
+    }
 
-        World newworld = new World(WorldObjectSettings.GAMEWIDTH, WorldObjectSettings.GAMEHEIGHT, new Background(Game.getImage("images/background/tile_dark_grey.png")));
+    /**
+     * Loads a world saved either as JSON or in the binary WorldFile format, whichever the file turns out to be
+     */
+    public static World load(File file)
+    {
+        WorldBuilder builder = new WorldBuilder();
         try
         {
-            Scanner scanner = new Scanner(file);
-
-            Object obj = JSONValue.parse(scanner.nextLine());
-
-            JSONObject obj2 = (JSONObject) obj;
-
-            for(Object ob : (JSONArray) obj2.get("background"))
-            {
-                JSONObject job = (JSONObject) ob;
-                if(job.get("type").equals("rocks"))
-                {
-                    JSONObject location = (JSONObject) job.get("location");
-                    newworld.setBackground(new Point(Integer.parseInt((String) location.get("x")), Integer.parseInt((String) location.get("y"))), new Background(Game.getImage("images/background/tile_light_grey.png")));
-                }
-            }
-
-            JSONArray worldobjects = (JSONArray) obj2.get("worldObjects");
-
-            for(Object worldob : worldobjects)
-            {
-                JSONObject jwob = (JSONObject) worldob;
-                JSONObject location = (JSONObject) jwob.get("location");
-                if(jwob.get("type").equals("miner"))
-                {
-                    MinerNotFull miner = (new MinerNotFull(
-                            "miner",
-                            new Point(Integer.parseInt((String) location.get("x")), Integer.parseInt((String) location.get("y"))),
-                            miner_imgs,
-                            Integer.parseInt((String) jwob.get("rate")),
-                            Integer.parseInt((String) jwob.get("animationRate")),
-                            Integer.parseInt((String) jwob.get("resourceLimit"))));
-
-                    newworld.addWorldObject(miner);
-                    scheduleEntity(newworld, miner);
-                }
-                else if(jwob.get("type").equals("vein"))
-                {
-                    Vein vein = new Vein(
-                            "vein",
-                            new Point(Integer.parseInt((String) location.get("x")), Integer.parseInt((String) location.get("y"))),
-                            Arrays.asList(Game.getImage("images/vein.png")),
-                            Integer.parseInt((String) jwob.get("rate")),
-                            Integer.parseInt((String) jwob.get("resourceDistance")));
-
-                    newworld.addWorldObject(vein);
+            read(file, builder);
+        }
+        catch(IOException ex)
+        {
+            System.out.println(ex);
+        }
+        if (builder.getWorld() == null)
+        {
+            builder.begin(WorldObjectSettings.GAMEWIDTH, WorldObjectSettings.GAMEHEIGHT);
+        }
+        return builder.getWorld();
+    }
 
-                    scheduleEntity(newworld, vein);
-                }
-                else if(jwob.get("type").equals("blacksmith"))
-                {
-                    Blacksmith blacksmith = new Blacksmith(
-                            "blacksmith",
-                            new Point(Integer.parseInt((String) location.get("x")), Integer.parseInt((String) location.get("y"))),
-                            Integer.parseInt((String) jwob.get("rate")),
-                            Arrays.asList(Game.getImage("images/blacksmith.png")));
+    /**
+     * Hands a saved world to the sink, JSON or binary, with any changes saved since by a WorldSaver applied
+     */
+    public static void read(File file, WorldSink sink) throws IOException
+    {
+        if (WorldSaver.journalFor(file).exists())
+        {
+            WorldSaver.read(file, sink);
+        }
+        else if (WorldFile.isWorldFile(file))
+        {
+            WorldFile.read(file, sink);
+        }
+        else
+        {
+            readJson(file, sink);
+        }
+    }
 
-                    newworld.addWorldObject(blacksmith);
-                    scheduleEntity(newworld, blacksmith);
-                }
-                else if(jwob.get("type").equals("obstacle"))
-                {
-                    Obstacle obstacle = new Obstacle(
-                            "obstacle",
-                            new Point(Integer.parseInt((String) location.get("x")), Integer.parseInt((String) location.get("y"))),
-                            Arrays.asList(Game.getImage("images/obstacle.png")));
+    /**
+     * Reads a world saved as one JSON object with "background" and "worldObjects" arrays, streaming it into the sink
+     * with a JsonWorldReader on as many threads as there are processors. Numbers may be written as strings, and
+     * "width" and "height" default to the size of the game screen.
+     */
+    public static void readJson(File file, WorldSink sink) throws IOException
+    {
+        JsonWorldReader.read(file, sink, Runtime.getRuntime().availableProcessors());
+    }
 
-                    newworld.addWorldObject(obstacle);
-                    scheduleEntity(newworld, obstacle);
-                }
-                else
-                {
-                    System.out.println("type: "+ jwob.get("type") + "not defined");
-                }
-            }
+    /**
+     * Fills the record from one of the objects in a "worldObjects" array that has already been parsed
+     */
+    static EntityRecord readEntity(JSONObject jwob, EntityRecord record)
+    {
+        JSONObject location = (JSONObject) jwob.get("location");
+        record.reset((String) jwob.get("type"), intField(location, "x", 0), intField(location, "y", 0));
+        if (jwob.get("id") != null)
+        {
+            record.setId(UUID.fromString((String) jwob.get("id")));
         }
-        catch(IOException ex)
+        record.setRate(intField(jwob, "rate", 0));
+        record.setAnimationRate(intField(jwob, "animationRate", 0));
+        record.setResourceLimit(intField(jwob, "resourceLimit", 0));
+        record.setResourceDistance(intField(jwob, "resourceDistance", 0));
+        return record;
+    }
+
+    /**
+     * Writes the whole world to a file as JSON, streaming it out object by object. Only call this from the thread
+     * that steps the world; a running game should save through a WorldSaver instead.
+     */
+    public static void save(World world, File file) throws IOException
+    {
+        try (JsonWorldWriter writer = new JsonWorldWriter(file))
         {
-            System.out.println(ex);
+            SaveSnapshot.capture(world, null).replay(writer);
         }
+        Files.deleteIfExists(WorldSaver.journalFor(file).toPath());
+    }
 
-        return newworld;
+    private static int intField(JSONObject obj, String key, int missing)
+    {
+        Object value = obj.get(key);
+        if (value == null)
+        {
+            return missing;
+        }
+        return value instanceof Number ? ((Number) value).intValue() : Integer.parseInt((String) value);
     }
 
     public static void scheduleEntity(World world, WorldObject worldobject)
@@ -131,7 +135,14 @@ public class SaveLoad
         }
     }
 
-    public static void main(String[] args) {
-        load();
+    /**
+     * Converts a JSON world to the binary format: SaveLoad [json file] [binary file]
+     */
+    public static void main(String[] args) throws IOException
+    {
+        File json = new File(args.length > 0 ? args[0] : WORLD_FILE);
+        File binary = new File(args.length > 1 ? args[1] : json.getPath() + ".bin");
+        WorldFile.convert(json, binary);
+        System.out.println("Wrote " + binary + ", " + binary.length() + " bytes from " + json.length() + " bytes of JSON");
     }
 }
@@ -0,0 +1,161 @@
+package com.ooqle.game.util;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.Grid;
+import com.ooqle.game.World;
+import com.ooqle.game.entity.Background;
+import com.ooqle.game.entity.WorldObject;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A copy of everything a save writes, taken at one point in time. Capturing only copies a few ints per object, so it
+ * can run on the simulation thread between steps; the copy is then written out on another thread while the world
+ * keeps moving. A snapshot is also a WorldSink, so a saved world can be read into one, patched and replayed.
+ */
+public class SaveSnapshot implements WorldSink
+{
+    private int width, height;
+    private long backgroundVersion = -1;
+    private int[] backgroundCells = new int[0];
+    private String[] backgroundTypes = new String[0];
+    private int backgrounds;
+    private Map<UUID, EntityRecord> entities = new LinkedHashMap<>();
+
+    /**
+     * Copies the world. Only call this from the thread that steps it.
+     *
+     * @param previous An earlier snapshot of the same world, or null. Its background is reused if no background
+     *                 cell has been replaced since, which saves a pass over the whole grid
+     */
+    public static SaveSnapshot capture(World world, SaveSnapshot previous)
+    {
+        SaveSnapshot snapshot = new SaveSnapshot();
+        snapshot.width = world.getWidth();
+        snapshot.height = world.getHeight();
+        snapshot.backgroundVersion = world.getBackgroundVersion();
+        if (previous != null && previous.backgroundVersion == snapshot.backgroundVersion
+                && previous.width == snapshot.width && previous.height == snapshot.height)
+        {
+            // Never written to after capture, so safe to share
+            snapshot.backgroundCells = previous.backgroundCells;
+            snapshot.backgroundTypes = previous.backgroundTypes;
+            snapshot.backgrounds = previous.backgrounds;
+        }
+        else
+        {
+            // The formats only know one background besides the default, so any other tile is saved as rocks
+            Background base = world.getDefaultBackground();
+            Grid<Background> grid = world.getBackgroundGrid();
+            for (int y = 0; y < snapshot.height; y++)
+            {
+                for (int x = 0; x < snapshot.width; x++)
+                {
+                    if (grid.getCell(x, y) != base)
+                    {
+                        snapshot.background(x, y, WorldBuilder.ROCKS);
+                    }
+                }
+            }
+        }
+
+        EntityRecord record = new EntityRecord();
+        for (WorldObject obj : world.getWorldObjects())
+        {
+            if (record.capture(obj))
+            {
+                snapshot.entities.put(obj.getUUID(), record);
+                record = new EntityRecord();
+            }
+        }
+        return snapshot;
+    }
+
+    public void begin(int width, int height)
+    {
+        this.width = width;
+        this.height = height;
+    }
+
+    public void background(int x, int y, String type)
+    {
+        if (backgrounds == backgroundCells.length)
+        {
+            int size = Math.max(16, backgrounds * 2);
+            backgroundCells = Arrays.copyOf(backgroundCells, size);
+            backgroundTypes = Arrays.copyOf(backgroundTypes, size);
+        }
+        backgroundCells[backgrounds] = y * width + x;
+        backgroundTypes[backgrounds] = type;
+        backgrounds++;
+    }
+
+    /**
+     * Adds a copy of the record, replacing any with the same id. Records with no id are given a new one.
+     */
+    public void entity(EntityRecord record)
+    {
+        EntityRecord copy = record.copy();
+        if (copy.getId() == null)
+        {
+            copy.setId(UUID.randomUUID());
+        }
+        entities.put(copy.getId(), copy);
+    }
+
+    public void removeEntity(UUID id)
+    {
+        entities.remove(id);
+    }
+
+    public EntityRecord getEntity(UUID id)
+    {
+        return entities.get(id);
+    }
+
+    public Collection<EntityRecord> getEntities()
+    {
+        return Collections.unmodifiableCollection(entities.values());
+    }
+
+    public int getWidth()
+    {
+        return width;
+    }
+
+    public int getHeight()
+    {
+        return height;
+    }
+
+    /**
+     * @return The world's background version when captured, or -1 if the snapshot was read from a file
+     */
+    public long getBackgroundVersion()
+    {
+        return backgroundVersion;
+    }
+
+    /**
+     * Hands the snapshot to a sink, in the order a reader would
+     */
+    public void replay(WorldSink sink)
+    {
+        sink.begin(width, height);
+        for (int i = 0; i < backgrounds; i++)
+        {
+            sink.background(backgroundCells[i] % width, backgroundCells[i] / width, backgroundTypes[i]);
+        }
+        for (EntityRecord record : entities.values())
+        {
+            sink.entity(record);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.ooqle.game.util;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.Point;
+
+import java.util.List;
+
+/**
+ * Handle to an action queued on an ActionScheduler. Cancelling through the handle is O(1), so callers never need to
+ * search the queue for the action they want to remove.
+ * <p>
+ * A repeating handle, from ActionScheduler.scheduleRepeating, is queued again every period ticks after it runs. The
+ * same handle and action are reused every time, until the handle is cancelled.
+ */
+public class ScheduledAction
+{
+    private Action action;
+    private long time;
+    private boolean cancelled;
+    private boolean done;
+    private long period;
+    private Object owner;
+
+    public ScheduledAction(Action action, long time)
+    {
+        this.action = action;
+        this.time = time;
+    }
+
+    /**
+     * @param period How long after each run the action runs again. Must be positive
+     */
+    public ScheduledAction(Action action, long time, long period)
+    {
+        this(action, time);
+        if (period <= 0)
+        {
+            throw new IllegalArgumentException("Period must be positive, was " + period);
+        }
+        this.period = period;
+    }
+
+    public Action getAction()
+    {
+        return action;
+    }
+
+    public long getTime()
+    {
+        return time;
+    }
+
+    /**
+     * @return The object that scheduled the action for itself, or null if it was scheduled directly on the world
+     */
+    public Object getOwner()
+    {
+        return owner;
+    }
+
+    public void setOwner(Object owner)
+    {
+        this.owner = owner;
+    }
+
+    public boolean isCancelled()
+    {
+        return cancelled;
+    }
+
+    public boolean isRepeating()
+    {
+        return period > 0;
+    }
+
+    /**
+     * @return The ticks between runs of a repeating action, or 0 for one that runs once
+     */
+    public long getPeriod()
+    {
+        return period;
+    }
+
+    /**
+     * Changes the ticks between runs of a repeating action. The new period is used the next time the action is
+     * queued again, which includes straight after the run that is calling this.
+     */
+    public void setPeriod(long period)
+    {
+        if (!isRepeating() || period <= 0)
+        {
+            throw new IllegalArgumentException("Cannot set a period of " + period + " on " + (isRepeating() ? "a repeating" : "a one-off") + " action");
+        }
+        this.period = period;
+    }
+
+    /**
+     * @return True once the action has been cancelled or, unless it repeats, has run
+     */
+    public boolean isDone()
+    {
+        return done;
+    }
+
+    /**
+     * Stops the action from running. Does nothing if it already ran or was already cancelled.
+     */
+    public void cancel()
+    {
+        if (!done)
+        {
+            cancelled = true;
+            done = true;
+            onCancel();
+        }
+    }
+
+    /**
+     * Called once when the handle is cancelled, so a scheduler can unlink it from its queue
+     */
+    protected void onCancel()
+    {
+    }
+
+    /**
+     * Marks the handle as done and runs its action
+     *
+     * @return The tiles the action changed
+     */
+    protected List<Point> fire(long currentTicks)
+    {
+        if (period == 0)
+        {
+            done = true;
+        }
+        return action.run(currentTicks);
+    }
+
+    /**
+     * Called by the scheduler after a repeating action has run, to move it on to its next run
+     *
+     * @return False if it does not repeat or was cancelled while running, and must not be queued again
+     */
+    protected boolean rearm(long currentTicks)
+    {
+        if (done || period == 0)
+        {
+            return false;
+        }
+        time = currentTicks + period;
+        return true;
+    }
+}
@@ -0,0 +1,132 @@
+package com.ooqle.game.util;
+/*
+* @author Kenny Williams
+*/
+
+import processing.core.PImage;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Frames cut from sprite sheets, keyed by the sheet's path and frame count. Every caller asking for the same sheet
+ * and count shares one unmodifiable list, so spawning, attacking or dying no longer copies pixels. The least recently
+ * used sheets are dropped once the cached frames hold more than the given number of pixels.
+ */
+public class SpriteCache
+{
+    private final long maxPixels;
+    private final Map<String, Entry> entries;
+    private long pixels;
+    private long hits, misses, evictions;
+
+    /**
+     * @param maxPixels The most pixels the cached frames may hold together. A single sheet larger than this is still
+     *                  cut and returned, just not kept
+     */
+    public SpriteCache(long maxPixels)
+    {
+        this.maxPixels = maxPixels;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * @param path   The path the sheet was loaded from
+     * @param sheet  The sheet, with its frames side by side. A different image under a path already cached replaces
+     *               the cached frames
+     * @param frames The number of frames in the sheet
+     * @return The frames, shared with every other caller
+     */
+    public synchronized List<PImage> getFrames(String path, PImage sheet, int frames)
+    {
+        String key = path + "#" + frames;
+        Entry entry = entries.get(key);
+        if (entry != null && entry.sheet == sheet)
+        {
+            hits++;
+            return entry.frames;
+        }
+
+        misses++;
+        if (entry != null)
+        {
+            entries.remove(key);
+            pixels -= entry.pixels;
+        }
+        entry = new Entry(sheet, Collections.unmodifiableList(GameUtils.getSpriteImages(sheet, frames)));
+        if (entry.pixels <= maxPixels)
+        {
+            entries.put(key, entry);
+            pixels += entry.pixels;
+            evict();
+        }
+        return entry.frames;
+    }
+
+    private void evict()
+    {
+        Iterator<Entry> it = entries.values().iterator();
+        while (pixels > maxPixels && it.hasNext())
+        {
+            pixels -= it.next().pixels;
+            it.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized void clear()
+    {
+        entries.clear();
+        pixels = 0;
+    }
+
+    public synchronized int size()
+    {
+        return entries.size();
+    }
+
+    /**
+     * @return The number of pixels held by the cached frames
+     */
+    public synchronized long getPixels()
+    {
+        return pixels;
+    }
+
+    public synchronized long getHits()
+    {
+        return hits;
+    }
+
+    public synchronized long getMisses()
+    {
+        return misses;
+    }
+
+    public synchronized long getEvictions()
+    {
+        return evictions;
+    }
+
+    private static class Entry
+    {
+        private final PImage sheet;
+        private final List<PImage> frames;
+        private final long pixels;
+
+        private Entry(PImage sheet, List<PImage> frames)
+        {
+            this.sheet = sheet;
+            this.frames = frames;
+            long total = 0;
+            for (PImage frame : frames)
+            {
+                total += (long) frame.width * frame.height;
+            }
+            this.pixels = total;
+        }
+    }
+}
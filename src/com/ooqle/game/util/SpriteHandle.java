@@ -0,0 +1,40 @@
+package com.ooqle.game.util;
+/*
+* @author Kenny Williams
+*/
+
+import processing.core.PImage;
+
+/**
+ * An empty image that stands in for a sprite which was never loaded, so entities can be built and simulated without
+ * a display. It remembers which file, and which frame of it, it stands for.
+ */
+public class SpriteHandle extends PImage
+{
+    private final String path;
+    private final int frame;
+
+    public SpriteHandle(String path, int frame)
+    {
+        this.path = path;
+        this.frame = frame;
+    }
+
+    public String getPath()
+    {
+        return path;
+    }
+
+    /**
+     * @return The index of the frame on a sprite sheet, or -1 for a whole image
+     */
+    public int getFrame()
+    {
+        return frame;
+    }
+
+    public String toString()
+    {
+        return frame == -1 ? path : path + "#" + frame;
+    }
+}
@@ -0,0 +1,47 @@
+package com.ooqle.game.util;
+/*
+* @author Kenny Williams
+*/
+
+import processing.core.PImage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands out SpriteHandles instead of reading image files. Every path and frame maps to one shared handle, so a
+ * headless world with many actors holds no pixels at all.
+ */
+public class SpriteHandleSource implements SpriteSource
+{
+    private Map<String, SpriteHandle> handles = new HashMap<>();
+
+    public PImage getImage(String path)
+    {
+        return handle(path, -1);
+    }
+
+    public List<PImage> getFrames(String path, int frames)
+    {
+        List<PImage> out = new ArrayList<>(frames);
+        for (int i = 0; i < frames; i++)
+        {
+            out.add(handle(path, i));
+        }
+        return out;
+    }
+
+    private SpriteHandle handle(String path, int frame)
+    {
+        String key = frame == -1 ? path : path + "#" + frame;
+        SpriteHandle handle = handles.get(key);
+        if (handle == null)
+        {
+            handle = new SpriteHandle(path, frame);
+            handles.put(key, handle);
+        }
+        return handle;
+    }
+}
@@ -0,0 +1,23 @@
+package com.ooqle.game.util;
+/*
+* @author Kenny Williams
+*/
+
+import processing.core.PImage;
+
+import java.util.List;
+
+/**
+ * Where entities get their images from. Paths are relative to the /res directory, e.g. "images/vein.png".
+ */
+public interface SpriteSource
+{
+    PImage getImage(String path);
+
+    /**
+     * @param path   A sprite sheet with its frames side by side
+     * @param frames The number of frames on the sheet
+     * @return The frames from left to right
+     */
+    List<PImage> getFrames(String path, int frames);
+}
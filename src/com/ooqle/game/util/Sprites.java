@@ -0,0 +1,87 @@
+package com.ooqle.game.util;
+/*
+* @author Kenny Williams
+*/
+
+import processing.core.PImage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The images entities are built with. Until the game window loads the real images, every lookup returns a
+ * SpriteHandle, so a World can be loaded and run without Processing ever opening a window.
+ */
+public class Sprites
+{
+    /**
+     * The character sheets cut into frames during play, with their frame counts
+     */
+    public static final List<Tuple<String, Integer>> CHARACTER_SHEETS = Arrays.asList(
+            new Tuple<>("images/characters/goblin/goblin_move_left.png", 6),
+            new Tuple<>("images/characters/goblin/goblin_attack_left.png", 7),
+            new Tuple<>("images/characters/goblin/goblin_attack_right.png", 7),
+            new Tuple<>("images/characters/goblin/goblin_die.png", 9),
+            new Tuple<>("images/characters/soldier/soldier_move_left.png", 6),
+            new Tuple<>("images/characters/soldier/soldier_attack_left.png", 5),
+            new Tuple<>("images/characters/soldier/soldier_attack_right.png", 5),
+            new Tuple<>("images/characters/soldier/soldier_die.png", 9));
+
+    private static SpriteSource source = new SpriteHandleSource();
+
+    public static SpriteSource getSource()
+    {
+        return source;
+    }
+
+    public static void setSource(SpriteSource source)
+    {
+        Sprites.source = source;
+    }
+
+    /**
+     * @param path The path to the image from the /res directory, e.g. "images/example.png"
+     */
+    public static PImage getImage(String path)
+    {
+        return source.getImage(path);
+    }
+
+    /**
+     * Returns a list of images following the below format:
+     * getImages("images/blob*.bmp", 12) will load all images in the images blob1.bmp to blob12.bmp
+     *
+     * @param path Path to images. Use one * for the variable.
+     * @param end  The final image in the list
+     * @return List of images 1 through end
+     */
+    public static List<PImage> getImages(String path, int end)
+    {
+        List<PImage> out = new ArrayList<>();
+        for (int i = 1; i < end + 1; i++)
+        {
+            out.add(getImage(path.replace("*", Integer.toString(i))));
+        }
+        return out;
+    }
+
+    /**
+     * Cuts a sprite sheet with its frames side by side into one image per frame
+     */
+    public static List<PImage> getFrames(String path, int frames)
+    {
+        return source.getFrames(path, frames);
+    }
+
+    /**
+     * Cuts every sheet in CHARACTER_SHEETS now, so the first battle does not have to
+     */
+    public static void preloadCharacterSheets()
+    {
+        for (Tuple<String, Integer> sheet : CHARACTER_SHEETS)
+        {
+            getFrames(sheet.getKey(), sheet.getValue());
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.ooqle.game.util;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.Point;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hashed hierarchical timing wheel. Level 0 has one slot per tick, and every level above it has slots 64 times as
+ * wide as the level below. An action is placed on the lowest level whose current window still contains its time,
+ * and is cascaded one level down each time the clock enters its slot. Scheduling and expiring are both O(1), and
+ * an occupancy mask per level lets advance() jump straight over empty stretches of time.
+ * <p>
+ * Every slot is a FIFO list and cascading keeps list order, so actions due at the same tick run in the order they
+ * were scheduled. The lists are doubly linked through the handles themselves, so a cancelled handle unlinks itself
+ * in O(1).
+ */
+public class TimingWheelScheduler implements ActionScheduler
+{
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = (Long.SIZE + SLOT_BITS - 1) / SLOT_BITS;
+
+    private Bucket[][] wheels;
+    private long[] occupied;
+    private long currentTime;
+    private int size;
+    // Handed to the listener and cleared after, so a tick does not allocate a list per slot
+    private List<ScheduledAction> due;
+
+    public TimingWheelScheduler()
+    {
+        this(0);
+    }
+
+    public TimingWheelScheduler(long startTime)
+    {
+        this.currentTime = startTime;
+        this.occupied = new long[LEVELS];
+        this.due = new ArrayList<>();
+        this.wheels = new Bucket[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++)
+        {
+            for (int slot = 0; slot < SLOTS; slot++)
+            {
+                this.wheels[level][slot] = new Bucket();
+            }
+        }
+    }
+
+    public ScheduledAction schedule(Action action, long time)
+    {
+        Entry entry = new Entry(action, time);
+        place(entry);
+        size++;
+        return entry;
+    }
+
+    public ScheduledAction scheduleRepeating(Action action, long time, long period)
+    {
+        Entry entry = new Entry(action, time, period);
+        place(entry);
+        size++;
+        return entry;
+    }
+
+    public void advance(long ticks)
+    {
+        advance(ticks, null);
+    }
+
+    public void advance(long ticks, DueActionsListener listener)
+    {
+        if (ticks < currentTime)
+        {
+            return;
+        }
+
+        while (true)
+        {
+            runCurrentSlot(ticks, listener);
+            if (currentTime == ticks)
+            {
+                return;
+            }
+            moveTo(Math.min(nextOccupiedTime(), ticks));
+        }
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public long getCurrentTime()
+    {
+        return currentTime;
+    }
+
+    private void place(Entry entry)
+    {
+        // Overdue actions are run at the current tick
+        long time = Math.max(entry.getTime(), currentTime);
+        long diff = time ^ currentTime;
+        int level = diff == 0 ? 0 : (Long.SIZE - 1 - Long.numberOfLeadingZeros(diff)) / SLOT_BITS;
+        int slot = (int) (time >>> (level * SLOT_BITS)) & SLOT_MASK;
+
+        entry.level = level;
+        entry.slot = slot;
+        wheels[level][slot].add(entry);
+        occupied[level] |= 1L << slot;
+    }
+
+    private void runCurrentSlot(long ticks, DueActionsListener listener)
+    {
+        int slot = (int) currentTime & SLOT_MASK;
+        Bucket bucket = wheels[0][slot];
+
+        if (listener != null && !bucket.isEmpty())
+        {
+            for (Entry entry = bucket.head; entry != null; entry = entry.next)
+            {
+                due.add(entry);
+            }
+            listener.actionsDue(due, ticks);
+            due.clear();
+        }
+
+        // Actions run here may schedule more work for this same tick, which is appended and run in this pass
+        Entry entry;
+        while ((entry = bucket.poll()) != null)
+        {
+            size--;
+            List<Point> changed = entry.fire(ticks);
+            // A repeating entry goes back on the wheel as it is, so it costs no allocation
+            if (entry.rearm(ticks))
+            {
+                place(entry);
+                size++;
+            }
+            if (listener != null)
+            {
+                listener.actionRan(entry, changed);
+            }
+        }
+        occupied[0] &= ~(1L << slot);
+    }
+
+    /**
+     * @return The earliest time after the current time at which a slot has to be run or cascaded
+     */
+    private long nextOccupiedTime()
+    {
+        for (int level = 0; level < LEVELS; level++)
+        {
+            int shift = level * SLOT_BITS;
+            int digit = (int) (currentTime >>> shift) & SLOT_MASK;
+            long later = occupied[level] & (-2L << digit);
+            if (later != 0)
+            {
+                int windowShift = shift + SLOT_BITS;
+                long windowStart = windowShift >= Long.SIZE ? 0 : (currentTime >>> windowShift) << windowShift;
+                return windowStart | ((long) Long.numberOfTrailingZeros(later) << shift);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private void moveTo(long time)
+    {
+        long previous = currentTime;
+        currentTime = time;
+
+        // Entering a new slot on an upper level pushes its actions down towards level 0
+        for (int level = LEVELS - 1; level > 0; level--)
+        {
+            int shift = level * SLOT_BITS;
+            if ((previous >>> shift) == (time >>> shift))
+            {
+                continue;
+            }
+
+            int slot = (int) (time >>> shift) & SLOT_MASK;
+            if ((occupied[level] & (1L << slot)) == 0)
+            {
+                continue;
+            }
+
+            Bucket bucket = wheels[level][slot];
+            occupied[level] &= ~(1L << slot);
+
+            Entry entry;
+            while ((entry = bucket.poll()) != null)
+            {
+                place(entry);
+            }
+        }
+    }
+
+    private class Entry extends ScheduledAction
+    {
+        private int level;
+        private int slot;
+        private Entry prev;
+        private Entry next;
+        private Bucket bucket;
+
+        private Entry(Action action, long time)
+        {
+            super(action, time);
+        }
+
+        private Entry(Action action, long time, long period)
+        {
+            super(action, time, period);
+        }
+
+        protected void onCancel()
+        {
+            Bucket owner = bucket;
+            if (owner != null)
+            {
+                owner.remove(this);
+                size--;
+                if (owner.isEmpty())
+                {
+                    occupied[level] &= ~(1L << slot);
+                }
+            }
+        }
+    }
+
+    private static class Bucket
+    {
+        private Entry head;
+        private Entry tail;
+
+        private boolean isEmpty()
+        {
+            return head == null;
+        }
+
+        private void add(Entry entry)
+        {
+            entry.bucket = this;
+            entry.next = null;
+            entry.prev = tail;
+            if (tail == null)
+            {
+                head = entry;
+            } else
+            {
+                tail.next = entry;
+            }
+            tail = entry;
+        }
+
+        private Entry poll()
+        {
+            Entry entry = head;
+            if (entry != null)
+            {
+                remove(entry);
+            }
+            return entry;
+        }
+
+        private void remove(Entry entry)
+        {
+            if (entry.prev == null)
+            {
+                head = entry.next;
+            } else
+            {
+                entry.prev.next = entry.next;
+            }
+            if (entry.next == null)
+            {
+                tail = entry.prev;
+            } else
+            {
+                entry.next.prev = entry.prev;
+            }
+            entry.prev = null;
+            entry.next = null;
+            entry.bucket = null;
+        }
+    }
+}
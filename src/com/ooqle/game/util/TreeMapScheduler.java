@@ -0,0 +1,125 @@
+package com.ooqle.game.util;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.Point;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Multimaps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * The original scheduler backed by a multimap over a TreeMap. Kept around to compare against TimingWheelScheduler.
+ * Cancelled actions are left in the map as tombstones and skipped when their time comes.
+ */
+public class TreeMapScheduler implements ActionScheduler
+{
+    private ListMultimap<Long, ScheduledAction> actionQueue;
+    private int size;
+
+    public TreeMapScheduler()
+    {
+        actionQueue = Multimaps.newListMultimap(
+                new TreeMap<>(),
+                Lists::newArrayList
+        );
+    }
+
+    public ScheduledAction schedule(Action action, long time)
+    {
+        ScheduledAction scheduled = new ScheduledAction(action, time)
+        {
+            protected void onCancel()
+            {
+                size--;
+            }
+        };
+        actionQueue.put(time, scheduled);
+        size++;
+        return scheduled;
+    }
+
+    public ScheduledAction scheduleRepeating(Action action, long time, long period)
+    {
+        ScheduledAction scheduled = new ScheduledAction(action, time, period)
+        {
+            protected void onCancel()
+            {
+                size--;
+            }
+        };
+        actionQueue.put(time, scheduled);
+        size++;
+        return scheduled;
+    }
+
+    public void advance(long ticks)
+    {
+        advance(ticks, null);
+    }
+
+    public void advance(long ticks, DueActionsListener listener)
+    {
+        while (!actionQueue.isEmpty())
+        {
+            long firstKey = actionQueue.entries().iterator().next().getKey();
+            if (firstKey > ticks)
+            {
+                return;
+            }
+
+            Collection<ScheduledAction> actionsToRun = ImmutableList.copyOf(actionQueue.get(firstKey));
+            actionQueue.removeAll(firstKey);
+
+            if (listener != null)
+            {
+                List<ScheduledAction> due = new ArrayList<>(actionsToRun.size());
+                for (ScheduledAction a : actionsToRun)
+                {
+                    if (!a.isDone())
+                    {
+                        due.add(a);
+                    }
+                }
+                listener.actionsDue(due, ticks);
+            }
+
+            for (ScheduledAction a : actionsToRun)
+            {
+                if (!a.isDone())
+                {
+                    // A repeating action stays counted while it runs, since cancelling it from inside uncounts it
+                    if (!a.isRepeating())
+                    {
+                        size--;
+                    }
+                    List<Point> changed = a.fire(ticks);
+                    if (a.rearm(ticks))
+                    {
+                        actionQueue.put(a.getTime(), a);
+                    }
+                    if (listener != null)
+                    {
+                        listener.actionRan(a, changed);
+                    }
+                }
+            }
+        }
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+}
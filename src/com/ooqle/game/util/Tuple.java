@@ -35,7 +35,7 @@ public class Tuple<T, U>
         {
             return false;
         }
-        Tuple t = (Tuple) other;
+        Tuple<?, ?> t = (Tuple<?, ?>) other;
         return this.getKey().equals(t.getKey()) && this.getValue().equals(t.getValue());
     }
 
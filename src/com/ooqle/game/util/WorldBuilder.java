@@ -0,0 +1,82 @@
+package com.ooqle.game.util;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.Point;
+import com.ooqle.game.World;
+import com.ooqle.game.entity.*;
+import processing.core.PImage;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds a World from the pieces a reader hands it. Entities are added and scheduled as they arrive.
+ */
+public class WorldBuilder implements WorldSink
+{
+    public static final String ROCKS = "rocks";
+
+    private World world;
+    private List<PImage> minerImgs;
+    private Background rocks;
+
+    public void begin(int width, int height)
+    {
+        minerImgs = Sprites.getImages("images/miner*.png", 5);
+        rocks = new Background(Sprites.getImage("images/background/tile_light_grey.png"));
+        world = new World(width, height, new Background(Sprites.getImage("images/background/tile_dark_grey.png")));
+    }
+
+    public void background(int x, int y, String type)
+    {
+        if (type.equals(ROCKS))
+        {
+            world.setBackground(new Point(x, y), rocks);
+        }
+    }
+
+    public void entity(EntityRecord record)
+    {
+        Point pt = new Point(record.getX(), record.getY());
+        WorldObject obj;
+        switch (record.getType())
+        {
+            case EntityRecord.MINER:
+                obj = new MinerNotFull("miner", pt, minerImgs, record.getRate(), record.getAnimationRate(),
+                        record.getResourceLimit());
+                break;
+            case EntityRecord.VEIN:
+                obj = new Vein("vein", pt, Arrays.asList(Sprites.getImage("images/vein.png")), record.getRate(),
+                        record.getResourceDistance());
+                break;
+            case EntityRecord.BLACKSMITH:
+                obj = new Blacksmith("blacksmith", pt, record.getRate(), Arrays.asList(Sprites.getImage("images/blacksmith.png")));
+                break;
+            case EntityRecord.OBSTACLE:
+                obj = new Obstacle("obstacle", pt, Arrays.asList(Sprites.getImage("images/obstacle.png")));
+                break;
+            case EntityRecord.ORE:
+                obj = new Ore("ore", pt, Arrays.asList(Sprites.getImage("images/ore.png")), record.getRate());
+                break;
+            default:
+                System.out.println("type: " + record.getType() + " not defined");
+                return;
+        }
+        if (record.getId() != null)
+        {
+            obj.setUUID(record.getId());
+        }
+        world.addWorldObject(obj);
+        SaveLoad.scheduleEntity(world, obj);
+    }
+
+    /**
+     * @return The world built so far, or null before begin
+     */
+    public World getWorld()
+    {
+        return world;
+    }
+}
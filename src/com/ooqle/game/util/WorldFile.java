@@ -0,0 +1,286 @@
+package com.ooqle.game.util;
+/*
+* @author Kenny Williams
+*/
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary world format, read and written through NIO FileChannels and memory-mapped for loading.
+ * <p>
+ * Layout, all numbers big-endian:
+ * <pre>
+ * int   MAGIC
+ * short VERSION
+ * short flags, always 0
+ * int   width, height
+ * int   number of entity records
+ * byte  background of every cell, row by row: 0 for the default, otherwise an index into BACKGROUNDS
+ * entity records: byte type tag (an index into TYPES), int x, int y, then the ints for that type:
+ *       miner      rate, animationRate, resourceLimit
+ *       vein       rate, resourceDistance
+ *       blacksmith rate
+ *       obstacle   nothing
+ *       ore        rate
+ * </pre>
+ */
+public class WorldFile
+{
+    public static final int MAGIC = 0x4F4F5157;
+    public static final short VERSION = 1;
+    public static final int HEADER_BYTES = 20;
+
+    /**
+     * Background types by their id in the tile layer. 0 is the world's default background.
+     */
+    public static final String[] BACKGROUNDS = {null, WorldBuilder.ROCKS};
+    /**
+     * Entity types by their tag
+     */
+    public static final String[] TYPES = {null, EntityRecord.MINER, EntityRecord.VEIN, EntityRecord.BLACKSMITH,
+            EntityRecord.OBSTACLE, EntityRecord.ORE};
+
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final int MAX_RECORD_BYTES = 1 + 5 * 4;
+
+    /**
+     * @return True if the file starts with MAGIC
+     */
+    public static boolean isWorldFile(File file) throws IOException
+    {
+        if (file.length() < HEADER_BYTES)
+        {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining() && channel.read(magic) >= 0)
+            {
+            }
+            return magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * Maps the file into memory and hands its contents to the sink
+     *
+     * @throws IOException If the file cannot be read, is not a world file, is cut short or is of a newer version
+     */
+    public static void read(File file, WorldSink sink) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.remaining() < HEADER_BYTES || in.getInt() != MAGIC)
+            {
+                throw new IOException(file + " is not a world file");
+            }
+            short version = in.getShort();
+            if (version > VERSION)
+            {
+                throw new IOException(file + " is version " + version + ", only " + VERSION + " can be read");
+            }
+            in.getShort();
+            int width = in.getInt();
+            int height = in.getInt();
+            int entities = in.getInt();
+
+            sink.begin(width, height);
+            for (int y = 0; y < height; y++)
+            {
+                for (int x = 0; x < width; x++)
+                {
+                    byte id = in.get();
+                    if (id != 0)
+                    {
+                        sink.background(x, y, type(BACKGROUNDS, id, file));
+                    }
+                }
+            }
+
+            EntityRecord record = new EntityRecord();
+            for (int i = 0; i < entities; i++)
+            {
+                String type = type(TYPES, in.get(), file);
+                record.reset(type, in.getInt(), in.getInt());
+                switch (type)
+                {
+                    case EntityRecord.MINER:
+                        record.setRate(in.getInt());
+                        record.setAnimationRate(in.getInt());
+                        record.setResourceLimit(in.getInt());
+                        break;
+                    case EntityRecord.VEIN:
+                        record.setRate(in.getInt());
+                        record.setResourceDistance(in.getInt());
+                        break;
+                    case EntityRecord.BLACKSMITH:
+                    case EntityRecord.ORE:
+                        record.setRate(in.getInt());
+                        break;
+                }
+                sink.entity(record);
+            }
+        } catch (BufferUnderflowException e)
+        {
+            throw new IOException(file + " ends in the middle of a record", e);
+        }
+    }
+
+    private static String type(String[] types, byte id, File file) throws IOException
+    {
+        if (id <= 0 || id >= types.length)
+        {
+            throw new IOException(file + " has an unknown type id " + id);
+        }
+        return types[id];
+    }
+
+    private static byte id(String[] types, String type)
+    {
+        for (byte id = 1; id < types.length; id++)
+        {
+            if (types[id].equals(type))
+            {
+                return id;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Rewrites a JSON world in this format
+     */
+    public static void convert(File json, File binary) throws IOException
+    {
+        try (Writer writer = new Writer(binary))
+        {
+            SaveLoad.readJson(json, writer);
+        }
+    }
+
+    /**
+     * A WorldSink that writes what it is given to a file. Entities are streamed out through a small buffer as they
+     * arrive; the tile layer, one byte a cell, is kept until close and written with the header. Entities of types
+     * with no tag, and backgrounds with no id, are skipped.
+     */
+    public static class Writer implements WorldSink, Closeable
+    {
+        private final FileChannel channel;
+        private final ByteBuffer out;
+        private byte[] tiles;
+        private int width, height;
+        private int entities;
+
+        public Writer(File file) throws IOException
+        {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            out = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        }
+
+        public void begin(int width, int height)
+        {
+            this.width = width;
+            this.height = height;
+            this.tiles = new byte[width * height];
+            try
+            {
+                channel.position(HEADER_BYTES + tiles.length);
+            } catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        public void background(int x, int y, String type)
+        {
+            tiles[y * width + x] = id(BACKGROUNDS, type);
+        }
+
+        public void entity(EntityRecord record)
+        {
+            byte tag = id(TYPES, record.getType());
+            if (tag == 0)
+            {
+                return;
+            }
+            if (out.remaining() < MAX_RECORD_BYTES)
+            {
+                flush();
+            }
+            out.put(tag);
+            out.putInt(record.getX());
+            out.putInt(record.getY());
+            switch (record.getType())
+            {
+                case EntityRecord.MINER:
+                    out.putInt(record.getRate());
+                    out.putInt(record.getAnimationRate());
+                    out.putInt(record.getResourceLimit());
+                    break;
+                case EntityRecord.VEIN:
+                    out.putInt(record.getRate());
+                    out.putInt(record.getResourceDistance());
+                    break;
+                case EntityRecord.BLACKSMITH:
+                case EntityRecord.ORE:
+                    out.putInt(record.getRate());
+                    break;
+            }
+            entities++;
+        }
+
+        private void flush()
+        {
+            out.flip();
+            try
+            {
+                while (out.hasRemaining())
+                {
+                    channel.write(out);
+                }
+            } catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+            out.clear();
+        }
+
+        /**
+         * Writes the rest of the entities, then the header and tile layer at the start of the file
+         */
+        public void close() throws IOException
+        {
+            try
+            {
+                if (tiles == null)
+                {
+                    begin(0, 0);
+                }
+                flush();
+
+                ByteBuffer head = ByteBuffer.allocate(HEADER_BYTES + tiles.length);
+                head.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putInt(width).putInt(height).putInt(entities);
+                head.put(tiles).flip();
+                long position = 0;
+                while (head.hasRemaining())
+                {
+                    position += channel.write(head, position);
+                }
+            } finally
+            {
+                channel.close();
+            }
+        }
+    }
+}
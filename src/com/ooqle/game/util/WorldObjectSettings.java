@@ -31,4 +31,11 @@ public class WorldObjectSettings
 
     public static final int GOBLINSPAWNCOUNT = 15;
     public static final int GOBLINSPAWNRATE = 2000;
+
+    public static final int ROUTE_MAX_AGE = 32;
+    public static final int HIERARCHICAL_PATH_MIN_CELLS = 128 * 128;
+    public static final int TICK_PLAN_MIN_ACTORS = 16;
+    public static final int PAGING_MIN_CELLS = 1024 * 1024;
+    public static final int PAGE_OUT_INTERVAL = 100;
+    public static final int PAGE_OUT_RADIUS = 1;
 }
@@ -0,0 +1,223 @@
+package com.ooqle.game.util;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.SimulationThread;
+import com.ooqle.game.World;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Saves a running world to a JSON file without holding up the game. The world is copied into a SaveSnapshot on the
+ * simulation thread between two steps, and the copy is written on the saver's own thread.
+ * <p>
+ * A full save rewrites the whole file. An incremental save appends one line to a journal next to it with just the
+ * objects that were added, changed or removed since the last save, which SaveLoad applies on top of the file when it
+ * loads it. A save falls back to a full one when there is nothing to build on, when a background tile changed, or
+ * once the journal has grown bigger than the file. Full saves go through a temporary file, so a crash part way
+ * through leaves the last complete save behind.
+ */
+public class WorldSaver
+{
+    private final File file;
+    private final File journal;
+    private final ExecutorService writer;
+    private volatile SaveSnapshot saved;
+    private int lastWritten;
+
+    public WorldSaver(File file)
+    {
+        this.file = file;
+        this.journal = journalFor(file);
+        this.writer = Executors.newSingleThreadExecutor(r ->
+        {
+            Thread thread = new Thread(r, "world saver");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return The journal incremental saves of the file are appended to
+     */
+    public static File journalFor(File file)
+    {
+        return new File(file.getPath() + ".journal");
+    }
+
+    /**
+     * Copies the world on the simulation thread before its next step, then writes the copy on the saver thread.
+     * Neither the simulation nor the caller waits for the file.
+     *
+     * @return Completes with the number of objects written, or with the exception that stopped the save
+     */
+    public CompletableFuture<Integer> save(SimulationThread simulation, boolean incremental)
+    {
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        simulation.submit(world ->
+        {
+            SaveSnapshot snapshot = capture(world);
+            writer.execute(() ->
+            {
+                try
+                {
+                    result.complete(write(snapshot, incremental));
+                } catch (IOException | RuntimeException e)
+                {
+                    result.completeExceptionally(e);
+                }
+            });
+        });
+        return result;
+    }
+
+    /**
+     * Saves on the calling thread, which must be the one that steps the world
+     *
+     * @return The number of objects written
+     */
+    public int save(World world, boolean incremental) throws IOException
+    {
+        return write(capture(world), incremental);
+    }
+
+    // Not synchronized: the simulation thread must never wait on a write in progress
+    private SaveSnapshot capture(World world)
+    {
+        return SaveSnapshot.capture(world, saved);
+    }
+
+    private synchronized int write(SaveSnapshot snapshot, boolean incremental) throws IOException
+    {
+        if (incremental && saved != null && saved.getBackgroundVersion() == snapshot.getBackgroundVersion()
+                && file.exists() && journal.length() <= file.length())
+        {
+            lastWritten = writeChanges(snapshot);
+        }
+        else
+        {
+            lastWritten = writeAll(snapshot);
+        }
+        saved = snapshot;
+        return lastWritten;
+    }
+
+    private int writeAll(SaveSnapshot snapshot) throws IOException
+    {
+        File temp = new File(file.getPath() + ".tmp");
+        try (JsonWorldWriter out = new JsonWorldWriter(temp))
+        {
+            snapshot.replay(out);
+        }
+        // The journal was written against the old file; drop it first so it is never applied to the new one
+        Files.deleteIfExists(journal.toPath());
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return snapshot.getEntities().size();
+    }
+
+    /**
+     * Appends a line of the form {"worldObjects": [...], "removed": ["id", ...]}
+     */
+    private int writeChanges(SaveSnapshot snapshot) throws IOException
+    {
+        List<EntityRecord> changed = new ArrayList<>();
+        for (EntityRecord record : snapshot.getEntities())
+        {
+            if (!record.equals(saved.getEntity(record.getId())))
+            {
+                changed.add(record);
+            }
+        }
+        List<UUID> removed = new ArrayList<>();
+        for (EntityRecord record : saved.getEntities())
+        {
+            if (snapshot.getEntity(record.getId()) == null)
+            {
+                removed.add(record.getId());
+            }
+        }
+        if (changed.isEmpty() && removed.isEmpty())
+        {
+            return 0;
+        }
+
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(journal, true), StandardCharsets.UTF_8)))
+        {
+            out.write("{\"worldObjects\": [");
+            for (int i = 0; i < changed.size(); i++)
+            {
+                if (i > 0)
+                {
+                    out.write(", ");
+                }
+                JsonWorldWriter.writeEntity(out, changed.get(i));
+            }
+            out.write("], \"removed\": [");
+            for (int i = 0; i < removed.size(); i++)
+            {
+                out.write((i > 0 ? ", \"" : "\"") + removed.get(i) + '"');
+            }
+            out.write("]}\n");
+        }
+        return changed.size() + removed.size();
+    }
+
+    /**
+     * @return The number of objects the last save wrote
+     */
+    public synchronized int getLastWritten()
+    {
+        return lastWritten;
+    }
+
+    /**
+     * Reads a JSON file and its journal into the sink. A line left half written by a crash ends the journal.
+     */
+    static void read(File file, WorldSink sink) throws IOException
+    {
+        SaveSnapshot world = new SaveSnapshot();
+        SaveLoad.readJson(file, world);
+        EntityRecord record = new EntityRecord();
+        try (BufferedReader in = Files.newBufferedReader(journalFor(file).toPath(), StandardCharsets.UTF_8))
+        {
+            String line;
+            while ((line = in.readLine()) != null)
+            {
+                Object parsed = JSONValue.parse(line);
+                if (!(parsed instanceof JSONObject))
+                {
+                    break;
+                }
+                JSONObject changes = (JSONObject) parsed;
+                for (Object changed : (JSONArray) changes.get("worldObjects"))
+                {
+                    world.entity(SaveLoad.readEntity((JSONObject) changed, record));
+                }
+                for (Object removed : (JSONArray) changes.get("removed"))
+                {
+                    world.removeEntity(UUID.fromString((String) removed));
+                }
+            }
+        }
+        world.replay(sink);
+    }
+}
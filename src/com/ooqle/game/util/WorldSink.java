@@ -0,0 +1,24 @@
+package com.ooqle.game.util;
+/*
+* @author Kenny Williams
+*/
+
+/**
+ * Receives a saved world one piece at a time as a reader goes through a world file, so no format ever has to hold a
+ * whole world in memory. begin is called once, before anything else, and every background comes before the
+ * first entity.
+ */
+public interface WorldSink
+{
+    void begin(int width, int height);
+
+    /**
+     * @param type The background of the cell, e.g. "rocks". Cells that are never reported keep the default
+     */
+    void background(int x, int y, String type);
+
+    /**
+     * @param record Only valid during the call; readers reuse it for the next entity
+     */
+    void entity(EntityRecord record);
+}
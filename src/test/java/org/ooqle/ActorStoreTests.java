@@ -0,0 +1,116 @@
+package test.java.org.ooqle;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.ActorStore;
+import com.ooqle.game.Point;
+import com.ooqle.game.World;
+import com.ooqle.game.entity.AnimatedActor;
+import com.ooqle.game.entity.Background;
+import com.ooqle.game.entity.MinerNotFull;
+import com.ooqle.game.entity.Obstacle;
+import org.junit.Test;
+import processing.core.PImage;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ActorStoreTests
+{
+    private List<PImage> imgs = Arrays.asList(new PImage(), new PImage(), new PImage());
+
+    @Test
+    public void testObjectsReadAndWriteTheirColumns()
+    {
+        World world = new World(10, 10, new Background(new PImage()));
+        world.setActorStoreEnabled(true);
+        ActorStore store = world.getActorStore();
+        MinerNotFull miner = new MinerNotFull("miner", new Point(2, 3), imgs, 500, 100, 4);
+        world.addWorldObject(miner);
+        world.addWorldObject(new Obstacle("rock", new Point(5, 5), imgs));
+        assertEquals(2, store.size());
+
+        int slot = miner.getSlot();
+        assertSame(store, miner.getStore());
+        assertSame(miner, store.getObject(slot));
+        assertTrue((store.getFlags(slot) & ActorStore.MOVABLE) != 0);
+        assertEquals(2, store.getX(slot));
+        assertEquals(3, store.getHealth(slot));
+
+        miner.setResourceCount(2);
+        miner.takeDamage(1);
+        assertEquals(2, store.getResourceCount(slot));
+        assertEquals(2, miner.getHealth());
+        store.setHealth(slot, 7);
+        assertEquals(7, miner.getHealth());
+
+        // Moving keeps the slot and its columns
+        world.moveWorldObject(miner, new Point(3, 3));
+        assertEquals(slot, miner.getSlot());
+        assertEquals(3, store.getX(slot));
+        assertEquals(2, miner.getResourceCount());
+
+        // Leaving the world writes the columns back
+        world.removeEntity(miner);
+        assertNull(miner.getStore());
+        assertEquals(1, store.size());
+        assertEquals(7, miner.getHealth());
+        assertEquals(2, miner.getResourceCount());
+    }
+
+    @Test
+    public void testAnimationSystemStepsLoopingAnimations()
+    {
+        World world = new World(10, 10, new Background(new PImage()));
+        world.setActorStoreEnabled(true);
+        AnimatedActor actor = new AnimatedActor("actor", "actor", new Point(1, 1), imgs, 100, 100);
+        world.addWorldObject(actor);
+        actor.scheduleAnimation(world);
+        assertTrue(world.getActionScheduler().isEmpty());
+        assertTrue(world.getActorStore().isLooping(actor.getSlot()));
+
+        world.updateOnTime(100);
+        assertEquals(1, actor.getImageIndex());
+        assertTrue(world.getDirtyTiles().get(11));
+        world.updateOnTime(150);
+        assertEquals(1, actor.getImageIndex());
+        world.updateOnTime(200);
+        world.updateOnTime(300);
+        assertEquals(0, actor.getImageIndex());
+
+        // Off again, the scheduler takes the animation back
+        world.setActorStoreEnabled(false);
+        assertNull(world.getActorStore());
+        assertFalse(world.getActionScheduler().isEmpty());
+        world.updateOnTime(400);
+        assertEquals(1, actor.getImageIndex());
+    }
+
+    @Test
+    public void testEnablingAttachesObjectsAlreadyInTheWorld()
+    {
+        World world = new World(10, 10, new Background(new PImage()));
+        MinerNotFull miner = new MinerNotFull("miner", new Point(4, 4), imgs, 500, 100, 4);
+        world.addWorldObject(miner);
+        miner.setResourceCount(3);
+        miner.nextImage();
+
+        world.setActorStoreEnabled(true);
+        ActorStore store = world.getActorStore();
+        assertEquals(1, store.size());
+        assertEquals(3, store.getResourceCount(miner.getSlot()));
+        assertEquals(1, store.getFrame(miner.getSlot()));
+
+        miner.nextImage();
+        world.setActorStoreEnabled(false);
+        assertEquals(2, miner.getImageIndex());
+        assertEquals(3, miner.getResourceCount());
+    }
+}
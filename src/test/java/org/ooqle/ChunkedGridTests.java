@@ -0,0 +1,108 @@
+package test.java.org.ooqle;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.Grid;
+import com.ooqle.game.PaletteChunkPager;
+import com.ooqle.game.Point;
+import com.ooqle.game.World;
+import com.ooqle.game.entity.Background;
+import com.ooqle.game.entity.Obstacle;
+import org.junit.Test;
+import processing.core.PImage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ChunkedGridTests
+{
+    private String empty = "empty";
+
+    @Test
+    public void testChunksAreAllocatedOnFirstWrite()
+    {
+        Grid<String> grid = new Grid<>(100, 70, empty);
+        assertEquals(4, grid.getChunksX());
+        assertEquals(3, grid.getChunksY());
+        assertEquals(0, grid.getResidentChunks());
+
+        grid.setCell(99, 69, empty);
+        assertEquals(0, grid.getResidentChunks());
+        grid.setCell(new Point(40, 33), "rock");
+        assertEquals(1, grid.getResidentChunks());
+        assertTrue(grid.isResident(5));
+        assertEquals("rock", grid.getCell(40, 33));
+        assertSame(empty, grid.getCell(41, 33));
+        assertSame(empty, grid.getCell(99, 69));
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void testRejectsCellsOutsideTheGrid()
+    {
+        // Still inside the last chunk, but not the grid
+        new Grid<>(40, 30, empty).getCell(41, 2);
+    }
+
+    @Test
+    public void testPagesChunksOutAndBackIn() throws IOException
+    {
+        Grid<String> grid = new Grid<>(64, 64, empty);
+        grid.setCell(1, 1, "rock");
+        grid.setCell(40, 40, "rock");
+        grid.setCell(40, 40, empty);
+        // Back to blank, so it can go without a pager; the other cannot
+        assertTrue(grid.pageOut(3));
+        assertFalse(grid.pageOut(0));
+        assertFalse(grid.pageOut(3));
+
+        PaletteChunkPager<String> pager = new PaletteChunkPager<>();
+        grid.setPager(pager);
+        assertTrue(grid.pageOut(0));
+        assertEquals(0, grid.getResidentChunks());
+        assertEquals(1, grid.getPagedOutChunks());
+        assertEquals(2, pager.getPaletteSize());
+
+        assertEquals("rock", grid.getCell(1, 1));
+        assertSame(empty, grid.getCell(2, 1));
+        assertEquals(1, grid.getResidentChunks());
+        assertEquals(0, grid.getPagedOutChunks());
+
+        grid.pageOut(0);
+        grid.setCell(0, 0, "ore");
+        assertEquals("ore", grid.getCell(0, 0));
+        assertEquals("rock", grid.getCell(1, 1));
+        pager.close();
+    }
+
+    @Test
+    public void testWorldPagesOutChunksAwayFromActiveObjects()
+    {
+        Background rocks = new Background(new PImage());
+        World world = new World(160, 32, new Background(new PImage()));
+        world.setBackground(new Point(2, 2), rocks);
+        world.setBackground(new Point(150, 20), rocks);
+        Obstacle far = new Obstacle("rock", new Point(100, 5), Collections.singletonList(new PImage()));
+        world.addWorldObject(far);
+        Obstacle busy = new Obstacle("rock", new Point(10, 10), Collections.singletonList(new PImage()));
+        world.addWorldObject(busy);
+        busy.scheduleAction(world, ticks -> new ArrayList<>(), 1000);
+
+        // Chunks 0 and 1 are kept for the busy rock, and 4 has the only other background tile
+        assertEquals(1, world.pageOutIdle(1));
+        assertTrue(world.getBackgroundGrid().isResident(0));
+        assertFalse(world.getBackgroundGrid().isResident(4));
+        assertEquals(1, world.getBackgroundGrid().getPagedOutChunks());
+
+        assertSame(rocks, world.getBackgroundAt(new Point(150, 20)));
+        assertSame(far, world.getWorldObjectAt(new Point(100, 5)));
+        assertNull(world.getWorldObjectAt(new Point(130, 5)));
+    }
+}
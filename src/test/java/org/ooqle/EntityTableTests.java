@@ -0,0 +1,72 @@
+package test.java.org.ooqle;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.EntityTable;
+import com.ooqle.game.Point;
+import com.ooqle.game.World;
+import com.ooqle.game.entity.Background;
+import com.ooqle.game.entity.Obstacle;
+import com.ooqle.game.entity.WorldObject;
+import org.junit.Test;
+import processing.core.PImage;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class EntityTableTests
+{
+    private List<PImage> imgs = Collections.singletonList(new PImage());
+
+    @Test
+    public void testSlotsAreCountedAndReused()
+    {
+        EntityTable table = new EntityTable();
+        WorldObject a = new Obstacle("a", new Point(0, 0), imgs);
+        WorldObject b = new Obstacle("b", new Point(0, 0), imgs);
+        assertNull(table.get(EntityTable.EMPTY));
+
+        int slotA = table.acquire(a);
+        assertTrue(slotA != EntityTable.EMPTY);
+        assertEquals(slotA, table.acquire(a));
+        int slotB = table.acquire(b);
+        assertSame(b, table.get(slotB));
+        assertEquals(2, table.size());
+
+        table.release(slotA);
+        assertSame(a, table.get(slotA));
+        table.release(slotA);
+        assertNull(table.get(slotA));
+        assertEquals(EntityTable.EMPTY, table.slotOf(a));
+        assertEquals(slotA, table.acquire(new Obstacle("c", new Point(0, 0), imgs)));
+    }
+
+    @Test
+    public void testWorldKeepsOccupancyInSlots()
+    {
+        World world = new World(10, 10, new Background(new PImage()));
+        Obstacle rock = new Obstacle("rock", new Point(3, 4), imgs);
+        world.addWorldObject(rock);
+        int slot = world.getOccupancy().get(3, 4);
+        assertSame(rock, world.getEntityTable().get(slot));
+        assertTrue(world.isOccupied(new Point(3, 4)));
+        assertFalse(world.isPassable(3, 4, Background.class));
+        assertTrue(world.isPassable(3, 4, Obstacle.class));
+
+        world.moveWorldObject(rock, new Point(5, 5));
+        assertEquals(EntityTable.EMPTY, world.getOccupancy().get(3, 4));
+        assertEquals(slot, world.getOccupancy().get(5, 5));
+        assertSame(rock, world.getWorldObjectAt(5, 5));
+
+        world.removeEntity(rock);
+        assertFalse(world.isOccupied(new Point(5, 5)));
+        assertEquals(0, world.getEntityTable().size());
+    }
+}
@@ -0,0 +1,46 @@
+package test.java.org.ooqle;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.HeadlessRuntime;
+import com.ooqle.game.entity.MinerNotFull;
+import com.ooqle.game.util.SpriteHandle;
+import com.ooqle.game.util.Sprites;
+import org.junit.Test;
+import processing.core.PImage;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class HeadlessRuntimeTests
+{
+    @Test
+    public void testSpritesAreHandlesWithoutWindow()
+    {
+        PImage vein = Sprites.getImage("images/vein.png");
+        assertTrue(vein instanceof SpriteHandle);
+        assertEquals("images/vein.png", ((SpriteHandle) vein).getPath());
+        assertSame(vein, Sprites.getImage("images/vein.png"));
+
+        List<PImage> frames = Sprites.getFrames("images/characters/goblin/goblin_die.png", 9);
+        assertEquals(9, frames.size());
+        assertEquals(8, ((SpriteHandle) frames.get(8)).getFrame());
+    }
+
+    @Test
+    public void testRunsNewWorldInFixedSteps()
+    {
+        HeadlessRuntime runtime = HeadlessRuntime.load();
+        assertTrue(runtime.getWorld().countObjectsOfType(MinerNotFull.class) > 0);
+
+        runtime.runFor(60000);
+        assertEquals(60000, runtime.getTime());
+        assertEquals(600, runtime.getSteps());
+        assertEquals(60000, runtime.getWorld().getCurrentGameTime());
+        assertTrue(runtime.getWorld().getActionScheduler().size() > 0);
+    }
+}
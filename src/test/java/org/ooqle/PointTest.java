@@ -7,6 +7,7 @@ import com.ooqle.game.Point;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class PointTest
@@ -42,4 +43,22 @@ public class PointTest
     {
         assertEquals(new Point(1, 2), new Point(1, 2));
     }
+
+    @Test
+    public void testPackRoundTrips()
+    {
+        assertEquals(pt, Point.unpack(pt.pack()));
+        long packed = Point.pack(-3, 70000);
+        assertEquals(-3, Point.unpackX(packed));
+        assertEquals(70000, Point.unpackY(packed));
+        assertEquals(new Point(4, -1), Point.unpack(Point.pack(4, -1)));
+        assertFalse(Point.NONE == Point.pack(0, 0));
+    }
+
+    @Test
+    public void testHashCodeMatchesEquals()
+    {
+        assertEquals(new Point(1, 2).hashCode(), new Point(1, 2).hashCode());
+        assertFalse(new Point(1, 2).hashCode() == new Point(2, 1).hashCode());
+    }
 }
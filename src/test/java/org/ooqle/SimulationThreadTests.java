@@ -0,0 +1,112 @@
+package test.java.org.ooqle;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.HeadlessRuntime;
+import com.ooqle.game.Point;
+import com.ooqle.game.RenderSnapshot;
+import com.ooqle.game.SimulationThread;
+import com.ooqle.game.World;
+import com.ooqle.game.entity.Background;
+import com.ooqle.game.entity.Obstacle;
+import org.junit.Test;
+import processing.core.PImage;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SimulationThreadTests
+{
+    private PImage grass = new PImage();
+    private World world = new World(4, 3, new Background(grass));
+
+    @Test
+    public void testCommandsShowUpInNextSnapshot()
+    {
+        SimulationThread simulation = new SimulationThread(new HeadlessRuntime(world, 100));
+        RenderSnapshot first = simulation.getSnapshot();
+        assertEquals(0, first.getCount());
+        assertSame(grass, first.getBackground(3, 2));
+
+        PImage rock = new PImage();
+        simulation.submit(w -> w.addWorldObject(new Obstacle("rock", new Point(2, 1), Collections.singletonList(rock))));
+        assertEquals(0, world.getWorldObjects().size());
+        assertSame(first, simulation.getSnapshot());
+
+        simulation.submit(w -> w.setBackground(new Point(1, 1), new Background(rock)));
+        simulation.update(2);
+        RenderSnapshot second = simulation.getSnapshot();
+        assertNotSame(first, second);
+        assertEquals(200, second.getTime());
+        assertEquals(1, second.getCount());
+        assertEquals(2, second.getX(0));
+        assertEquals(1, second.getY(0));
+        assertSame(rock, second.getImage(0));
+        assertSame(rock, second.getBackground(1, 1));
+        // The snapshot being drawn is left alone by later steps
+        assertEquals(0, first.getCount());
+        assertSame(grass, first.getBackground(1, 1));
+    }
+
+    @Test
+    public void testReaderAlwaysGetsNewestSnapshot()
+    {
+        SimulationThread simulation = new SimulationThread(new HeadlessRuntime(world, 100));
+        for (int i = 1; i <= 5; i++)
+        {
+            simulation.update(1);
+            simulation.update(1);
+            RenderSnapshot snapshot = simulation.getSnapshot();
+            assertEquals(i * 200, snapshot.getTime());
+            assertSame(snapshot, simulation.getSnapshot());
+        }
+    }
+
+    @Test
+    public void testSnapshotsCarryDirtyTilesUntilRead()
+    {
+        SimulationThread simulation = new SimulationThread(new HeadlessRuntime(world, 100));
+        assertTrue(simulation.getSnapshot().isFullRedraw());
+
+        PImage rock = new PImage();
+        simulation.submit(w -> w.addWorldObject(new Obstacle("rock", new Point(2, 1), Collections.singletonList(rock))));
+        simulation.update(0);
+        simulation.submit(w -> w.addWorldObject(new Obstacle("rock", new Point(0, 2), Collections.singletonList(rock))));
+        simulation.update(0);
+        // Never read the first of those two snapshots, so the second has to cover both
+        RenderSnapshot snapshot = simulation.getSnapshot();
+        assertFalse(snapshot.isFullRedraw());
+        assertEquals(2, snapshot.getDirtyTiles().cardinality());
+        assertTrue(snapshot.getDirtyTiles().get(1 * 4 + 2));
+        assertTrue(snapshot.getDirtyTiles().get(2 * 4 + 0));
+
+        // Tiles returned by actions count too, even when nothing on the grid moved
+        world.scheduleAction(ticks -> Collections.singletonList(new Point(3, 0)), 50);
+        simulation.update(1);
+        snapshot = simulation.getSnapshot();
+        assertEquals(1, snapshot.getDirtyTiles().cardinality());
+        assertTrue(snapshot.getDirtyTiles().get(3));
+        assertTrue(world.getDirtyTiles().isEmpty());
+    }
+
+    @Test
+    public void testThreadStepsAndStops() throws InterruptedException
+    {
+        SimulationThread simulation = new SimulationThread(new HeadlessRuntime(world, 10));
+        simulation.start();
+        Thread.sleep(200);
+        simulation.stop();
+
+        long steps = simulation.getRuntime().getSteps();
+        assertTrue(steps > 0);
+        Thread.sleep(50);
+        assertEquals(steps, simulation.getRuntime().getSteps());
+        assertEquals(steps * 10, simulation.getSnapshot().getTime());
+    }
+}
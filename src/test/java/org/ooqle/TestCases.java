@@ -6,18 +6,31 @@ package test.java.org.ooqle;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import test.java.org.ooqle.entity.*;
+import test.java.org.ooqle.path.AStarPathFinderTests;
+import test.java.org.ooqle.path.FlowFieldTests;
+import test.java.org.ooqle.path.HierarchicalPathFinderTests;
+import test.java.org.ooqle.path.JumpPointPathFinderTests;
+import test.java.org.ooqle.util.AssetManagerTests;
 import test.java.org.ooqle.util.GameUtilsTests;
+import test.java.org.ooqle.util.JsonWorldReaderTests;
+import test.java.org.ooqle.util.TimingWheelSchedulerTests;
 import test.java.org.ooqle.util.TupleTests;
+import test.java.org.ooqle.util.WorldFileTests;
+import test.java.org.ooqle.util.WorldSaverTests;
 
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
         PointTest.class,
         GridTest.class,
+        ChunkedGridTests.class,
+        EntityTableTests.class,
+        ActorStoreTests.class,
         WorldTest.class,
         AnimatedActorTest.class,
         TupleTests.class,
         MinerTests.class,
         MinerFullTests.class,
+        RouteCacheTests.class,
         MoveableActorTest.class,
         OreTests.class,
         VeinTests.class,
@@ -25,7 +38,19 @@ import test.java.org.ooqle.util.TupleTests;
         GameUtilsTests.class,
         OreBlobTests.class,
         MinerNotFullTests.class,
-        BlacksmithTests.class
+        BlacksmithTests.class,
+        TimingWheelSchedulerTests.class,
+        AStarPathFinderTests.class,
+        JumpPointPathFinderTests.class,
+        HierarchicalPathFinderTests.class,
+        FlowFieldTests.class,
+        TickPlannerTests.class,
+        HeadlessRuntimeTests.class,
+        SimulationThreadTests.class,
+        AssetManagerTests.class,
+        WorldFileTests.class,
+        WorldSaverTests.class,
+        JsonWorldReaderTests.class
 })
 public class TestCases
 {
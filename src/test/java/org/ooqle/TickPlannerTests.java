@@ -0,0 +1,100 @@
+package test.java.org.ooqle;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.Point;
+import com.ooqle.game.World;
+import com.ooqle.game.entity.Background;
+import com.ooqle.game.entity.Blacksmith;
+import com.ooqle.game.entity.MinerNotFull;
+import com.ooqle.game.entity.Obstacle;
+import com.ooqle.game.entity.Ore;
+import com.ooqle.game.entity.WorldObject;
+import org.junit.Test;
+import processing.core.PImage;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TickPlannerTests
+{
+    private List<PImage> imgs = Collections.singletonList(new PImage());
+
+    private World crowdedWorld()
+    {
+        Random random = new Random(3);
+        World world = new World(40, 30, new Background(new PImage()));
+        for (int i = 0; i < 300; i++)
+        {
+            Point pt = new Point(random.nextInt(40), random.nextInt(30));
+            if (!world.isOccupied(pt))
+            {
+                world.addWorldObject(i % 3 == 0 ? new Ore("ore", pt, imgs, 0) : new Obstacle("wall", pt, imgs));
+            }
+        }
+        world.addWorldObject(new Blacksmith("blacksmith", new Point(20, 15), 0, imgs));
+        for (int i = 0; i < 60; i++)
+        {
+            Point pt = new Point(random.nextInt(40), random.nextInt(30));
+            if (!world.isOccupied(pt))
+            {
+                MinerNotFull miner = new MinerNotFull("miner", pt, imgs, 300 + 100 * (i % 3), 100, 2);
+                world.addWorldObject(miner);
+                miner.schedule(world, 0);
+            }
+        }
+        return world;
+    }
+
+    private List<String> positions(World world)
+    {
+        List<String> out = new ArrayList<>();
+        for (WorldObject obj : world.getWorldObjects())
+        {
+            out.add(obj.getClass().getSimpleName() + obj.getPosition());
+        }
+        return out;
+    }
+
+    @Test
+    public void testMatchesSerialTicks()
+    {
+        World serial = crowdedWorld();
+        World parallel = crowdedWorld();
+        parallel.setTickThreads(4);
+        assertEquals(4, parallel.getTickThreads());
+
+        for (long ticks = 100; ticks <= 20000; ticks += 100)
+        {
+            serial.updateOnTime(ticks);
+            parallel.updateOnTime(ticks);
+            assertEquals(positions(serial), positions(parallel));
+        }
+        assertTrue(parallel.getRouteStats().getPlansUsed() > 0);
+        assertEquals(serial.getRouteStats().getHits(), parallel.getRouteStats().getHits());
+
+        parallel.setTickThreads(1);
+        assertEquals(1, parallel.getTickThreads());
+    }
+
+    @Test
+    public void testChangedSince()
+    {
+        World world = new World(40, 40, new Background(new PImage()));
+        long before = world.getGridMutations();
+        world.addWorldObject(new Obstacle("wall", new Point(20, 21), imgs));
+
+        assertTrue(world.changedSince(new Rectangle(18, 18, 5, 5), before));
+        assertFalse(world.changedSince(new Rectangle(18, 18, 5, 3), before));
+        assertFalse(world.changedSince(new Rectangle(0, 0, 40, 40), world.getGridMutations()));
+        assertTrue(world.changedSince(new Rectangle(-5, -5, 100, 100), before));
+    }
+}
@@ -3,6 +3,7 @@ package test.java.org.ooqle;
 import com.ooqle.game.Point;
 import com.ooqle.game.World;
 import com.ooqle.game.entity.Background;
+import com.ooqle.game.entity.Obstacle;
 import com.ooqle.game.entity.Ore;
 import com.ooqle.game.entity.WorldObject;
 import org.junit.Test;
@@ -43,6 +44,26 @@ public class WorldTest
         assertEquals(theworld.findNearestOfType(new Point(4, 4), Ore.class).getName(), "augie");
     }
 
+    @Test
+    public void testFindNearestOfTypeTie()
+    {
+        theworld.addWorldObject(new Ore("first", new Point(2, 5), imgs, 3));
+        theworld.addWorldObject(new Ore("second", new Point(6, 5), imgs, 3));
+
+        assertEquals(theworld.findNearestOfType(new Point(4, 5), Ore.class).getName(), "first");
+    }
+
+    @Test
+    public void testFindNearestOfTypeAfterMove()
+    {
+        Ore far = new Ore("far", new Point(9, 9), imgs, 3);
+        theworld.addWorldObject(new Ore("near", new Point(2, 2), imgs, 3));
+        theworld.addWorldObject(far);
+        theworld.moveWorldObject(far, new Point(0, 1));
+
+        assertEquals(theworld.findNearestOfType(new Point(0, 0), Ore.class).getName(), "far");
+    }
+
     @Test
     public void testAddEntity()
     {
@@ -110,6 +131,23 @@ public class WorldTest
         assertEquals(theworld.getWorldObjectAt(kenny.getPosition()), kenny);
     }
 
+    @Test
+    public void testGetObjectsOfType()
+    {
+        theworld.addWorldObject(eric);
+        theworld.addWorldObject(new Obstacle("rock", new Point(5, 5), imgs));
+        theworld.addWorldObject(kenny);
+
+        List<Ore> ores = theworld.getObjectsOfType(Ore.class);
+        assertEquals(ores.size(), 2);
+        assertEquals(ores.get(0), eric);
+        assertEquals(ores.get(1), kenny);
+        assertEquals(theworld.countObjectsOfType(WorldObject.class), 3);
+
+        theworld.removeEntity(eric);
+        assertEquals(theworld.countObjectsOfType(Ore.class), 1);
+    }
+
     @Test
     public void testGetEntities()
     {
@@ -0,0 +1,122 @@
+package test.java.org.ooqle.entity;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.Point;
+import com.ooqle.game.World;
+import com.ooqle.game.entity.Background;
+import com.ooqle.game.entity.MinerNotFull;
+import com.ooqle.game.entity.Obstacle;
+import com.ooqle.game.path.RouteCacheStats;
+import com.ooqle.game.util.WorldObjectSettings;
+import org.junit.Test;
+import processing.core.PImage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RouteCacheTests
+{
+    private World world = new World(40, 3, new Background(new PImage()));
+    private RouteCacheStats stats = world.getRouteStats();
+    private MinerNotFull miner = new MinerNotFull("miner", new Point(0, 0), new ArrayList<>(), 500, 100, 2);
+
+    public RouteCacheTests()
+    {
+        world.addWorldObject(miner);
+    }
+
+    /**
+     * Asks for the next step towards dest and takes it
+     */
+    private Point step(Point dest)
+    {
+        Point next = miner.nextPosition(world, dest);
+        world.moveWorldObject(miner, next);
+        return next;
+    }
+
+    @Test
+    public void testFollowsCachedRoute()
+    {
+        Point dest = new Point(5, 0);
+        assertNull(miner.getPath());
+        assertEquals(new Point(1, 0), step(dest));
+        assertEquals(1, stats.getNoRouteMisses());
+        assertEquals(Arrays.asList(new Point(2, 0), new Point(3, 0), new Point(4, 0), new Point(5, 0)), miner.getPath());
+
+        assertEquals(new Point(2, 0), step(dest));
+        assertEquals(new Point(3, 0), step(dest));
+        assertEquals(2, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(2.0 / 3, stats.getHitRate(), 1e-9);
+        // The path follows the route rather than staying as the search left it
+        assertEquals(Arrays.asList(new Point(4, 0), new Point(5, 0)), miner.getPath());
+    }
+
+    @Test
+    public void testMissesWhenGoalChanges()
+    {
+        step(new Point(5, 0));
+        assertEquals(new Point(1, 1), step(new Point(1, 2)));
+        assertEquals(1, stats.getGoalChangedMisses());
+        assertEquals(0, stats.getHits());
+    }
+
+    @Test
+    public void testMissesWhenCellAheadIsBlocked()
+    {
+        Point dest = new Point(5, 0);
+        step(dest);
+        // Written since the route was planned, but still open, so the route holds
+        world.addWorldObject(new Obstacle("wall", new Point(3, 0), new ArrayList<>()));
+        world.removeEntityAt(new Point(3, 0));
+        step(dest);
+        assertEquals(1, stats.getHits());
+
+        world.addWorldObject(new Obstacle("wall", new Point(3, 0), new ArrayList<>()));
+        assertEquals(new Point(2, 1), step(dest));
+        assertEquals(1, stats.getBlockedMisses());
+        assertEquals(1, stats.getHits());
+    }
+
+    @Test
+    public void testMissesWhenRouteExpires()
+    {
+        Point dest = new Point(39, 0);
+        step(dest);
+        for (int i = 0; i < WorldObjectSettings.ROUTE_MAX_AGE; i++)
+        {
+            step(dest);
+        }
+        assertEquals(WorldObjectSettings.ROUTE_MAX_AGE, stats.getHits());
+        assertEquals(0, stats.getExpiredMisses());
+
+        assertEquals(new Point(WorldObjectSettings.ROUTE_MAX_AGE + 2, 0), step(dest));
+        assertEquals(1, stats.getExpiredMisses());
+        // Planned again, so followed again
+        step(dest);
+        assertEquals(WorldObjectSettings.ROUTE_MAX_AGE + 1, stats.getHits());
+    }
+
+    @Test
+    public void testMissesWhenActorStrays()
+    {
+        Point dest = new Point(5, 0);
+        step(dest);
+        world.moveWorldObject(miner, new Point(1, 2));
+        assertTrue(new Point(1, 2).adjacent(step(dest)));
+        assertEquals(1, stats.getStrayedMisses());
+
+        // A step that was never taken is the same as straying
+        miner.nextPosition(world, dest);
+        miner.nextPosition(world, dest);
+        assertEquals(2, stats.getStrayedMisses());
+        assertEquals(3, stats.getMisses());
+    }
+}
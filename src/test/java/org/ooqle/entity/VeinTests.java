@@ -15,6 +15,7 @@ import processing.core.PImage;
 import java.util.Arrays;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class VeinTests
 {
@@ -43,6 +44,19 @@ public class VeinTests
         assertEquals(new Point(1, 0), p);
     }
 
+    @Test
+    public void testFindOpenCell()
+    {
+        assertEquals(Point.pack(0, 0), v.findOpenCell(world));
+        world.addWorldObject(new WorldObject("e", "t", new Point(0, 0), Arrays.asList(Game.getImage("images/ore.bmp")), 1));
+        world.addWorldObject(new WorldObject("e", "t", new Point(1, 0), Arrays.asList(Game.getImage("images/ore.bmp")), 1));
+        assertEquals(Point.pack(0, 1), v.findOpenCell(world));
+        world.addWorldObject(new WorldObject("e", "t", new Point(0, 1), Arrays.asList(Game.getImage("images/ore.bmp")), 1));
+        world.addWorldObject(new WorldObject("e", "t", new Point(1, 1), Arrays.asList(Game.getImage("images/ore.bmp")), 1));
+        assertEquals(Point.NONE, v.findOpenCell(world));
+        assertNull(v.findOpenAround(world));
+    }
+
     @Test
     public void testEntityString()
     {
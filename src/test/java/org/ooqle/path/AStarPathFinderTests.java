@@ -0,0 +1,55 @@
+package test.java.org.ooqle.path;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.Point;
+import com.ooqle.game.World;
+import com.ooqle.game.entity.Background;
+import com.ooqle.game.entity.Obstacle;
+import com.ooqle.game.entity.Ore;
+import com.ooqle.game.path.AStarPathFinder;
+import org.junit.Test;
+import processing.core.PImage;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AStarPathFinderTests
+{
+    private World world = new World(5, 5, new Background(new PImage()));
+    private AStarPathFinder finder = new AStarPathFinder();
+
+    @Test
+    public void testStraightPath()
+    {
+        assertTrue(finder.findPath(world, world.toCell(new Point(0, 0)), world.toCell(new Point(3, 0)), Ore.class));
+        assertEquals(4, finder.getPathLength());
+        assertEquals(world.toCell(new Point(0, 0)), finder.getPathCell(0));
+        assertEquals(world.toCell(new Point(3, 0)), finder.getPathCell(3));
+    }
+
+    @Test
+    public void testAroundWall()
+    {
+        for (int y = 0; y < 4; y++)
+        {
+            world.addWorldObject(new Obstacle("wall", new Point(2, y), new ArrayList<>()));
+        }
+        assertTrue(finder.findPath(world, world.toCell(new Point(0, 0)), world.toCell(new Point(4, 0)), Ore.class));
+        assertEquals(13, finder.getPathLength());
+    }
+
+    @Test
+    public void testUnreachable()
+    {
+        for (int y = 0; y < 5; y++)
+        {
+            world.addWorldObject(new Obstacle("wall", new Point(2, y), new ArrayList<>()));
+        }
+        assertFalse(finder.findPath(world, world.toCell(new Point(0, 0)), world.toCell(new Point(4, 0)), Ore.class));
+    }
+}
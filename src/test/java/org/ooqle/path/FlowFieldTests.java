@@ -0,0 +1,139 @@
+package test.java.org.ooqle.path;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.Point;
+import com.ooqle.game.World;
+import com.ooqle.game.entity.Background;
+import com.ooqle.game.entity.MinerNotFull;
+import com.ooqle.game.entity.Obstacle;
+import com.ooqle.game.entity.Ore;
+import com.ooqle.game.path.FlowField;
+import org.junit.Test;
+import processing.core.PImage;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FlowFieldTests
+{
+    private World world = new World(10, 5, new Background(new PImage()));
+    private FlowField field = new FlowField(Ore.class);
+
+    private int cell(int x, int y)
+    {
+        return world.toCell(new Point(x, y));
+    }
+
+    private void addOre(int x, int y)
+    {
+        world.addWorldObject(new Ore("ore", new Point(x, y), new ArrayList<>(), 20000));
+    }
+
+    private void addWall(int x, int y)
+    {
+        world.addWorldObject(new Obstacle("wall", new Point(x, y), new ArrayList<>()));
+    }
+
+    private void addMiner(int x, int y)
+    {
+        world.addWorldObject(new MinerNotFull("miner", new Point(x, y), new ArrayList<>(), 500, 100, 2));
+    }
+
+    @Test
+    public void testDistancesFromSeveralSources()
+    {
+        addOre(0, 0);
+        addOre(9, 4);
+        addWall(5, 0);
+        addWall(5, 1);
+        addMiner(1, 0);
+        field.build(world);
+
+        assertEquals(0, field.getDistance(cell(0, 0)));
+        assertEquals(0, field.getDistance(cell(9, 4)));
+        // Nearest to the first ore, then to the second
+        assertEquals(6, field.getDistance(cell(4, 2)));
+        assertEquals(6, field.getDistance(cell(6, 1)));
+        // Around the wall from the second ore rather than straight along the top from the first
+        assertEquals(7, field.getDistance(cell(6, 0)));
+        // Moving actors do not block the field
+        assertEquals(1, field.getDistance(cell(1, 0)));
+        assertEquals(FlowField.UNREACHABLE, field.getDistance(cell(5, 0)));
+    }
+
+    @Test
+    public void testNextStepNeverEntersAnOccupiedCell()
+    {
+        addOre(0, 0);
+        addMiner(1, 0);
+        addWall(3, 1);
+        field.build(world);
+
+        // North is as close as west, but holds a miner
+        assertEquals(cell(0, 1), field.nextStep(world, cell(1, 1)));
+        // The only closer neighbor holds a miner
+        assertEquals(-1, field.nextStep(world, cell(2, 0)));
+        // Goals can be stepped onto
+        assertEquals(cell(0, 0), field.nextStep(world, cell(1, 0)));
+
+        for (int start = 0; start < 50; start++)
+        {
+            int step = field.nextStep(world, start);
+            if (step != -1)
+            {
+                Point pt = world.toPoint(step);
+                assertTrue(world.isPassable(pt.getX(), pt.getY(), Ore.class));
+                assertTrue(field.getDistance(step) < field.getDistance(start));
+            }
+        }
+    }
+
+    @Test
+    public void testUnreachableWhenNoGoalCanBeReached()
+    {
+        field.build(world);
+        for (int c = 0; c < 50; c++)
+        {
+            assertEquals(FlowField.UNREACHABLE, field.getDistance(c));
+            assertEquals(-1, field.nextStep(world, c));
+        }
+
+        addOre(0, 0);
+        addWall(1, 0);
+        addWall(0, 1);
+        field.build(world);
+        assertEquals(FlowField.UNREACHABLE, field.getDistance(cell(4, 2)));
+        assertEquals(-1, field.nextStep(world, cell(4, 2)));
+        assertEquals(-1, field.nextStep(world, cell(1, 1)));
+    }
+
+    @Test
+    public void testRebuildsOnlyWhenTheGridChanges()
+    {
+        addOre(0, 0);
+        field.update(world);
+        assertEquals(1, field.getBuilds());
+
+        world.updateOnTime(100);
+        field.update(world);
+        assertEquals(1, field.getBuilds());
+
+        addWall(3, 3);
+        world.updateOnTime(200);
+        field.update(world);
+        assertEquals(2, field.getBuilds());
+        assertEquals(FlowField.UNREACHABLE, field.getDistance(cell(3, 3)));
+
+        // Built at most once a tick, even if the grid changes again
+        addWall(4, 4);
+        field.update(world);
+        assertEquals(2, field.getBuilds());
+        world.updateOnTime(300);
+        field.update(world);
+        assertEquals(3, field.getBuilds());
+    }
+}
@@ -0,0 +1,95 @@
+package test.java.org.ooqle.path;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.Point;
+import com.ooqle.game.World;
+import com.ooqle.game.entity.Background;
+import com.ooqle.game.entity.Obstacle;
+import com.ooqle.game.entity.Ore;
+import com.ooqle.game.path.AStarPathFinder;
+import com.ooqle.game.path.HierarchicalPathFinder;
+import org.junit.Test;
+import processing.core.PImage;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HierarchicalPathFinderTests
+{
+    private World world = new World(32, 32, new Background(new PImage()));
+    private HierarchicalPathFinder finder = new HierarchicalPathFinder(8);
+
+    private void wall(int x, int gapY)
+    {
+        for (int y = 0; y < 32; y++)
+        {
+            if (y != gapY)
+            {
+                world.addWorldObject(new Obstacle("wall", new Point(x, y), new ArrayList<>()));
+            }
+        }
+    }
+
+    @Test
+    public void testPathAcrossClusters()
+    {
+        wall(12, 30);
+        int start = world.toCell(new Point(1, 1));
+        int goal = world.toCell(new Point(30, 2));
+        assertTrue(finder.findPath(world, start, goal, Ore.class));
+        assertEquals(start, finder.getPathCell(0));
+        assertEquals(goal, finder.getPathCell(finder.getPathLength() - 1));
+        for (int i = 1; i < finder.getPathLength(); i++)
+        {
+            Point prev = world.toPoint(finder.getPathCell(i - 1));
+            Point next = world.toPoint(finder.getPathCell(i));
+            assertTrue(prev.adjacent(next));
+            assertFalse(world.isOccupied(next));
+        }
+
+        AStarPathFinder astar = new AStarPathFinder();
+        assertTrue(astar.findPath(world, start, goal, Ore.class));
+        assertTrue(finder.getPathLength() >= astar.getPathLength());
+    }
+
+    @Test
+    public void testRepairsAfterObstacleChange()
+    {
+        wall(12, 30);
+        int start = world.toCell(new Point(1, 1));
+        int goal = world.toCell(new Point(30, 2));
+        assertTrue(finder.findPath(world, start, goal, Ore.class));
+
+        world.addWorldObject(new Obstacle("wall", new Point(12, 30), new ArrayList<>()));
+        assertFalse(finder.findPath(world, start, goal, Ore.class));
+
+        world.removeEntityAt(new Point(12, 5));
+        assertTrue(finder.findPath(world, start, goal, Ore.class));
+        boolean throughGap = false;
+        for (int i = 0; i < finder.getPathLength(); i++)
+        {
+            throughGap |= finder.getPathCell(i) == world.toCell(new Point(12, 5));
+        }
+        assertTrue(throughGap);
+    }
+
+    @Test
+    public void testGoalOnClusterBorder()
+    {
+        // The ore sits in the last column of its cluster and can only be reached from the next cluster over
+        world.addWorldObject(new Ore("ore", new Point(7, 4), new ArrayList<>(), 0));
+        world.addWorldObject(new Obstacle("wall", new Point(6, 4), new ArrayList<>()));
+        world.addWorldObject(new Obstacle("wall", new Point(7, 3), new ArrayList<>()));
+        world.addWorldObject(new Obstacle("wall", new Point(7, 5), new ArrayList<>()));
+
+        int start = world.toCell(new Point(20, 20));
+        int goal = world.toCell(new Point(7, 4));
+        assertTrue(finder.findPath(world, start, goal, Ore.class));
+        assertEquals(world.toCell(new Point(8, 4)), finder.getPathCell(finder.getPathLength() - 2));
+    }
+}
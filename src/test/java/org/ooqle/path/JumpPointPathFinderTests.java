@@ -0,0 +1,142 @@
+package test.java.org.ooqle.path;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.Grid;
+import com.ooqle.game.Point;
+import com.ooqle.game.World;
+import com.ooqle.game.entity.Background;
+import com.ooqle.game.entity.Blacksmith;
+import com.ooqle.game.entity.Obstacle;
+import com.ooqle.game.entity.Ore;
+import com.ooqle.game.entity.WorldObject;
+import com.ooqle.game.path.AStarPathFinder;
+import com.ooqle.game.path.JumpPointPathFinder;
+import org.junit.Test;
+import processing.core.PImage;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JumpPointPathFinderTests
+{
+    private World world = new World(8, 8, new Background(new PImage()));
+    private JumpPointPathFinder finder = new JumpPointPathFinder();
+
+    @Test
+    public void testPathIsExpanded()
+    {
+        assertTrue(finder.findPath(world, world.toCell(new Point(0, 0)), world.toCell(new Point(5, 3)), Ore.class));
+        assertEquals(9, finder.getPathLength());
+        for (int i = 1; i < finder.getPathLength(); i++)
+        {
+            assertTrue(world.toPoint(finder.getPathCell(i - 1)).adjacent(world.toPoint(finder.getPathCell(i))));
+        }
+        assertEquals(world.toCell(new Point(5, 3)), finder.getPathCell(8));
+    }
+
+    @Test
+    public void testSameLengthAsAStar()
+    {
+        for (int y = 0; y < 7; y++)
+        {
+            world.addWorldObject(new Obstacle("wall", new Point(3, y), new ArrayList<>()));
+        }
+        world.addWorldObject(new Obstacle("wall", new Point(5, 7), new ArrayList<>()));
+        world.addWorldObject(new Obstacle("wall", new Point(6, 2), new ArrayList<>()));
+
+        AStarPathFinder astar = new AStarPathFinder();
+        for (int start = 0; start < 64; start++)
+        {
+            for (int goal = 0; goal < 64; goal++)
+            {
+                boolean found = astar.findPath(world, start, goal, Ore.class);
+                assertEquals(found, finder.findPath(world, start, goal, Ore.class));
+                if (found)
+                {
+                    assertEquals(astar.getPathLength(), finder.getPathLength());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSeesGridChanges()
+    {
+        int start = world.toCell(new Point(0, 0));
+        int goal = world.toCell(new Point(7, 0));
+        assertTrue(finder.findPath(world, start, goal, Ore.class));
+        for (int y = 0; y < 8; y++)
+        {
+            world.addWorldObject(new Obstacle("wall", new Point(4, y), new ArrayList<>()));
+        }
+        assertFalse(finder.findPath(world, start, goal, Ore.class));
+    }
+
+    @Test
+    public void testPatchedTablesMatchRebuiltOnes()
+    {
+        World big = new World(24, 24, new Background(new PImage()));
+        Random random = new Random(7);
+        for (int i = 0; i < 400; i++)
+        {
+            // Change a cell, then check a search against a finder that builds its tables from scratch
+            Point pt = new Point(random.nextInt(24), random.nextInt(24));
+            if (big.isOccupied(pt))
+            {
+                big.removeEntityAt(pt);
+            }
+            else if (random.nextInt(4) == 0)
+            {
+                big.addWorldObject(new Blacksmith("blacksmith", pt, 0, new ArrayList<>()));
+            }
+            else
+            {
+                big.addWorldObject(new Obstacle("wall", pt, new ArrayList<>()));
+            }
+
+            Class<? extends WorldObject> goalType = i % 3 == 0 ? Blacksmith.class : Ore.class;
+            int start = random.nextInt(24 * 24);
+            int goal = random.nextInt(24 * 24);
+            JumpPointPathFinder fresh = new JumpPointPathFinder();
+            boolean found = fresh.findPath(big, start, goal, goalType);
+            assertEquals(found, finder.findPath(big, start, goal, goalType));
+            if (found)
+            {
+                assertEquals(fresh.getPathLength(), finder.getPathLength());
+                for (int j = 0; j < fresh.getPathLength(); j++)
+                {
+                    assertEquals(fresh.getPathCell(j), finder.getPathCell(j));
+                }
+            }
+            big.removeGridListener(fresh);
+        }
+    }
+
+    @Test
+    public void testFollowsWorldAndGridSwaps()
+    {
+        int start = world.toCell(new Point(0, 0));
+        int goal = world.toCell(new Point(7, 0));
+        assertTrue(finder.findPath(world, start, goal, Ore.class));
+
+        World walled = new World(8, 8, new Background(new PImage()));
+        for (int y = 0; y < 8; y++)
+        {
+            walled.addWorldObject(new Obstacle("wall", new Point(4, y), new ArrayList<>()));
+        }
+        assertFalse(finder.findPath(walled, start, goal, Ore.class));
+        // No longer listening to the first world, so its tables are built again
+        world.addWorldObject(new Obstacle("wall", new Point(1, 0), new ArrayList<>()));
+        assertTrue(finder.findPath(world, start, goal, Ore.class));
+        assertEquals(10, finder.getPathLength());
+
+        walled.setWorldObjectGrid(new Grid<>(8, 8, null));
+        assertTrue(finder.findPath(walled, start, goal, Ore.class));
+    }
+}
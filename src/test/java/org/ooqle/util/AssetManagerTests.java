@@ -0,0 +1,93 @@
+package test.java.org.ooqle.util;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.util.AssetManager;
+import com.ooqle.game.util.PhaseTimer;
+import org.junit.Test;
+import processing.core.PImage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class AssetManagerTests
+{
+    private Map<String, AtomicInteger> decodes = new ConcurrentHashMap<>();
+
+    private AssetManager create() throws IOException
+    {
+        File root = Files.createTempDirectory("assets").toFile();
+        for (String path : new String[]{"images/ore.png", "images/background/tile.bmp",
+                "images/characters/goblin/goblin_die.png", "audio/music.mp3"})
+        {
+            File f = new File(root, path);
+            f.getParentFile().mkdirs();
+            f.createNewFile();
+            f.deleteOnExit();
+        }
+        return new AssetManager(root, f ->
+        {
+            decodes.computeIfAbsent(f.getName(), name -> new AtomicInteger()).incrementAndGet();
+            return new PImage(8, 2);
+        });
+    }
+
+    @Test
+    public void testDecodesRequiredImagesUpFront() throws IOException
+    {
+        AssetManager assets = create();
+        assets.index();
+        assertEquals(3, assets.getPaths().size());
+        assertTrue(assets.getPaths().contains("images/background/tile.bmp"));
+
+        assets.loadRequired(2);
+        assets.awaitReady();
+        assertTrue(assets.isReady());
+        assertEquals(2, assets.getRequiredCount());
+        assertTrue(assets.getRequiredNanos() >= 0);
+        assertEquals(1, decodes.get("ore.png").get());
+        assertEquals(1, decodes.get("tile.bmp").get());
+        assertNull(decodes.get("goblin_die.png"));
+
+        assertSame(assets.getImage("images/ore.png"), assets.getImage("images/ore.png"));
+        assertEquals(1, decodes.get("ore.png").get());
+        assertEquals(0, assets.getLazyLoads());
+        assertNull(assets.getImage("images/missing.png"));
+    }
+
+    @Test
+    public void testDecodesBattleImagesOnFirstUse() throws IOException
+    {
+        AssetManager assets = create();
+        assets.index();
+        assets.loadRequired(1);
+        assets.awaitReady();
+
+        assertEquals(4, assets.getFrames("images/characters/goblin/goblin_die.png", 4).size());
+        assets.getImage("images/characters/goblin/goblin_die.png");
+        assertEquals(1, decodes.get("goblin_die.png").get());
+        assertEquals(1, assets.getLazyLoads());
+    }
+
+    @Test
+    public void testPhaseTimer()
+    {
+        PhaseTimer timer = new PhaseTimer();
+        timer.mark("index");
+        timer.mark("images");
+        timer.mark("index");
+        assertEquals(2, timer.getPhases().size());
+        assertEquals("index", timer.getPhases().keySet().iterator().next());
+        assertEquals(timer.getTotal(), timer.getPhases().get("index") + timer.getPhases().get("images"));
+    }
+}
@@ -1,9 +1,15 @@
 package test.java.org.ooqle.util;
 
 import com.ooqle.game.util.GameUtils;
+import com.ooqle.game.util.SpriteCache;
 import org.junit.Test;
+import processing.core.PImage;
+
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 /**
  * Created by augiedoebling on 5/4/15.
@@ -16,4 +22,57 @@ public class GameUtilsTests
         assertEquals(GameUtils.sign(2), 1);
         assertEquals(GameUtils.sign(-3), -1);
     }
+
+    @Test
+    public void testSpriteCacheSharesFrames()
+    {
+        SpriteCache cache = new SpriteCache(1000);
+        PImage sheet = new PImage(12, 4);
+        sheet.pixels[5] = 0xff00ff00;
+
+        List<PImage> frames = cache.getFrames("sheet.png", sheet, 3);
+        assertEquals(3, frames.size());
+        assertEquals(4, frames.get(1).width);
+        assertEquals(0xff00ff00, frames.get(1).pixels[1]);
+        assertSame(frames, cache.getFrames("sheet.png", sheet, 3));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(48, cache.getPixels());
+
+        // A new image under the same path is cut again
+        assertNotSame(frames, cache.getFrames("sheet.png", new PImage(12, 4), 3));
+        assertEquals(2, cache.getMisses());
+        assertEquals(48, cache.getPixels());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSpriteCacheFramesAreUnmodifiable()
+    {
+        new SpriteCache(1000).getFrames("sheet.png", new PImage(4, 4), 2).add(new PImage());
+    }
+
+    @Test
+    public void testSpriteCacheEvictsLeastRecentlyUsed()
+    {
+        SpriteCache cache = new SpriteCache(100);
+        PImage a = new PImage(6, 6);
+        PImage b = new PImage(6, 6);
+        PImage c = new PImage(6, 6);
+        cache.getFrames("a.png", a, 2);
+        cache.getFrames("b.png", b, 2);
+        cache.getFrames("a.png", a, 2);
+        cache.getFrames("c.png", c, 2);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertEquals(72, cache.getPixels());
+        cache.getFrames("a.png", a, 2);
+        assertEquals(2, cache.getHits());
+        cache.getFrames("b.png", b, 2);
+        assertEquals(4, cache.getMisses());
+
+        // Sheets bigger than the whole cache are cut but not kept
+        cache.getFrames("big.png", new PImage(20, 20), 1);
+        assertEquals(2, cache.size());
+    }
 }
@@ -0,0 +1,113 @@
+package test.java.org.ooqle.util;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.util.EntityRecord;
+import com.ooqle.game.util.JsonWorldReader;
+import com.ooqle.game.util.WorldSink;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JsonWorldReaderTests
+{
+    private static class RecordingSink implements WorldSink
+    {
+        private List<String> events = new ArrayList<>();
+        private int entities;
+
+        public void begin(int width, int height)
+        {
+            events.add("begin " + width + " " + height);
+        }
+
+        public void background(int x, int y, String type)
+        {
+            assertEquals("backgrounds come first", 0, entities);
+            events.add(type + " " + x + " " + y);
+        }
+
+        public void entity(EntityRecord record)
+        {
+            entities++;
+            events.add(record.toString() + " " + record.getId());
+        }
+    }
+
+    private File write(String json) throws IOException
+    {
+        File file = File.createTempFile("world", ".json");
+        file.deleteOnExit();
+        Files.write(file.toPath(), json.getBytes("UTF-8"));
+        return file;
+    }
+
+    @Test
+    public void testReadsAnyLayout() throws IOException
+    {
+        File file = write("{\n  \"worldObjects\": [\n    {\"rate\": \"700\", \"note\": {\"a\": [1, \"}]\\\"\"]}, \"type\": \"miner\",\n"
+                + "     \"location\": {\"y\": 2, \"x\": \"1\"}, \"resourceLimit\": 3.0, \"animationRate\": 100},\n"
+                + "    {\"type\": \"vein\", \"id\": \"00000000-0000-0001-0000-00000000002a\", \"resourceDistance\": -1,"
+                + " \"location\": {\"x\": 4, \"y\": 0}}\n  ],\n"
+                + "  \"height\": 4, \"flag\": true,\n  \"background\": [{\"location\": {\"x\": 3, \"y\": 2}, \"type\": \"rocks\"}],\n"
+                + "  \"width\": \"5\"\n}\n");
+        RecordingSink sink = new RecordingSink();
+        JsonWorldReader.read(file, sink);
+
+        assertEquals(4, sink.events.size());
+        assertEquals("begin 5 4", sink.events.get(0));
+        assertEquals("rocks 3 2", sink.events.get(1));
+        assertEquals("miner (1, 2) rate 700 animationRate 100 resourceLimit 3 resourceDistance 0 null", sink.events.get(2));
+        assertEquals("vein (4, 0) rate 0 animationRate 0 resourceLimit 0 resourceDistance -1 "
+                + "00000000-0000-0001-0000-00000000002a", sink.events.get(3));
+    }
+
+    @Test
+    public void testParallelReadMatchesSequential() throws IOException
+    {
+        File file = File.createTempFile("world", ".json");
+        file.deleteOnExit();
+        // Enough objects to fill a few chunks
+        int count = 3 * JsonWorldReader.CHUNK_BYTES / 90;
+        try (PrintWriter out = new PrintWriter(file, "UTF-8"))
+        {
+            out.print("{\"width\": 1000, \"height\": 1000, \"background\": [], \"worldObjects\": [");
+            for (int i = 0; i < count; i++)
+            {
+                out.print((i == 0 ? "" : ", ") + "{\"type\": \"" + (i % 3 == 0 ? "ore" : "obstacle") + "\", \"rate\": " + i
+                        + ", \"location\": {\"x\": " + i % 1000 + ", \"y\": " + i / 1000 + "}}");
+            }
+            out.print("]}");
+        }
+
+        RecordingSink sequential = new RecordingSink();
+        JsonWorldReader.read(file, sequential, 1);
+        RecordingSink parallel = new RecordingSink();
+        JsonWorldReader.read(file, parallel, 3);
+        assertEquals(count + 1, sequential.events.size());
+        assertEquals(sequential.events, parallel.events);
+        assertTrue(parallel.events.get(count).startsWith("obstacle (" + (count - 1) % 1000 + ", "));
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsTruncatedFile() throws IOException
+    {
+        JsonWorldReader.read(write("{\"background\": [], \"worldObjects\": [{\"type\": \"ore\", \"location\": {\"x\": 1"),
+                new RecordingSink());
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsBadNumber() throws IOException
+    {
+        JsonWorldReader.read(write("{\"worldObjects\": [{\"type\": \"ore\", \"rate\": \"fast\"}]}"), new RecordingSink());
+    }
+}
@@ -0,0 +1,156 @@
+package test.java.org.ooqle.util;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.util.ScheduledAction;
+import com.ooqle.game.util.TimingWheelScheduler;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimingWheelSchedulerTests
+{
+    private TimingWheelScheduler scheduler = new TimingWheelScheduler();
+    private List<String> ran = new ArrayList<>();
+
+    private ScheduledAction schedule(String name, long time)
+    {
+        return scheduler.schedule((long currentTicks) ->
+        {
+            ran.add(name);
+            return null;
+        }, time);
+    }
+
+    @Test
+    public void testRunsOnlyDueActions()
+    {
+        schedule("a", 100);
+        schedule("b", 5000);
+        scheduler.advance(1000);
+        assertEquals(Collections.singletonList("a"), ran);
+        assertEquals(1, scheduler.size());
+    }
+
+    @Test
+    public void testEarliestFirst()
+    {
+        schedule("late", 300000);
+        schedule("early", 70);
+        schedule("middle", 4100);
+        scheduler.advance(400000);
+        assertEquals(Arrays.asList("early", "middle", "late"), ran);
+        assertTrue(scheduler.isEmpty());
+    }
+
+    @Test
+    public void testSameTimeKeepsScheduleOrder()
+    {
+        schedule("first", 9000);
+        scheduler.advance(8990);
+        schedule("second", 9000);
+        schedule("third", 9000);
+        scheduler.advance(9000);
+        assertEquals(Arrays.asList("first", "second", "third"), ran);
+    }
+
+    @Test
+    public void testOverdueActionRunsOnNextAdvance()
+    {
+        scheduler.advance(500);
+        schedule("overdue", 10);
+        scheduler.advance(600);
+        assertEquals(Collections.singletonList("overdue"), ran);
+    }
+
+    @Test
+    public void testCancel()
+    {
+        ScheduledAction cancelled = schedule("cancelled", 200);
+        schedule("kept", 200);
+        cancelled.cancel();
+        assertEquals(1, scheduler.size());
+
+        scheduler.advance(200);
+        assertEquals(Collections.singletonList("kept"), ran);
+        assertTrue(cancelled.isCancelled());
+    }
+
+    @Test
+    public void testListenerSeesEachBatchBeforeItRuns()
+    {
+        schedule("a", 100);
+        ScheduledAction cancelled = schedule("cancelled", 100);
+        schedule("b", 100);
+        schedule("c", 250);
+        cancelled.cancel();
+
+        List<Integer> batches = new ArrayList<>();
+        scheduler.advance(300, (List<ScheduledAction> due, long ticks) ->
+        {
+            assertEquals(300, ticks);
+            batches.add(due.size());
+            ran.add("batch");
+        });
+        assertEquals(Arrays.asList(2, 1), batches);
+        assertEquals(Arrays.asList("batch", "a", "b", "batch", "c"), ran);
+    }
+
+    @Test
+    public void testRepeatingActionReusesItsHandle()
+    {
+        List<Long> times = new ArrayList<>();
+        ScheduledAction[] handle = new ScheduledAction[1];
+        handle[0] = scheduler.scheduleRepeating((long currentTicks) ->
+        {
+            times.add(currentTicks);
+            if (times.size() == 2)
+            {
+                handle[0].setPeriod(300);
+            }
+            if (times.size() == 4)
+            {
+                handle[0].cancel();
+            }
+            return null;
+        }, 100, 100);
+
+        for (long t = 50; t <= 2000; t += 50)
+        {
+            scheduler.advance(t);
+            assertEquals(handle[0].isDone() ? 0 : 1, scheduler.size());
+        }
+        assertEquals(Arrays.asList(100L, 200L, 500L, 800L), times);
+        assertTrue(handle[0].isCancelled());
+        assertTrue(scheduler.isEmpty());
+    }
+
+    @Test
+    public void testCancelledRepeatingActionStops()
+    {
+        ScheduledAction repeating = scheduler.scheduleRepeating((long currentTicks) ->
+        {
+            ran.add("tick");
+            return null;
+        }, 10, 10);
+        for (long t = 10; t <= 30; t += 10)
+        {
+            scheduler.advance(t);
+        }
+        assertEquals(3, ran.size());
+        assertFalse(repeating.isDone());
+
+        repeating.cancel();
+        assertTrue(scheduler.isEmpty());
+        scheduler.advance(100);
+        assertEquals(3, ran.size());
+    }
+}
@@ -0,0 +1,130 @@
+package test.java.org.ooqle.util;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.World;
+import com.ooqle.game.entity.MinerNotFull;
+import com.ooqle.game.entity.Vein;
+import com.ooqle.game.util.EntityRecord;
+import com.ooqle.game.util.SaveLoad;
+import com.ooqle.game.util.WorldFile;
+import com.ooqle.game.util.WorldSink;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class WorldFileTests
+{
+    private static class RecordingSink implements WorldSink
+    {
+        private List<String> events = new ArrayList<>();
+
+        public void begin(int width, int height)
+        {
+            events.add("begin " + width + " " + height);
+        }
+
+        public void background(int x, int y, String type)
+        {
+            events.add(type + " " + x + " " + y);
+        }
+
+        public void entity(EntityRecord record)
+        {
+            events.add(record.toString());
+        }
+    }
+
+    private File temp(String suffix) throws IOException
+    {
+        File file = File.createTempFile("world", suffix);
+        file.deleteOnExit();
+        return file;
+    }
+
+    @Test
+    public void testWritesAndReadsBack() throws IOException
+    {
+        File file = temp(".bin");
+        EntityRecord record = new EntityRecord();
+        try (WorldFile.Writer writer = new WorldFile.Writer(file))
+        {
+            writer.begin(5, 4);
+            writer.background(3, 2, "rocks");
+            record.reset("miner", 1, 2).setRate(700);
+            record.setAnimationRate(100);
+            record.setResourceLimit(3);
+            writer.entity(record);
+            record.reset("vein", 4, 0).setRate(12000);
+            record.setResourceDistance(1);
+            writer.entity(record);
+            writer.entity(record.reset("dragon", 0, 0));
+            writer.entity(record.reset("obstacle", 0, 3));
+        }
+        assertTrue(WorldFile.isWorldFile(file));
+        // Header, one byte per cell, then 21 + 17 + 9 bytes of entities
+        assertEquals(WorldFile.HEADER_BYTES + 20 + 21 + 17 + 9, file.length());
+
+        RecordingSink sink = new RecordingSink();
+        WorldFile.read(file, sink);
+        assertEquals(5, sink.events.size());
+        assertEquals("begin 5 4", sink.events.get(0));
+        assertEquals("rocks 3 2", sink.events.get(1));
+        assertEquals("miner (1, 2) rate 700 animationRate 100 resourceLimit 3 resourceDistance 0", sink.events.get(2));
+        assertTrue(sink.events.get(3).startsWith("vein (4, 0) rate 12000"));
+        assertTrue(sink.events.get(3).endsWith("resourceDistance 1"));
+        assertTrue(sink.events.get(4).startsWith("obstacle (0, 3)"));
+    }
+
+    @Test
+    public void testConvertsJson() throws IOException
+    {
+        File json = temp(".json");
+        Files.write(json.toPath(), ("{\"worldObjects\": [{\"resourceDistance\": \"1\", \"rate\": \"14000\", \"type\": \"vein\", "
+                + "\"location\": {\"y\": \"3\", \"x\": \"5\"}}, {\"resourceLimit\": \"2\", \"animationRate\": \"120\", "
+                + "\"rate\": \"800\", \"type\": \"miner\", \"location\": {\"y\": \"4\", \"x\": \"5\"}}], "
+                + "\"background\": [{\"type\": \"rocks\", \"location\": {\"y\": \"0\", \"x\": \"1\"}}]}\n").getBytes("UTF-8"));
+        assertFalse(WorldFile.isWorldFile(json));
+
+        File binary = temp(".bin");
+        WorldFile.convert(json, binary);
+        World fromJson = SaveLoad.load(json);
+        World fromBinary = SaveLoad.load(binary);
+
+        assertEquals(40, fromBinary.getWidth());
+        assertEquals(fromJson.getWorldObjects().size(), fromBinary.getWorldObjects().size());
+        assertEquals(1, fromBinary.countObjectsOfType(Vein.class));
+        MinerNotFull miner = fromBinary.getObjectsOfType(MinerNotFull.class).get(0);
+        assertEquals(800, miner.getRate());
+        assertEquals(120, miner.getAnimationRate());
+        assertEquals(2, miner.getResourceLimit());
+        assertEquals(fromJson.getBackgroundVersion(), fromBinary.getBackgroundVersion());
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsTruncatedFile() throws IOException
+    {
+        File file = temp(".bin");
+        EntityRecord record = new EntityRecord();
+        try (WorldFile.Writer writer = new WorldFile.Writer(file))
+        {
+            writer.begin(2, 2);
+            writer.entity(record.reset("ore", 1, 1));
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw"))
+        {
+            raf.setLength(file.length() - 2);
+        }
+        WorldFile.read(file, new RecordingSink());
+    }
+}
@@ -0,0 +1,124 @@
+package test.java.org.ooqle.util;
+/*
+* @author Kenny Williams
+*/
+
+import com.ooqle.game.HeadlessRuntime;
+import com.ooqle.game.Point;
+import com.ooqle.game.SimulationThread;
+import com.ooqle.game.World;
+import com.ooqle.game.entity.Background;
+import com.ooqle.game.entity.Obstacle;
+import com.ooqle.game.entity.Ore;
+import com.ooqle.game.entity.Vein;
+import com.ooqle.game.entity.WorldObject;
+import com.ooqle.game.util.SaveLoad;
+import com.ooqle.game.util.WorldSaver;
+import org.junit.Test;
+import processing.core.PImage;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class WorldSaverTests
+{
+    private List<PImage> imgs = Collections.singletonList(new PImage());
+    private World world = new World(6, 5, new Background(imgs.get(0)));
+    private Obstacle rock = new Obstacle("rock", new Point(1, 2), imgs);
+    private Vein vein = new Vein("vein", new Point(4, 4), imgs, 9000, 2);
+
+    private File temp() throws IOException
+    {
+        File file = File.createTempFile("world", ".json");
+        file.deleteOnExit();
+        WorldSaver.journalFor(file).deleteOnExit();
+        return file;
+    }
+
+    private World populated()
+    {
+        world.setBackground(new Point(3, 0), new Background(new PImage()));
+        world.addWorldObject(rock);
+        world.addWorldObject(vein);
+        return world;
+    }
+
+    @Test
+    public void testSavesAndLoadsBack() throws IOException
+    {
+        File file = temp();
+        SaveLoad.save(populated(), file);
+
+        World loaded = SaveLoad.load(file);
+        assertEquals(6, loaded.getWidth());
+        assertEquals(5, loaded.getHeight());
+        assertEquals(2, loaded.getWorldObjects().size());
+        assertNotSame(loaded.getDefaultBackground(), loaded.getBackgroundAt(new Point(3, 0)));
+        assertSame(loaded.getDefaultBackground(), loaded.getBackgroundAt(new Point(2, 0)));
+
+        Vein copy = (Vein) loaded.getWorldObjectByUUID(vein.getUUID());
+        assertEquals(new Point(4, 4), copy.getPosition());
+        assertEquals(9000, copy.getRate());
+        assertEquals(2, copy.getResourceDistance());
+        assertTrue(loaded.getWorldObjectAt(new Point(1, 2)) instanceof Obstacle);
+    }
+
+    @Test
+    public void testIncrementalSaveOnlyWritesChanges() throws IOException
+    {
+        File file = temp();
+        WorldSaver saver = new WorldSaver(file);
+        // Nothing to build on yet, so the first save is a full one
+        assertEquals(2, saver.save(populated(), true));
+        assertFalse(WorldSaver.journalFor(file).exists());
+        long length = file.length();
+
+        world.moveWorldObject(rock, new Point(2, 2));
+        world.removeEntity(vein);
+        Ore ore = new Ore("ore", new Point(0, 0), imgs, 20000);
+        world.addWorldObject(ore);
+        assertEquals(3, saver.save(world, true));
+        assertEquals(length, file.length());
+        assertTrue(WorldSaver.journalFor(file).exists());
+        assertEquals(0, saver.save(world, true));
+
+        World loaded = SaveLoad.load(file);
+        assertEquals(2, loaded.getWorldObjects().size());
+        assertNull(loaded.getWorldObjectByUUID(vein.getUUID()));
+        assertEquals(new Point(2, 2), loaded.getWorldObjectByUUID(rock.getUUID()).getPosition());
+        WorldObject loadedOre = loaded.getWorldObjectByUUID(ore.getUUID());
+        assertEquals(new Point(0, 0), loadedOre.getPosition());
+        assertEquals(20000, loadedOre.getRate());
+
+        // A full save folds the journal back into the file
+        assertEquals(2, saver.save(world, false));
+        assertFalse(WorldSaver.journalFor(file).exists());
+        assertEquals(2, SaveLoad.load(file).getWorldObjects().size());
+    }
+
+    @Test
+    public void testSavesBetweenSimulationSteps() throws IOException, InterruptedException, ExecutionException
+    {
+        File file = temp();
+        SimulationThread simulation = new SimulationThread(new HeadlessRuntime(populated(), 100));
+        CompletableFuture<Integer> saved = new WorldSaver(file).save(simulation, true);
+        simulation.submit(w -> w.removeEntity(rock));
+        assertFalse(saved.isDone());
+
+        simulation.update(1);
+        // Captured before the rock was removed
+        assertEquals(2, (int) saved.get());
+        assertEquals(2, SaveLoad.load(file).getWorldObjects().size());
+    }
+}